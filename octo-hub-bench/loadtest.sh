@@ -0,0 +1,88 @@
+#!/bin/bash
+
+# OctoHub 单机压测脚本
+# 以loadtest profile（内嵌H2、预置用户）启动后端，运行开放模型压测客户端，结束后停止后端
+# 用法: ./loadtest.sh [--rate 2000] [--duration 60] [--mix info=60,ws=20,node=15,login=5] [--out report.json] ...
+#       CLIENT=ws ./loadtest.sh [--connections 5000] [--pipeline 1] [--path node] ...  启用内嵌WebSocket网关并压测连接与消息吞吐
+# 环境变量: SEED_USERS（预置用户数，默认10000）、SERVER_PORT（默认18080）、SERVER_OPTS（后端JVM参数）、SKIP_BUILD=1 跳过构建、
+#           CLIENT（http或ws，默认http）
+
+set -e
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m'
+
+log() {
+    echo -e "${GREEN}[$(date +'%Y-%m-%d %H:%M:%S')] $1${NC}"
+}
+
+error() {
+    echo -e "${RED}[$(date +'%Y-%m-%d %H:%M:%S')] ERROR: $1${NC}"
+}
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+SEED_USERS=${SEED_USERS:-10000}
+SERVER_PORT=${SERVER_PORT:-18080}
+CLIENT=${CLIENT:-http}
+LOG_DIR="$ROOT_DIR/logs"
+SERVER_PID=""
+
+stop_server() {
+    if [ -n "$SERVER_PID" ] && kill -0 "$SERVER_PID" 2>/dev/null; then
+        log "停止后端 (PID: $SERVER_PID)..."
+        kill -TERM "$SERVER_PID" 2>/dev/null || true
+        wait "$SERVER_PID" 2>/dev/null || true
+    fi
+}
+
+trap stop_server EXIT
+
+main() {
+    cd "$ROOT_DIR"
+    mkdir -p "$LOG_DIR"
+
+    if [ "$SKIP_BUILD" != "1" ]; then
+        log "构建服务端与压测客户端..."
+        mvn -B -q package -DskipTests
+    fi
+
+    local server_jar
+    server_jar=$(ls octo-hub-server/target/octo-hub-server-*-exec.jar | head -n 1)
+
+    local server_args=()
+    if [ "$CLIENT" = "ws" ]; then
+        server_args+=(--websocket.gateway.enabled=true --websocket.server.port="$SERVER_PORT")
+    fi
+
+    log "启动后端 (loadtest profile, ${SEED_USERS} 个用户, 端口 ${SERVER_PORT})..."
+    # loadtest profile的配置与数据初始化类在压测模块中，通过loader.path加入后端的类路径
+    java $SERVER_OPTS -cp "$server_jar" -Dloader.path=octo-hub-bench/target/classes \
+        org.springframework.boot.loader.launch.PropertiesLauncher \
+        --spring.profiles.active=loadtest \
+        --server.port="$SERVER_PORT" \
+        --loadtest.seed.users="$SEED_USERS" "${server_args[@]}" > "$LOG_DIR/loadtest-server.log" 2>&1 &
+    SERVER_PID=$!
+
+    for i in {1..120}; do
+        if curl -s "http://localhost:${SERVER_PORT}/actuator/health" > /dev/null 2>&1; then
+            break
+        fi
+        if ! kill -0 "$SERVER_PID" 2>/dev/null || [ $i -eq 120 ]; then
+            error "后端启动失败，请检查日志: logs/loadtest-server.log"
+            exit 1
+        fi
+        sleep 1
+    done
+    log "后端已就绪，开始压测"
+
+    if [ "$CLIENT" = "ws" ]; then
+        java -cp octo-hub-bench/target/benchmarks.jar io.octohub.bench.load.WebSocketLoadClient \
+            --url "ws://localhost:${SERVER_PORT}" "$@"
+    else
+        java -cp octo-hub-bench/target/benchmarks.jar io.octohub.bench.load.LoadGenerator \
+            --url "http://localhost:${SERVER_PORT}" --users "$SEED_USERS" "$@"
+    fi
+}
+
+main "$@"
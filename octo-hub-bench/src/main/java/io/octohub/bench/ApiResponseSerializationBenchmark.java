@@ -0,0 +1,60 @@
+package io.octohub.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.octohub.dto.ApiResponse;
+import io.octohub.dto.WebSocketConnectionDto;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.octohub.enums.ErrorCode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiResponse的Jackson序列化基准测试
+ * springMapper 使用与Spring MVC相同方式构建的ObjectMapper，blackbird=true时注册服务端使用的Blackbird模块；
+ * success 为带数据的成功响应，error 为过滤器与认证入口写出的错误响应。
+ *
+ * 运行：java -jar target/benchmarks.jar ApiResponseSerializationBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectMapper springMapper;
+
+    private ApiResponse<WebSocketConnectionDto> success;
+
+    private ApiResponse<Object> error;
+
+    @Setup
+    public void setup() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        springMapper = builder.build();
+        WebSocketConnectionDto connection = new WebSocketConnectionDto(
+                "ws://localhost:8000/ws/node?pc_id=node-0001&timestamp=1700000000&signature="
+                        + "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef");
+        success = ApiResponse.success(connection);
+        error = ApiResponse.error(ErrorCode.SIGNATURE_INVALID);
+    }
+
+    @Benchmark
+    public byte[] success() throws Exception {
+        return springMapper.writeValueAsBytes(success);
+    }
+
+    @Benchmark
+    public byte[] error() throws Exception {
+        return springMapper.writeValueAsBytes(error);
+    }
+}
@@ -0,0 +1,61 @@
+package io.octohub.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对比两次JMH运行的JSON结果
+ * 按基准方法与参数匹配，输出两次得分与变化比例；吞吐量模式下比例为正表示变快，其余模式为正表示变慢。
+ *
+ * 运行：java -cp target/benchmarks.jar io.octohub.bench.BenchmarkCompare base.json current.json
+ */
+public final class BenchmarkCompare {
+
+    private BenchmarkCompare() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: BenchmarkCompare <base.json> <current.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = load(args[0]);
+        Map<String, JsonNode> current = load(args[1]);
+
+        System.out.printf("%-80s %16s %16s %10s %s%n", "Benchmark", "Base", "Current", "Change", "Unit");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue().path("primaryMetric");
+            JsonNode before = base.containsKey(entry.getKey()) ? base.get(entry.getKey()).path("primaryMetric") : null;
+            double score = now.path("score").asDouble();
+            String change = "new";
+            String baseScore = "-";
+            if (before != null) {
+                double previous = before.path("score").asDouble();
+                baseScore = String.format("%.3f", previous);
+                change = previous != 0 ? String.format("%+.1f%%", (score - previous) / previous * 100) : "n/a";
+            }
+            System.out.printf("%-80s %16s %16.3f %10s %s%n",
+                    entry.getKey(), baseScore, score, change, now.path("scoreUnit").asText());
+        }
+        for (String key : base.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-80s %16s %16s %10s%n", key, "", "-", "removed");
+            }
+        }
+    }
+
+    private static Map<String, JsonNode> load(String path) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(path))) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            key.append(" [").append(result.path("mode").asText()).append(']');
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
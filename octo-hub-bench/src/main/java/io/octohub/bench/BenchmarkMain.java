@@ -0,0 +1,34 @@
+package io.octohub.bench;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试入口
+ * 在JMH命令行参数之外默认追加JSON结果输出（jmh-result-时间戳.json），便于用BenchmarkCompare对比两次运行；
+ * 显式传入-rf或-rff时按传入的参数处理。
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-rff") && !isInformational(arguments)) {
+            String file = "jmh-result-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+            arguments.addAll(List.of("-rf", "json", "-rff", file));
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+
+    /**
+     * 列出基准、帮助等不执行基准的命令不生成结果文件
+     */
+    private static boolean isInformational(List<String> arguments) {
+        return arguments.contains("-l") || arguments.contains("-lp") || arguments.contains("-lprof")
+                || arguments.contains("-lrf") || arguments.contains("-h");
+    }
+}
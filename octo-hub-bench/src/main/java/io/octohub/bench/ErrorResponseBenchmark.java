@@ -0,0 +1,128 @@
+package io.octohub.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.octohub.dto.ApiResponse;
+import io.octohub.enums.ErrorCode;
+import io.octohub.metrics.ErrorCodeMetrics;
+import io.octohub.security.ErrorResponseWriter;
+import io.octohub.util.ResponseUtil;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证拒绝路径的错误响应写出基准测试
+ * legacyEntryPoint / legacyFilter 为改造前AuthEntryPointJwt（每次新建ObjectMapper）与
+ * SignatureAuthFilter（String经Writer写出）的实现；fixed / message 为ErrorResponseWriter
+ * 写出预渲染的错误码响应与按文案缓存的响应。
+ * MockHttpServletResponse的输出流逐字节写入，与Tomcat的批量写入差异较大，
+ * 因此响应对象的输出流替换为直接写入ByteArrayOutputStream的实现。
+ *
+ * 运行：java -jar target/benchmarks.jar ErrorResponseBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private static final String MESSAGE = "认证失败：Full authentication is required to access this resource";
+
+    private final ObjectMapper legacyFilterMapper = new ObjectMapper();
+
+    private ErrorResponseWriter writer;
+
+    @Setup
+    public void setup() throws Exception {
+        ErrorCodeMetrics errorCodeMetrics = new ErrorCodeMetrics();
+        ReflectionTestUtils.setField(errorCodeMetrics, "meterRegistry", new SimpleMeterRegistry());
+        errorCodeMetrics.init();
+
+        writer = new ErrorResponseWriter();
+        ReflectionTestUtils.setField(writer, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(writer, "errorCodeMetrics", errorCodeMetrics);
+        writer.init();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse legacyEntryPoint() throws Exception {
+        MockHttpServletResponse response = new BufferedResponse();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        ApiResponse<String> apiResponse = ApiResponse.error(ErrorCode.ERROR_LOGIN, MESSAGE);
+        new ObjectMapper().writeValue(response.getOutputStream(), apiResponse);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse legacyFilter() throws Exception {
+        MockHttpServletResponse response = new BufferedResponse();
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        ApiResponse<Object> apiResponse = ResponseUtil.error(ErrorCode.SIGNATURE_INVALID).getBody();
+        String jsonResponse = legacyFilterMapper.writeValueAsString(apiResponse);
+        response.getWriter().write(jsonResponse);
+        response.getWriter().flush();
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fixed() throws Exception {
+        MockHttpServletResponse response = new BufferedResponse();
+        writer.write(response, HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.SIGNATURE_INVALID);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse message() throws Exception {
+        MockHttpServletResponse response = new BufferedResponse();
+        writer.write(response, HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.ERROR_LOGIN, MESSAGE);
+        return response;
+    }
+
+    /**
+     * 输出流支持批量写入的Mock响应
+     */
+    public static class BufferedResponse extends MockHttpServletResponse {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                body.write(b, off, len);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.octohub.bench;
+
+import io.octohub.entity.User;
+import io.octohub.repository.UserRepository;
+import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+import io.octohub.util.JwtUtils;
+import io.octohub.util.SignatureUtils;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 安全过滤器链基准测试
+ * 通过springSecurityFilterChain执行完整的过滤器链（签名验证、JWT认证、授权），
+ * 请求与响应使用MockHttpServletRequest/Response，链末端不调用控制器。
+ * jwtAuthenticated 为携带有效JWT的用户请求；signed 为带签名的节点请求；anonymous 为未认证请求，由认证入口写出401。
+ * 过滤器链较长且包含Spring Security的观测包装，预热时间长于其他基准。
+ *
+ * 运行：java -jar target/benchmarks.jar FilterChainBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    private Filter filterChain;
+
+    private SignatureUtils signatureUtils;
+
+    private String bearer;
+
+    private String timestamp;
+
+    private String nonce;
+
+    private String signature;
+
+    @Setup
+    public void setup() {
+        ConfigurableApplicationContext context = ServerContext.acquire();
+        filterChain = context.getBean("springSecurityFilterChain", Filter.class);
+        signatureUtils = context.getBean(SignatureUtils.class);
+
+        User user = context.getBean(UserRepository.class).save(new User("bench@octohub.io", "unused"));
+        bearer = "Bearer " + context.getBean(JwtUtils.class).generateJwtToken(UserPrincipal.create(user));
+    }
+
+    /**
+     * 签名时间戳只在±300秒内有效，每轮迭代重新签名
+     */
+    @Setup(Level.Iteration)
+    public void sign() {
+        timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        nonce = String.valueOf(System.nanoTime());
+        signature = signatureUtils.generateSignature("GET", "/node/ws", Map.of("pc_id", "node-0001"), timestamp, nonce);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ServerContext.release();
+    }
+
+    @Benchmark
+    public int jwtAuthenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/info");
+        request.addHeader("Authorization", bearer);
+        return run(request);
+    }
+
+    @Benchmark
+    public int signed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/node/ws");
+        request.addParameter("pc_id", "node-0001");
+        request.addHeader("X-Signature", signature);
+        request.addHeader("X-Timestamp", timestamp);
+        request.addHeader("X-Nonce", nonce);
+        return run(request);
+    }
+
+    @Benchmark
+    public int anonymous() throws Exception {
+        return run(new MockHttpServletRequest("GET", "/user/info"));
+    }
+
+    private int run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,120 @@
+package io.octohub.bench;
+
+import io.octohub.util.SignatureUtils;
+import io.octohub.util.WebSocketSignatureUtils;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HMAC签名基准测试
+ * legacy* 复现改造前的实现：每次调用Mac.getInstance与init，StringBuilder拼接签名串，
+ * 十六进制编码逐字节String.format；其余方法走共享的HmacEngine。
+ *
+ * 运行：java -jar target/benchmarks.jar HmacBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HmacBenchmark {
+
+    private static final String API_SECRET = "mySignatureKey123456789012345";
+
+    private static final String WS_SECRET = "your-secret-key-here";
+
+    private SignatureUtils signatureUtils;
+
+    private WebSocketSignatureUtils webSocketSignatureUtils;
+
+    private Map<String, String> params;
+
+    private String timestamp;
+
+    private String nonce;
+
+    private String apiSignature;
+
+    private String wsSignature;
+
+    @Setup
+    public void setup() throws Exception {
+        signatureUtils = new SignatureUtils();
+        signatureUtils.setSecretKey(API_SECRET);
+        webSocketSignatureUtils = new WebSocketSignatureUtils();
+        webSocketSignatureUtils.setSecretKey(WS_SECRET);
+
+        params = new HashMap<>();
+        params.put("pc_id", "node-0001");
+        params.put("region", "cn-east");
+        timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        nonce = String.valueOf(System.currentTimeMillis() + 999);
+
+        apiSignature = legacyApiSignature();
+        wsSignature = legacyWebSocketSignature();
+        // 新旧实现必须产生相同的签名
+        if (!apiSignature.equals(signatureUtils.generateSignature("GET", "/node/ws", params, timestamp, nonce))
+                || !wsSignature.equals(webSocketSignatureUtils.generateSignature(WebSocketSignatureUtils.CLIENT_NODE, "node-0001", timestamp))) {
+            throw new IllegalStateException("HmacEngine output differs from legacy implementation");
+        }
+    }
+
+    @Benchmark
+    public String legacyApiSignature() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("GET".toUpperCase()).append("&");
+        sb.append("/node/ws").append("&");
+        TreeMap<String, String> sortedParams = new TreeMap<>(params);
+        for (Map.Entry<String, String> entry : sortedParams.entrySet()) {
+            sb.append(entry.getKey()).append("=").append(entry.getValue()).append("&");
+        }
+        sb.deleteCharAt(sb.length() - 1);
+        sb.append("&").append(timestamp).append("&").append(nonce);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(API_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public String apiSignature() {
+        return signatureUtils.generateSignature("GET", "/node/ws", params, timestamp, nonce);
+    }
+
+    @Benchmark
+    public boolean apiValidate() {
+        return signatureUtils.validateSignature("GET", "/node/ws", params, timestamp, nonce, apiSignature);
+    }
+
+    @Benchmark
+    public String legacyWebSocketSignature() throws Exception {
+        String message = "node-0001" + timestamp;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(WS_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] hash = mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
+        StringBuilder result = new StringBuilder();
+        for (byte b : hash) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    @Benchmark
+    public String webSocketSignature() {
+        return webSocketSignatureUtils.generateSignature(WebSocketSignatureUtils.CLIENT_NODE, "node-0001", timestamp);
+    }
+
+    @Benchmark
+    public boolean webSocketValidate() {
+        return webSocketSignatureUtils.validateSignature(WebSocketSignatureUtils.CLIENT_NODE, "node-0001", timestamp, wsSignature);
+    }
+}
@@ -0,0 +1,69 @@
+package io.octohub.bench;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.octohub.util.JwtUtils;
+import io.octohub.util.JwtVerification;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT校验基准测试
+ * legacy 复现改造前的路径：每次调用重新构建密钥和解析器，validate与extract各解析一次；
+ * singlePass 使用启动时构建的密钥和解析器，单次解析得到完整结果；
+ * issue 为登录时签发令牌的耗时。
+ *
+ * 运行：java -jar target/benchmarks.jar JwtVerifyBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "mySecretKey12345678901234567890123456789012345678901234567890";
+
+    private JwtUtils jwtUtils;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        jwtUtils.setJwtSecret(SECRET);
+        jwtUtils.setJwtExpirationMs(86400000);
+        jwtUtils.init();
+        token = jwtUtils.generateTokenFromId(10001L, "bench@octohub.io", List.of("ROLE_USER"), 3L);
+    }
+
+    @Benchmark
+    public Long legacyValidateAndExtract() {
+        // validateJwtToken
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token);
+        // getIdFromJwtToken
+        String subject = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+        return Long.parseLong(subject);
+    }
+
+    @Benchmark
+    public JwtVerification singlePass() {
+        return jwtUtils.verify(token);
+    }
+
+    @Benchmark
+    public String issue() {
+        return jwtUtils.generateTokenFromId(10001L, "bench@octohub.io", List.of("ROLE_USER"), 3L);
+    }
+}
@@ -0,0 +1,51 @@
+package io.octohub.bench;
+
+import io.octohub.Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试使用的服务端上下文
+ * 以内存H2数据库启动完整的应用上下文，使过滤器链、服务等按生产配置装配；
+ * 每个JMH fork只启动一次，由各基准的@TearDown关闭。
+ */
+final class ServerContext {
+
+    static final String SIGNATURE_SECRET = "mySignatureKey123456789012345";
+
+    private static ConfigurableApplicationContext context;
+
+    private static int references;
+
+    private ServerContext() {}
+
+    static synchronized ConfigurableApplicationContext acquire() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(Application.class)
+                    .web(WebApplicationType.SERVLET)
+                    // 以命令行参数传入，优先级高于服务端的application.properties
+                    .run(
+                            "--server.port=0",
+                            "--spring.main.banner-mode=off",
+                            "--logging.level.root=WARN",
+                            "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                            "--spring.datasource.username=sa",
+                            "--spring.datasource.password=",
+                            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                            "--spring.jpa.hibernate.ddl-auto=create-drop",
+                            "--signature.secret.key=" + SIGNATURE_SECRET,
+                            // 基准测试会重复发送相同的签名请求
+                            "--signature.nonce.enabled=false");
+        }
+        references++;
+        return context;
+    }
+
+    static synchronized void release() {
+        if (--references == 0) {
+            context.close();
+            context = null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.octohub.bench;
+
+import io.octohub.service.DispatchTask;
+import io.octohub.service.NodeLoadIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务调度决策耗时基准测试
+ * 在NodeLoadIndex上登记nodes个节点（容量1-16随机），预先提交load×总容量个任务后进入稳态：
+ * 每次操作完成最早推送的一个任务（释放容量并补发），再提交一个新任务并分配到负载最低的节点。
+ * load小于1时节点有空闲容量；大于1时节点队列积压，完成任务后从自身队列补发。
+ * 结果为单次“完成 + 提交”的平均耗时，不含TaskDispatcher的加锁与推送。
+ *
+ * 运行：java -jar target/benchmarks.jar TaskDispatchBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskDispatchBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int nodes;
+
+    @Param({"LEAST_OUTSTANDING", "WEIGHTED_CAPACITY"})
+    public NodeLoadIndex.Strategy strategy;
+
+    @Param({"0.5", "1.5"})
+    public double load;
+
+    private NodeLoadIndex index;
+
+    private final ArrayDeque<String> dispatched = new ArrayDeque<>();
+
+    private final List<DispatchTask> out = new ArrayList<>();
+
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new NodeLoadIndex(strategy);
+        SplittableRandom random = new SplittableRandom(42);
+        long totalCapacity = 0;
+        for (int i = 0; i < nodes; i++) {
+            int capacity = 1 + random.nextInt(16);
+            index.upsert(String.format("node-%05d", i), capacity);
+            totalCapacity += capacity;
+        }
+        long tasks = (long) (totalCapacity * load);
+        for (long i = 0; i < tasks; i++) {
+            submit();
+        }
+    }
+
+    @Benchmark
+    public int completeAndSubmit() {
+        String taskId = dispatched.pollFirst();
+        if (taskId != null) {
+            NodeLoadIndex.Slot slot = index.complete(taskId);
+            if (slot != null) {
+                index.fill(slot, out);
+                drain();
+            }
+        }
+        return submit();
+    }
+
+    private int submit() {
+        DispatchTask task = new DispatchTask(Long.toString(sequence++), "echo", Map.of(), 0L);
+        NodeLoadIndex.Slot slot = index.assign(task);
+        index.fill(slot, out);
+        return drain();
+    }
+
+    private int drain() {
+        int count = out.size();
+        for (DispatchTask task : out) {
+            dispatched.addLast(task.getTaskId());
+        }
+        out.clear();
+        return count;
+    }
+}
@@ -0,0 +1,139 @@
+package io.octohub.bench;
+
+import io.octohub.wal.SegmentedWal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 任务日志追加吞吐量与恢复耗时基准测试
+ * append：单线程追加payload字节的记录，不等待落盘；
+ * appendDurable：8个线程各自追加后等待落盘，fsync为true时由组提交合并刷盘，结果即每秒确认落盘的记录数。
+ * 追加过程中定期删除旧段，模拟任务完成后的压缩，日志目录不会持续增长。
+ * recover：打开含100万条记录的日志并逐条回放，结果为单次恢复耗时。
+ * 日志写在java.io.tmpdir下，结果取决于该目录所在磁盘。
+ *
+ * 运行：java -jar target/benchmarks.jar TaskWalBenchmark
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskWalBenchmark {
+
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    private static final long GROUP_COMMIT_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final int RECOVERY_RECORDS = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+
+        @Param({"128"})
+        public int payloadBytes;
+
+        @Param({"false", "true"})
+        public boolean fsync;
+
+        private Path dir;
+
+        private SegmentedWal wal;
+
+        private byte[] payload;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("task-wal-append");
+            wal = SegmentedWal.open(dir, SEGMENT_BYTES, fsync, GROUP_COMMIT_NANOS, (seq, type, buffer) -> {
+            });
+            payload = new byte[payloadBytes];
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            wal.close();
+            deleteRecursively(dir);
+        }
+
+        private long append() {
+            long seq = wal.append((byte) 1, payload);
+            if ((seq & 0xFFFF) == 0) {
+                try {
+                    wal.deleteBefore(seq);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return seq;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RecoveryState {
+
+        private Path dir;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("task-wal-recover");
+            byte[] payload = new byte[128];
+            try (SegmentedWal wal = SegmentedWal.open(dir, SEGMENT_BYTES, false, 0, (seq, type, buffer) -> {
+            })) {
+                for (int i = 0; i < RECOVERY_RECORDS; i++) {
+                    wal.append((byte) 1, payload);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long append(AppendState state) {
+        return state.append();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public long appendDurable(AppendState state) throws IOException, InterruptedException {
+        long seq = state.append();
+        state.wal.awaitDurable(seq);
+        return seq;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long recover(RecoveryState state) throws IOException {
+        long[] bytes = new long[1];
+        try (SegmentedWal wal = SegmentedWal.open(state.dir, SEGMENT_BYTES, false, 0,
+                (seq, type, buffer) -> bytes[0] += buffer.remaining())) {
+            if (wal.nextSeq() != RECOVERY_RECORDS + 1) {
+                throw new IllegalStateException("recovered " + (wal.nextSeq() - 1) + " records");
+            }
+        }
+        return bytes[0];
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.octohub.bench;
+
+import io.octohub.dto.NodeConnectionItem;
+import io.octohub.dto.WebSocketConnectionDto;
+import io.octohub.service.WebSocketService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket连接地址生成基准测试
+ * 单个用户/节点地址生成，以及批量接口按分片并行签名后汇总的耗时
+ *
+ * 运行：java -jar target/benchmarks.jar WebSocketServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketServiceBenchmark {
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private WebSocketService webSocketService;
+
+    private List<String> pcIds;
+
+    @Setup
+    public void setup() {
+        webSocketService = ServerContext.acquire().getBean(WebSocketService.class);
+        pcIds = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            pcIds.add(String.format("node-%05d", i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ServerContext.release();
+    }
+
+    @Benchmark
+    public WebSocketConnectionDto userUrl() {
+        return webSocketService.generateUserConnectionUrl("10001");
+    }
+
+    @Benchmark
+    public WebSocketConnectionDto nodeUrl() {
+        return webSocketService.generateNodeConnectionUrl("node-0001");
+    }
+
+    @Benchmark
+    public int nodeUrlBatch() {
+        int count = 0;
+        for (CompletableFuture<List<NodeConnectionItem>> chunk : webSocketService.generateNodeConnectionUrls(pcIds)) {
+            count += chunk.join().size();
+        }
+        return count;
+    }
+}
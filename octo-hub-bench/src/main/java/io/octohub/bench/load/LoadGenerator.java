@@ -0,0 +1,378 @@
+package io.octohub.bench.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.octohub.util.SignatureUtils;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开放模型压测客户端
+ * 按目标速率均匀发出请求，不等待上一个请求完成；延迟从计划发出时间开始计算，
+ * 服务端变慢时排队时间计入延迟（避免协同遗漏）。请求按权重在以下操作中随机选择：
+ * login（/login/login）、info（JWT /user/info）、ws（JWT /user/ws）、node（签名 /node/ws）。
+ * 在途请求超过上限时不再发出并计为dropped，表示压测客户端自身已过载。
+ *
+ * 运行：java -cp target/benchmarks.jar io.octohub.bench.load.LoadGenerator --rate 2000 --duration 60
+ */
+public final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    enum Operation {
+        LOGIN("login"),
+        INFO("info"),
+        WS("ws"),
+        NODE("node");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("unknown operation: " + key);
+        }
+    }
+
+    /**
+     * 单个操作的统计
+     */
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> errorKinds = new ConcurrentHashMap<>();
+
+        private void error(String kind) {
+            errors.increment();
+            errorKinds.computeIfAbsent(kind, key -> new LongAdder()).increment();
+        }
+
+        private void reset() {
+            latency.reset();
+            errors.reset();
+            errorKinds.clear();
+        }
+    }
+
+    private final Options options;
+
+    private final HttpClient client;
+
+    private final SignatureUtils signatureUtils = new SignatureUtils();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final EnumMap<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicLong nonces = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private List<String> tokens;
+
+    private LoadGenerator(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(options.clientThreads))
+                .build();
+        signatureUtils.setSecretKey(options.signatureSecret);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadGenerator generator = new LoadGenerator(options);
+        generator.prepareTokens();
+        generator.run();
+        System.exit(0);
+    }
+
+    /**
+     * 压测开始前为一组用户登录，JWT请求从中轮流选取令牌
+     */
+    private void prepareTokens() throws Exception {
+        tokens = new ArrayList<>(options.sessions);
+        for (int i = 0; i < options.sessions; i++) {
+            HttpResponse<String> response = client.send(loginRequest(1 + i % options.users), HttpResponse.BodyHandlers.ofString());
+            JsonNode body = objectMapper.readTree(response.body());
+            if (body.path("errcode").asInt(-1) != 0) {
+                throw new IllegalStateException("login failed for session " + i + ": " + response.body());
+            }
+            tokens.add(body.path("data").path("token").asText());
+        }
+        System.out.printf("Prepared %d sessions%n", tokens.size());
+    }
+
+    private void run() throws Exception {
+        Operation[] wheel = options.mixWheel();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long warmupNanos = TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long totalNanos = warmupNanos + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        SplittableRandom random = new SplittableRandom(42);
+
+        System.out.printf("Target %d req/s, warmup %ds, measure %ds, mix %s%n",
+                options.rate, options.warmupSeconds, options.durationSeconds, options.mix);
+        long start = System.nanoTime();
+        boolean measuring = warmupNanos == 0;
+        long measureStart = start + warmupNanos;
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended - start >= totalNanos) {
+                break;
+            }
+            if (!measuring && intended >= measureStart) {
+                awaitInFlight();
+                stats.values().forEach(Stats::reset);
+                dropped.reset();
+                measuring = true;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= options.maxInFlight) {
+                dropped.increment();
+                continue;
+            }
+            send(wheel[random.nextInt(wheel.length)], intended, random);
+        }
+        awaitInFlight();
+        report(Math.min(System.nanoTime(), start + totalNanos) - measureStart);
+    }
+
+    private void send(Operation operation, long intended, SplittableRandom random) {
+        HttpRequest request = switch (operation) {
+            case LOGIN -> loginRequest(1 + random.nextInt(options.users));
+            case INFO -> jwtRequest("/user/info", random);
+            case WS -> jwtRequest("/user/ws", random);
+            case NODE -> nodeRequest(random);
+        };
+        Stats target = stats.get(operation);
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            target.latency.recordValue(Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS));
+            if (failure != null) {
+                target.error(failure.getClass().getSimpleName());
+            } else if (response.statusCode() != 200) {
+                target.error("http " + response.statusCode());
+            } else if (!response.body().startsWith("{\"errcode\":0")) {
+                target.error("errcode " + errcodeOf(response.body()));
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    private HttpRequest loginRequest(int user) {
+        String body = "{\"email\":\"user" + user + "@loadtest.octohub.io\",\"password\":\"" + options.password + "\"}";
+        return HttpRequest.newBuilder(URI.create(options.url + "/login/login"))
+                .timeout(options.requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest jwtRequest(String path, SplittableRandom random) {
+        return HttpRequest.newBuilder(URI.create(options.url + path))
+                .timeout(options.requestTimeout)
+                .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest nodeRequest(SplittableRandom random) {
+        String pcId = "node-" + random.nextInt(options.nodes);
+        String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        String nonce = String.valueOf(nonces.incrementAndGet());
+        String signature = signatureUtils.generateSignature("GET", "/node/ws", Map.of("pc_id", pcId), timestamp, nonce);
+        return HttpRequest.newBuilder(URI.create(options.url + "/node/ws?pc_id=" + pcId))
+                .timeout(options.requestTimeout)
+                .header("X-Signature", signature)
+                .header("X-Timestamp", timestamp)
+                .header("X-Nonce", nonce)
+                .GET()
+                .build();
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + options.requestTimeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void report(long elapsedNanos) throws Exception {
+        double seconds = elapsedNanos / 1e9;
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        long totalErrors = 0;
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("targetRate", options.rate);
+        json.put("durationSeconds", seconds);
+        json.put("mix", options.mix);
+        ArrayNode operations = json.putArray("operations");
+
+        System.out.printf("%n%-8s %10s %12s %10s %10s %10s %10s %10s%n",
+                "op", "count", "throughput", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)", "errors");
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Histogram latency = entry.getValue().latency;
+            if (latency.getTotalCount() == 0) {
+                continue;
+            }
+            long errors = entry.getValue().errors.sum();
+            total.add(latency);
+            totalErrors += errors;
+            print(entry.getKey().key, latency, errors, seconds);
+            ObjectNode node = describe(entry.getKey().key, latency, errors, seconds);
+            ObjectNode kinds = node.putObject("errorKinds");
+            entry.getValue().errorKinds.forEach((kind, count) -> kinds.put(kind, count.sum()));
+            operations.add(node);
+        }
+        print("total", total, totalErrors, seconds);
+        json.set("total", describe("total", total, totalErrors, seconds));
+        json.put("dropped", dropped.sum());
+        System.out.printf("dropped (client in-flight limit %d): %d%n", options.maxInFlight, dropped.sum());
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            entry.getValue().errorKinds.forEach((kind, count) ->
+                    System.out.printf("  %s error %s: %d%n", entry.getKey().key, kind, count.sum()));
+        }
+        if (options.output != null) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(options.output), json);
+            System.out.printf("Report written to %s%n", options.output);
+        }
+    }
+
+    private static void print(String name, Histogram latency, long errors, double seconds) {
+        long count = latency.getTotalCount();
+        System.out.printf("%-8s %10d %10.1f/s %10.2f %10.2f %10.2f %10.2f %9.2f%%%n", name, count, count / seconds,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()),
+                count > 0 ? errors * 100.0 / count : 0.0);
+    }
+
+    private ObjectNode describe(String name, Histogram latency, long errors, double seconds) {
+        long count = latency.getTotalCount();
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("operation", name);
+        node.put("count", count);
+        node.put("throughput", count / seconds);
+        node.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+        node.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+        node.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+        node.put("maxMs", millis(latency.getMaxValue()));
+        node.put("errors", errors);
+        node.put("errorRate", count > 0 ? (double) errors / count : 0.0);
+        return node;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String errcodeOf(String body) {
+        int start = body.indexOf("\"errcode\":");
+        if (start < 0) {
+            return "?";
+        }
+        int end = start + 10;
+        while (end < body.length() && (Character.isDigit(body.charAt(end)) || body.charAt(end) == '-')) {
+            end++;
+        }
+        return body.substring(start + 10, end);
+    }
+
+    /**
+     * 命令行参数
+     */
+    private static final class Options {
+        private String url = "http://localhost:8080";
+        private int rate = 1000;
+        private int durationSeconds = 60;
+        private int warmupSeconds = 10;
+        private String mix = "info=60,ws=20,node=15,login=5";
+        private int users = 10000;
+        private String password = "loadtest";
+        private int sessions = 200;
+        private int nodes = 10000;
+        private String signatureSecret = "mySignatureKey123456789012345";
+        private int maxInFlight = 4096;
+        private int clientThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        private Duration requestTimeout = Duration.ofSeconds(10);
+        private String output;
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--url" -> options.url = value.replaceAll("/+$", "");
+                    case "--rate" -> options.rate = Integer.parseInt(value);
+                    case "--duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "--warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "--mix" -> options.mix = value;
+                    case "--users" -> options.users = Integer.parseInt(value);
+                    case "--password" -> options.password = value;
+                    case "--sessions" -> options.sessions = Integer.parseInt(value);
+                    case "--nodes" -> options.nodes = Integer.parseInt(value);
+                    case "--signature-secret" -> options.signatureSecret = value;
+                    case "--max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                    case "--client-threads" -> options.clientThreads = Integer.parseInt(value);
+                    case "--timeout-ms" -> options.requestTimeout = Duration.ofMillis(Long.parseLong(value));
+                    case "--out" -> options.output = value;
+                    default -> throw new IllegalArgumentException("unknown option: " + name);
+                }
+            }
+            if (options.rate <= 0 || options.durationSeconds <= 0) {
+                throw new IllegalArgumentException("--rate and --duration must be positive");
+            }
+            return options;
+        }
+
+        /**
+         * 按权重展开的操作表，随机下标即按权重选择
+         */
+        private Operation[] mixWheel() {
+            List<Operation> wheel = new ArrayList<>();
+            for (String part : mix.split(",")) {
+                String[] pair = part.trim().split("=");
+                Operation operation = Operation.of(pair[0].trim());
+                for (int i = Integer.parseInt(pair[1].trim()); i > 0; i--) {
+                    wheel.add(operation);
+                }
+            }
+            if (wheel.isEmpty()) {
+                throw new IllegalArgumentException("empty mix: " + mix);
+            }
+            return wheel.toArray(new Operation[0]);
+        }
+    }
+}
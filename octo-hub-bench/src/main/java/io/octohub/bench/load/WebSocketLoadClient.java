@@ -0,0 +1,353 @@
+package io.octohub.bench.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.octohub.util.WebSocketSignatureUtils;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 内嵌WebSocket网关压测客户端
+ * 按connect-rate建立connections个/ws/node（或/ws/user）连接并保持，连接地址按WebSocketService的规则签名。
+ * pipeline大于0时每个连接保持pipeline个在途ping，收到pong后立即发出下一个（闭环），
+ * 统计往返次数与延迟；pipeline为0时只保持连接，每keepalive秒发送一次ping避免空闲超时。
+ * 每次往返服务端接收一条、发送一条消息，messages/s按服务端收发的消息数计算，per core除以服务端CPU核数。
+ *
+ * 运行：java -cp target/benchmarks.jar io.octohub.bench.load.WebSocketLoadClient --connections 2000 --pipeline 1
+ */
+public final class WebSocketLoadClient {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private static final String REQUEST_ID = "\"request_id\":\"";
+
+    private final Options options;
+
+    private final HttpClient client;
+
+    private final WebSocketSignatureUtils signatureUtils = new WebSocketSignatureUtils();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+
+    private final LongAdder roundTrips = new LongAdder();
+
+    private final AtomicInteger open = new AtomicInteger();
+
+    private final Map<String, LongAdder> errorKinds = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    private WebSocketLoadClient(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(options.clientThreads))
+                .build();
+        signatureUtils.setSecretKey(options.signatureSecret);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        new WebSocketLoadClient(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        connect();
+        System.out.printf("Connected %d/%d, pipeline %d, warmup %ds, measure %ds%n", open.get(),
+                options.connections, options.pipeline, options.warmupSeconds, options.durationSeconds);
+        for (Connection connection : connections) {
+            for (int i = 0; i < options.pipeline; i++) {
+                connection.ping();
+            }
+        }
+        long keepaliveNanos = TimeUnit.SECONDS.toNanos(options.keepaliveSeconds);
+        long lastKeepalive = System.nanoTime();
+        lastKeepalive = sleep(options.warmupSeconds, keepaliveNanos, lastKeepalive);
+        latency.reset();
+        roundTrips.reset();
+        long start = System.nanoTime();
+        lastKeepalive = sleep(options.durationSeconds, keepaliveNanos, lastKeepalive);
+        long elapsed = System.nanoTime() - start;
+        long completed = roundTrips.sum();
+        Histogram snapshot = latency.copy();
+        int held = open.get();
+        running = false;
+        report(elapsed, held, completed, snapshot);
+    }
+
+    /**
+     * 按connect-rate建立连接，等待全部握手完成或失败
+     */
+    private void connect() throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.connectRate;
+        long start = System.nanoTime();
+        CompletableFuture<?>[] handshakes = new CompletableFuture<?>[options.connections];
+        for (int i = 0; i < options.connections; i++) {
+            long wait = start + i * intervalNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String id = options.idPrefix + i;
+            String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+            String signature = signatureUtils.generateSignature(options.path, id, timestamp);
+            String parameter = "node".equals(options.path) ? "pc_id" : "user_id";
+            URI uri = URI.create(options.url + "/ws/" + options.path + "?" + parameter + "=" + id
+                    + "&timestamp=" + timestamp + "&signature=" + signature);
+            Connection connection = new Connection();
+            handshakes[i] = client.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(uri, connection)
+                    .whenComplete((socket, failure) -> {
+                        if (failure != null) {
+                            error("connect " + rootCause(failure).getClass().getSimpleName());
+                        } else {
+                            connections.add(connection);
+                        }
+                    })
+                    .exceptionally(failure -> null);
+        }
+        CompletableFuture.allOf(handshakes).join();
+        // 连接建立后服务端先发送connected消息
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (open.get() < connections.size() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 等待seconds秒，只保持连接时每keepalive秒对所有连接发送一次ping
+     * @return 上次发送keepalive的时间
+     */
+    private long sleep(int seconds, long keepaliveNanos, long lastKeepalive) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < deadline) {
+            if (options.pipeline == 0 && System.nanoTime() - lastKeepalive >= keepaliveNanos) {
+                connections.forEach(Connection::ping);
+                lastKeepalive = System.nanoTime();
+            }
+            Thread.sleep(Math.max(1, Math.min(100, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+        }
+        return lastKeepalive;
+    }
+
+    private void report(long elapsedNanos, int held, long completed, Histogram snapshot) throws Exception {
+        double seconds = elapsedNanos / 1e9;
+        double roundTripRate = completed / seconds;
+        double messageRate = roundTripRate * 2;
+        System.out.printf("%nconnections held: %d/%d%n", held, options.connections);
+        System.out.printf("round trips: %d (%.1f/s)%n", completed, roundTripRate);
+        System.out.printf("server messages/s: %.1f (%.1f per core, %d server cores)%n", messageRate,
+                messageRate / options.serverCores, options.serverCores);
+        if (snapshot.getTotalCount() > 0) {
+            System.out.printf("latency p50 %.2fms p99 %.2fms p999 %.2fms max %.2fms%n",
+                    millis(snapshot.getValueAtPercentile(50)), millis(snapshot.getValueAtPercentile(99)),
+                    millis(snapshot.getValueAtPercentile(99.9)), millis(snapshot.getMaxValue()));
+        }
+        errorKinds.forEach((kind, count) -> System.out.printf("  error %s: %d%n", kind, count.sum()));
+
+        if (options.output != null) {
+            ObjectNode json = objectMapper.createObjectNode();
+            json.put("path", options.path);
+            json.put("connections", options.connections);
+            json.put("connectionsHeld", held);
+            json.put("pipeline", options.pipeline);
+            json.put("durationSeconds", seconds);
+            json.put("roundTrips", completed);
+            json.put("roundTripsPerSecond", roundTripRate);
+            json.put("messagesPerSecond", messageRate);
+            json.put("serverCores", options.serverCores);
+            json.put("messagesPerSecondPerCore", messageRate / options.serverCores);
+            json.put("p50Ms", millis(snapshot.getValueAtPercentile(50)));
+            json.put("p99Ms", millis(snapshot.getValueAtPercentile(99)));
+            json.put("p999Ms", millis(snapshot.getValueAtPercentile(99.9)));
+            json.put("maxMs", millis(snapshot.getMaxValue()));
+            ObjectNode kinds = json.putObject("errorKinds");
+            errorKinds.forEach((kind, count) -> kinds.put(kind, count.sum()));
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(options.output), json);
+            System.out.printf("Report written to %s%n", options.output);
+        }
+    }
+
+    private void error(String kind) {
+        errorKinds.computeIfAbsent(kind, key -> new LongAdder()).increment();
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        while (failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * 单个连接，发送按顺序串行（java.net.http.WebSocket不允许并发sendText）
+     */
+    private final class Connection implements WebSocket.Listener {
+
+        private final StringBuilder partial = new StringBuilder();
+
+        private WebSocket socket;
+
+        private CompletableFuture<?> sending = CompletableFuture.completedFuture(null);
+
+        private boolean connected;
+
+        /**
+         * 发送ping，request_id为发送时间，用于计算往返延迟
+         */
+        private synchronized void ping() {
+            if (socket == null || socket.isOutputClosed()) {
+                return;
+            }
+            String message = "{\"action\":\"ping\",\"request_id\":\"" + System.nanoTime() + "\"}";
+            sending = sending.thenCompose(ignored -> socket.sendText(message, true))
+                    .exceptionally(failure -> {
+                        error("send " + rootCause(failure).getClass().getSimpleName());
+                        return null;
+                    });
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            synchronized (this) {
+                socket = webSocket;
+            }
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String message = partial.toString();
+                partial.setLength(0);
+                handle(message);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        private void handle(String message) {
+            if (message.startsWith("{\"action\":\"pong\"")) {
+                int start = message.indexOf(REQUEST_ID);
+                if (start >= 0) {
+                    start += REQUEST_ID.length();
+                    long sent = Long.parseLong(message.substring(start, message.indexOf('"', start)));
+                    latency.recordValue(Math.min(System.nanoTime() - sent, HIGHEST_TRACKABLE_NANOS));
+                    roundTrips.increment();
+                }
+                if (options.pipeline > 0 && running) {
+                    ping();
+                }
+            } else if (message.startsWith("{\"action\":\"connected\"")) {
+                if (!connected) {
+                    connected = true;
+                    open.incrementAndGet();
+                }
+            } else if (message.startsWith("{\"action\":\"error\"")) {
+                error("server error");
+            }
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            closed("close " + statusCode);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            closed("error " + rootCause(error).getClass().getSimpleName());
+        }
+
+        private void closed(String kind) {
+            if (connected) {
+                connected = false;
+                open.decrementAndGet();
+            }
+            if (running) {
+                error(kind);
+            }
+        }
+    }
+
+    /**
+     * 命令行参数
+     */
+    private static final class Options {
+        private String url = "ws://localhost:8080";
+        private String path = "node";
+        private String idPrefix = "ws-load-";
+        private int connections = 1000;
+        private int connectRate = 500;
+        private int pipeline = 1;
+        private int durationSeconds = 30;
+        private int warmupSeconds = 5;
+        private int keepaliveSeconds = 30;
+        private String signatureSecret = "your-secret-key-here";
+        private int serverCores = Runtime.getRuntime().availableProcessors();
+        private int clientThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        private String output;
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("missing value for " + name);
+                }
+                String value = args[++i];
+                switch (name) {
+                    case "--url" -> options.url = value.replaceAll("/+$", "");
+                    case "--path" -> options.path = value;
+                    case "--id-prefix" -> options.idPrefix = value;
+                    case "--connections" -> options.connections = Integer.parseInt(value);
+                    case "--connect-rate" -> options.connectRate = Integer.parseInt(value);
+                    case "--pipeline" -> options.pipeline = Integer.parseInt(value);
+                    case "--duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "--warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "--keepalive" -> options.keepaliveSeconds = Integer.parseInt(value);
+                    case "--signature-secret" -> options.signatureSecret = value;
+                    case "--server-cores" -> options.serverCores = Integer.parseInt(value);
+                    case "--client-threads" -> options.clientThreads = Integer.parseInt(value);
+                    case "--out" -> options.output = value;
+                    default -> throw new IllegalArgumentException("unknown option: " + name);
+                }
+            }
+            if (!"node".equals(options.path) && !"user".equals(options.path)) {
+                throw new IllegalArgumentException("--path must be node or user");
+            }
+            if (options.connections <= 0 || options.connectRate <= 0 || options.pipeline < 0
+                    || options.durationSeconds <= 0) {
+                throw new IllegalArgumentException("--connections, --connect-rate and --duration must be positive");
+            }
+            return options;
+        }
+    }
+}
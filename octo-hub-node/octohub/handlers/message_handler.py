@@ -38,6 +38,9 @@ class MessageHandler:
         """处理接收到的消息"""
         try:
             data = json.loads(message)
+            if "type" not in data and "action" in data:
+                # 服务端内嵌网关的消息格式：{"action": ..., "data": {...}}，展开为与type格式相同的字典
+                data = self._unwrap_action_message(data)
             message_type = data.get("type", "unknown")
             
             logger.info(f"收到消息类型: {message_type}")
@@ -69,6 +72,17 @@ class MessageHandler:
         except Exception as e:
             logger.error(f"处理消息时发生错误: {e}")
     
+    @staticmethod
+    def _unwrap_action_message(data: Dict[str, Any]) -> Dict[str, Any]:
+        """将action格式的消息转换为type格式"""
+        action = data.get("action")
+        payload = data.get("data")
+        unwrapped = dict(payload) if isinstance(payload, dict) else {"data": payload}
+        unwrapped["type"] = "disconnect_notification" if action == "disconnected" else action
+        if data.get("request_id") is not None:
+            unwrapped.setdefault("request_id", data["request_id"])
+        return unwrapped
+
     async def _handle_connected(self, data: Dict[str, Any]):
         """处理连接成功消息"""
         logger.info("连接成功确认")
@@ -5,9 +5,55 @@ CREATE TABLE IF NOT EXISTS `users` (
     `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '用户ID，主键',
     `email` VARCHAR(255) NOT NULL COMMENT '用户邮箱，唯一',
     `password` VARCHAR(255) NOT NULL COMMENT '用户密码',
+    `role` VARCHAR(16) NOT NULL DEFAULT 'USER' COMMENT '角色：USER / ADMIN',
     `created_at` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    `version` BIGINT NOT NULL DEFAULT 0 COMMENT '版本号，JWT用户版本戳',
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_users_email` (`email`),
     INDEX `idx_users_created_at` (`created_at`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
+
+-- 升级脚本：为已有用户表增加版本号字段
+-- ALTER TABLE `users` ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0 COMMENT '版本号，JWT用户版本戳' AFTER `updated_at`;
+-- 升级脚本：为已有用户表增加角色字段，管理员需手动设置（同时递增version使旧令牌失效）
+-- ALTER TABLE `users` ADD COLUMN `role` VARCHAR(16) NOT NULL DEFAULT 'USER' COMMENT '角色：USER / ADMIN' AFTER `password`;
+-- UPDATE `users` SET `role` = 'ADMIN', `version` = `version` + 1 WHERE `email` = 'admin@example.com';
+
+-- 创建令牌吊销表
+CREATE TABLE IF NOT EXISTS `revoked_tokens` (
+    `jti` VARCHAR(64) NOT NULL COMMENT '令牌ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `expires_at` DATETIME NOT NULL COMMENT '令牌过期时间，过期后记录可删除',
+    `revoked_at` DATETIME NOT NULL COMMENT '吊销时间',
+    PRIMARY KEY (`jti`),
+    INDEX `idx_revoked_tokens_expires_at` (`expires_at`),
+    INDEX `idx_revoked_tokens_revoked_at` (`revoked_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='已吊销的JWT';
+
+-- 创建主键分配表，用户ID按段分配以支持批量插入
+CREATE TABLE IF NOT EXISTS `id_generators` (
+    `name` VARCHAR(64) NOT NULL COMMENT '序列名称',
+    `next_val` BIGINT NOT NULL COMMENT '下一段的起始值',
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='主键分配表';
+
+-- 初始化用户ID序列，起始值需大于已有最大ID加上分配步长（100）
+INSERT INTO `id_generators` (`name`, `next_val`)
+SELECT 'users', COALESCE(MAX(`id`), 0) + 101 FROM `users`
+ON DUPLICATE KEY UPDATE `next_val` = GREATEST(`next_val`, VALUES(`next_val`));
+
+-- 创建任务结果表，由服务端批量写入，同一任务重新分发后可能有多条记录
+CREATE TABLE IF NOT EXISTS `task_results` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `task_id` VARCHAR(64) NOT NULL COMMENT '任务ID',
+    `pc_id` VARCHAR(128) NOT NULL COMMENT '上报结果的节点ID',
+    `status` VARCHAR(16) NOT NULL COMMENT '任务状态：completed / failed',
+    `result` MEDIUMTEXT COMMENT '结果JSON',
+    `error` VARCHAR(1024) COMMENT '失败原因',
+    `node_timestamp` BIGINT COMMENT '节点完成任务的时间（秒）',
+    `received_at` DATETIME(3) NOT NULL COMMENT '服务端接收时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_task_results_task_id` (`task_id`),
+    INDEX `idx_task_results_received_at` (`received_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='任务结果';
@@ -0,0 +1,135 @@
+package io.octohub.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 读写分离数据源配置
+ * 主库使用spring.datasource.*，从库使用datasource.routing.replica-urls，每个库各自持有一个Hikari连接池。
+ * 未开启datasource.routing.enabled时不注册任何数据源，沿用Spring Boot自动配置的单数据源。
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceRoutingConfig {
+
+    /**
+     * 从库JDBC地址，多个以逗号分隔
+     */
+    @Value("${datasource.routing.replica-urls}")
+    private String replicaUrls;
+
+    /**
+     * 从库用户名与密码，未配置时与主库相同
+     */
+    @Value("${datasource.routing.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${datasource.routing.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${datasource.routing.replica-pool-size:10}")
+    private int replicaPoolSize;
+
+    /**
+     * 从库获取连接的超时时间，超时后回退到主库，应明显短于主库的超时时间
+     */
+    @Value("${datasource.routing.replica-connection-timeout-ms:1000}")
+    private long replicaConnectionTimeoutMillis;
+
+    @Value("${datasource.routing.sticky-ms:2000}")
+    private long stickyMillis;
+
+    @Value("${datasource.routing.validation-timeout-seconds:2}")
+    private int validationTimeoutSeconds;
+
+    /**
+     * 主库连接池，支持spring.datasource.hikari.*配置
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties properties, MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        int index = 0;
+        for (String url : StringUtils.commaDelimitedListToStringArray(replicaUrls)) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            String name = "replica-" + index++;
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            if (properties.getDriverClassName() != null) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setConnectionTimeout(replicaConnectionTimeoutMillis);
+            replica.setReadOnly(true);
+            // 从库不可用时不阻塞启动，由健康检查摘除
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                Duration.ofMillis(stickyMillis), validationTimeoutSeconds, meterRegistry);
+    }
+
+    /**
+     * 应用使用的数据源，延迟到第一条语句执行时才获取物理连接，此时事务的只读标记已设置
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * 从库健康检查
+     */
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(ReplicaRoutingDataSource routingDataSource) {
+        return new ReplicaHealthChecker(routingDataSource);
+    }
+
+    public static class ReplicaHealthChecker {
+
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        public ReplicaHealthChecker(ReplicaRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval-ms:5000}")
+        public void check() {
+            routingDataSource.checkReplicas();
+        }
+    }
+}
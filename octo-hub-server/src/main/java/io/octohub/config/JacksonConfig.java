@@ -0,0 +1,20 @@
+package io.octohub.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson配置
+ * Module类型的Bean会被Spring Boot注册到自动配置的ObjectMapper上，
+ * Blackbird用LambdaMetafactory生成的访问器替代反射读写属性，降低ApiResponse等对象的序列化开销。
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,291 @@
+package io.octohub.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务（@Transactional(readOnly = true)，包括Spring Data仓库默认的查询方法）路由到健康的从库，
+ * 其余连接路由到主库。需要包装在LazyConnectionDataSourceProxy中使用，
+ * 保证获取物理连接时事务的只读标记已经设置。
+ * 读己之写：当前用户的写事务提交后，在粘滞窗口内该用户的读请求仍走主库，避免读到复制延迟前的旧数据。
+ * 从库获取连接失败或健康检查失败时标记为不可用，全部从库不可用时读请求回退到主库。
+ * 认证过程中尚无安全上下文，粘滞规则不生效，需要最新数据的读取（如校验用户版本戳）通过onPrimary显式走主库。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+
+    /**
+     * 当前线程的读取是否强制走主库
+     */
+    private static final ThreadLocal<Boolean> PRIMARY_HINT = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private final int validationTimeoutSeconds;
+
+    /**
+     * 用户名 -> 最近一次写事务提交，条目在粘滞窗口后过期
+     */
+    private final Cache<String, Boolean> recentWriters;
+
+    private final Counter primaryCounter;
+
+    private final Counter replicaCounter;
+
+    private final Counter stickyCounter;
+
+    private final Counter fallbackCounter;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration stickyWindow, int validationTimeoutSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        List<Replica> list = new ArrayList<>();
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            targets.put(entry.getKey(), entry.getValue());
+            list.add(new Replica(entry.getKey(), entry.getValue()));
+        }
+        this.replicas = List.copyOf(list);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        primaryCounter = routes(meterRegistry, "primary");
+        replicaCounter = routes(meterRegistry, "replica");
+        stickyCounter = routes(meterRegistry, "sticky");
+        fallbackCounter = routes(meterRegistry, "fallback");
+        Gauge.builder("datasource.routing.replicas.healthy", this, ReplicaRoutingDataSource::healthyReplicas)
+                .description("健康的从库数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在主库上执行读取，忽略只读事务标记
+     * 只对执行期间新获取的连接生效，已在外层只读事务中绑定的从库连接不受影响
+     * @param action 读取操作
+     * @return 读取结果
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_HINT.get();
+        PRIMARY_HINT.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_HINT.remove();
+            } else {
+                PRIMARY_HINT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_HINT.get() != null) {
+            primaryCounter.increment();
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markWriterOnCommit();
+            primaryCounter.increment();
+            return PRIMARY;
+        }
+        String writer = currentUser();
+        if (writer != null && recentWriters.getIfPresent(writer) != null) {
+            stickyCounter.increment();
+            return PRIMARY;
+        }
+        Replica replica = nextHealthyReplica();
+        if (replica == null) {
+            fallbackCounter.increment();
+            return PRIMARY;
+        }
+        replicaCounter.increment();
+        return replica.name;
+    }
+
+    /**
+     * 从库获取连接失败时标记为不可用并回退到主库，由健康检查负责恢复
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        Replica replica = replicaByName(key);
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            markDown(replica, e);
+            fallbackCounter.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * 显式指定账号的连接只用于主库，从库账号由各自的连接池配置
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryCounter.increment();
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 检查所有从库，恢复可用的从库并摘除不可用的从库
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(validationTimeoutSeconds)) {
+                    throw new SQLException("connection is not valid");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    logger.info("Replica {} is back online", replica.name);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    /**
+     * 关闭从库连接池，主库连接池由其自身的Bean负责关闭
+     */
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    public int healthyReplicas() {
+        int count = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Replica replicaByName(Object name) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(name)) {
+                return replica;
+            }
+        }
+        throw new IllegalStateException("未知的从库: " + name);
+    }
+
+    private void markDown(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Replica {} marked down: {}", replica.name, e.getMessage());
+        }
+    }
+
+    /**
+     * 写事务提交后登记当前用户，登记发生在提交之后，提交前的读请求仍可能路由到从库
+     */
+    private void markWriterOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String writer = currentUser();
+        if (writer == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(writer, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter routes(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.routing.connections")
+                .description("按路由结果统计的连接获取次数")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 从库及其健康状态
+     */
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
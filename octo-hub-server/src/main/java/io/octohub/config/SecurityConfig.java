@@ -15,6 +15,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import io.octohub.service.UserDetailsServiceImpl;
 import io.octohub.security.AuthTokenFilter;
@@ -31,6 +32,12 @@ public class SecurityConfig {
     
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
+    
+    /**
+     * 管理端口，actuator端点只在该端口提供，未单独配置时为-1
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
@@ -72,7 +79,10 @@ public class SecurityConfig {
             .exceptionHandling(ex -> ex.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()  // 异步响应的再次分派，原请求已通过认证
                 .requestMatchers("/login/**").permitAll()  // 登录接口允许匿名访问
+                .requestMatchers("/ws/user", "/ws/node").permitAll()  // 内嵌WebSocket网关，握手时校验连接地址签名
+                .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()  // 管理端口只绑定内网地址，供Prometheus免认证抓取
                 .anyRequest().authenticated()  // 其他所有请求需要认证
             );
         
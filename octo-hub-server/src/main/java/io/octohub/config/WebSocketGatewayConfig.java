@@ -0,0 +1,65 @@
+package io.octohub.config;
+
+import io.octohub.service.WebSocketService;
+import io.octohub.websocket.SignatureHandshakeInterceptor;
+import io.octohub.websocket.WebSocketGateway;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * 内嵌WebSocket网关配置
+ * websocket.gateway.enabled=true时注册/ws/user与/ws/node，连接地址仍由WebSocketService生成，
+ * 需将websocket.server.host/port/protocol指向本服务。
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(name = "websocket.gateway.enabled", havingValue = "true")
+public class WebSocketGatewayConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private WebSocketGateway webSocketGateway;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Value("${cors.allowed-origins}")
+    private String allowedOrigins;
+
+    /**
+     * 每个连接预分配的接收缓冲，超过的消息分段交付给网关拼接
+     */
+    @Value("${websocket.gateway.frame-buffer-bytes:8192}")
+    private int frameBufferBytes;
+
+    @Value("${websocket.gateway.idle-timeout-ms:120000}")
+    private long idleTimeoutMs;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // 浏览器连接只允许前端域名；节点客户端不发送Origin，/ws/node不配置允许的域名，
+        // 带跨域Origin的握手（即浏览器页面发起的连接）一律拒绝
+        registry.addHandler(webSocketGateway, "/ws/user")
+                .addInterceptors(new SignatureHandshakeInterceptor(webSocketService, webSocketGateway,
+                        WebSocketGateway.ClientType.USER))
+                .setAllowedOrigins(allowedOrigins.trim().split(","));
+        registry.addHandler(webSocketGateway, "/ws/node")
+                .addInterceptors(new SignatureHandshakeInterceptor(webSocketService, webSocketGateway,
+                        WebSocketGateway.ClientType.NODE));
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(frameBufferBytes);
+        container.setMaxBinaryMessageBufferSize(frameBufferBytes);
+        container.setMaxSessionIdleTimeout(idleTimeoutMs);
+        return container;
+    }
+}
@@ -0,0 +1,87 @@
+package io.octohub.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.octohub.dto.UserImportProgress;
+import io.octohub.security.BodySignatureVerifier;
+import io.octohub.security.ErrorResponseWriter;
+import io.octohub.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 用户管理接口
+ * 调用方必须以管理员身份登录（JWT携带ROLE_ADMIN），并用独立的管理密钥对请求体签名；
+ * 节点共用的签名密钥不能访问这里。
+ */
+@RestController
+@RequestMapping("/admin/user")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminUserController {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BodySignatureVerifier bodySignatureVerifier;
+    
+    @Autowired
+    private ErrorResponseWriter errorResponseWriter;
+
+    /**
+     * 批量导入用户
+     * 请求体为NDJSON（每行{"email","password"}或{"email","passwordHash"}）或CSV，按Content-Type区分；
+     * 请求体先落盘并校验X-Body-Signature，通过后再逐行导入，响应为NDJSON进度，每提交一个分块输出一行。
+     */
+    @PostMapping(value = "/import", consumes = {APPLICATION_NDJSON, "text/csv"}, produces = APPLICATION_NDJSON)
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        Path body;
+        try {
+            body = bodySignatureVerifier.spool(request);
+        } catch (BodySignatureVerifier.RejectedException e) {
+            errorResponseWriter.write(response, e.getStatus(), e.getErrorCode(), e.getMessage());
+            return;
+        }
+        
+        try (InputStream in = Files.newInputStream(body)) {
+            response.setContentType(APPLICATION_NDJSON);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            OutputStream out = response.getOutputStream();
+            ObjectWriter writer = objectMapper.writerFor(UserImportProgress.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            userImportService.importUsers(in, format, progress -> {
+                writer.writeValue(out, progress);
+                out.write('\n');
+                out.flush();
+            });
+        } finally {
+            Files.deleteIfExists(body);
+        }
+    }
+}
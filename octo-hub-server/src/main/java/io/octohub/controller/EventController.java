@@ -0,0 +1,66 @@
+package io.octohub.controller;
+
+import io.octohub.dto.ApiResponse;
+import io.octohub.dto.StreamTicket;
+import io.octohub.enums.ErrorCode;
+import io.octohub.security.StreamTicketService;
+import io.octohub.service.EventBroadcaster;
+import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+import io.octohub.util.ResponseUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 节点与任务状态事件流
+ * 事件覆盖全部节点与任务，任务不记录提交者，无法按归属过滤，因此只对管理员开放。
+ */
+@RestController
+@RequestMapping("/events")
+@PreAuthorize("hasRole('ADMIN')")
+public class EventController {
+
+    @Autowired
+    private EventBroadcaster eventBroadcaster;
+
+    @Autowired
+    private StreamTicketService streamTicketService;
+
+    /**
+     * 换取事件流连接票据，请求需携带Authorization请求头
+     * @return 一次性票据，有效期内用于/events/stream?ticket=
+     */
+    @PostMapping("/ticket")
+    public ResponseEntity<ApiResponse<StreamTicket>> ticket(@AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseUtil.error(HttpStatus.UNAUTHORIZED, ErrorCode.ERROR_LOGIN);
+        }
+        return ResponseUtil.success(new StreamTicket(streamTicketService.issue(principal.getId()),
+                streamTicketService.getTtlSeconds()));
+    }
+
+    /**
+     * 订阅节点与任务状态事件流（text/event-stream）
+     * 认证只在建立连接时进行一次，通过Authorization请求头或ticket查询参数（EventSource）传递。
+     * 事件：node（pcId、status ONLINE/OFFLINE、timestamp），task（taskId、status QUEUED/DISPATCHED/COMPLETED、pcId、timestamp）
+     * @return 事件流；连接数已达上限时返回503
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<?> stream(@AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseUtil.error(HttpStatus.UNAUTHORIZED, ErrorCode.ERROR_LOGIN);
+        }
+        SseEmitter emitter = eventBroadcaster.subscribe(principal.getId());
+        if (emitter == null) {
+            return ResponseUtil.error(HttpStatus.SERVICE_UNAVAILABLE, ErrorCode.SERVICE_BUSY, "事件流连接数已达上限");
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
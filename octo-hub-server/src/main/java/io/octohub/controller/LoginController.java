@@ -8,45 +8,39 @@ import io.octohub.dto.LoginRequest;
 import io.octohub.dto.ApiResponse;
 import io.octohub.dto.JwtResponse;
 import io.octohub.util.ResponseUtil;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
-import io.octohub.util.JwtUtils;
+import io.octohub.service.LoginService;
 import io.octohub.enums.ErrorCode;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/login")
 public class LoginController {
 
 	@Autowired
-    private AuthenticationManager authenticationManager;
-
-	@Autowired
-	private JwtUtils jwtUtils;
+	private LoginService loginService;
 
+	/**
+	 * 登录，密码校验在独立线程池中异步完成
+	 */
 	@PostMapping("/login")
-	ResponseEntity<ApiResponse<JwtResponse>> login(@RequestBody LoginRequest loginRequest) {
-		try {
-            Authentication authentication = authenticationManager
-                    .authenticate(new UsernamePasswordAuthenticationToken(
-                            loginRequest.getEmail(),
-                            loginRequest.getPassword()));
-            
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            
-            UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
-            
-			String jwt = jwtUtils.generateJwtToken(userDetails.getId());
-
-            return ResponseUtil.success(new JwtResponse(jwt,
-                    userDetails.getId()));
-        } catch (Exception e) {
-            return ResponseUtil.error(ErrorCode.LOGIN_FAILED);
-        }
+	CompletableFuture<ResponseEntity<ApiResponse<JwtResponse>>> login(@RequestBody LoginRequest loginRequest) {
+		return loginService.login(loginRequest)
+				.handle((jwtResponse, e) -> {
+					if (e == null) {
+						return ResponseUtil.success(jwtResponse);
+					}
+					Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+					if (cause instanceof RejectedExecutionException) {
+						return ResponseUtil.error(HttpStatus.TOO_MANY_REQUESTS, ErrorCode.SERVICE_BUSY);
+					}
+					return ResponseUtil.error(ErrorCode.LOGIN_FAILED);
+				});
 	}
 
 }
@@ -1,25 +1,69 @@
 package io.octohub.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.RestController;
 import io.octohub.annotation.SignatureAuth;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import io.octohub.dto.ApiResponse;
+import io.octohub.dto.NodeCapacity;
+import io.octohub.dto.NodeConnectionItem;
+import io.octohub.dto.NodeStatus;
 import io.octohub.dto.WebSocketConnectionDto;
 import io.octohub.enums.ErrorCode;
+import io.octohub.util.NodeIds;
 import io.octohub.util.ResponseUtil;
+import io.octohub.service.NodeRegistry;
 import io.octohub.service.WebSocketService;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController 
 @RequestMapping("/node")
 @SignatureAuth
 public class NodeController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
     private WebSocketService webSocketService;
+
+    @Autowired
+    private NodeRegistry nodeRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 单次批量请求允许的最大节点数
+     */
+    @Value("${node.ws.batch.max-size:1000}")
+    private int batchMaxSize;
+
+    /**
+     * 在线节点列表单次返回的最大节点数
+     */
+    @Value("${node.registry.query.max-limit:1000}")
+    private int queryMaxLimit;
     
     /**
      * 获取Node节点WebSocket连接地址
@@ -36,9 +80,153 @@ public class NodeController {
             connectionInfo = webSocketService.generateNodeConnectionUrl(pcId);
             
             return ResponseUtil.success(connectionInfo);
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID, e.getMessage());
         } catch (Exception e) {
             return ResponseUtil.error(ErrorCode.SYSTEM_ERROR, "生成WebSocket连接地址失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 批量获取Node节点WebSocket连接地址
+     * 节点ID以逗号分隔放在一个参数中，使整个列表都被请求签名覆盖；
+     * 结果以NDJSON逐行返回，每行对应一个节点，单个节点失败时该行携带错误码。
+     * @param pcIds 逗号分隔的Node节点ID，重复的ID只返回一次
+     * @return NDJSON流，参数错误时返回400与错误码
+     */
+    @PostMapping("/ws/batch")
+    public ResponseEntity<StreamingResponseBody> getWsAddressBatch(
+        @RequestParam("pc_ids") String pcIds
+    ) {
+        List<String> ids = parseIds(pcIds);
+        if (ids.isEmpty()) {
+            return errorResponse("pc_ids不能为空");
+        }
+        if (ids.size() > batchMaxSize) {
+            return errorResponse("单次最多请求" + batchMaxSize + "个节点");
+        }
+
+        List<CompletableFuture<List<NodeConnectionItem>>> chunks = webSocketService.generateNodeConnectionUrls(ids);
+        // 逐行写入同一个输出流，不能在每次写入后关闭或刷新
+        ObjectWriter writer = objectMapper.writerFor(NodeConnectionItem.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> writeChunks(chunks, writer, outputStream);
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * 节点心跳，上报任务容量与当前负载
+     * 首次心跳登记节点，超过node.registry.heartbeat-timeout-ms未上报的节点自动离线
+     * @param pcId Node节点ID
+     * @param capacity 任务容量
+     * @param load 当前负载
+     */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<ApiResponse<Void>> heartbeat(
+        @RequestParam("pc_id") String pcId,
+        @RequestParam("capacity") int capacity,
+        @RequestParam(value = "load", defaultValue = "0") int load
+    ) {
+        if (!NodeIds.isValid(pcId) || capacity < 0 || load < 0) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID);
+        }
+        if (!nodeRegistry.heartbeat(pcId, capacity, load)) {
+            return ResponseUtil.error(ErrorCode.SERVICE_BUSY);
+        }
+        return ResponseUtil.success();
+    }
+
+    /**
+     * 查询在线节点，使用JWT认证
+     * @param minAvailable 剩余容量下限
+     * @param limit 最多返回的节点数
+     */
+    @GetMapping("/online")
+    @SignatureAuth(required = false)
+    public ResponseEntity<ApiResponse<List<NodeStatus>>> online(
+        @RequestParam(value = "min_available", defaultValue = "0") int minAvailable,
+        @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        if (limit <= 0 || limit > queryMaxLimit) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID, "limit取值范围为1-" + queryMaxLimit);
+        }
+        return ResponseUtil.success(nodeRegistry.online(minAvailable, limit));
+    }
+
+    /**
+     * 查询单个节点状态，使用JWT认证
+     * @param pcId Node节点ID
+     */
+    @GetMapping("/status")
+    @SignatureAuth(required = false)
+    public ResponseEntity<ApiResponse<NodeStatus>> status(@RequestParam("pc_id") String pcId) {
+        NodeStatus status = nodeRegistry.get(pcId);
+        if (status == null) {
+            return ResponseUtil.error(ErrorCode.NODE_OFFLINE);
+        }
+        return ResponseUtil.success(status);
+    }
+
+    /**
+     * 查询在线节点容量汇总，使用JWT认证
+     */
+    @GetMapping("/capacity")
+    @SignatureAuth(required = false)
+    public ResponseEntity<ApiResponse<NodeCapacity>> capacity() {
+        return ResponseUtil.success(nodeRegistry.capacity());
+    }
+
+    /**
+     * 参数错误时返回与其他接口一致的错误响应
+     */
+    private ResponseEntity<StreamingResponseBody> errorResponse(String message) {
+        ApiResponse<Void> error = ApiResponse.error(ErrorCode.PARAM_INVALID, message);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, error));
+    }
+
+    private static List<String> parseIds(String pcIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : pcIds.split(",")) {
+            String trimmed = id.trim();
+            if (!trimmed.isEmpty()) {
+                ids.add(trimmed);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * 按输入顺序逐块输出，每块完成后立即刷新，客户端无需等待整批签名结束
+     */
+    private static void writeChunks(List<CompletableFuture<List<NodeConnectionItem>>> chunks, ObjectWriter writer,
+                                    OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream, 16 * 1024);
+        int index = 0;
+        try {
+            for (; index < chunks.size(); index++) {
+                List<NodeConnectionItem> items;
+                try {
+                    items = chunks.get(index).join();
+                } catch (CompletionException | CancellationException e) {
+                    // 签名线程池已关闭（服务停机中），剩余分块不再输出
+                    throw new IOException("生成WebSocket连接地址失败", e);
+                }
+                for (NodeConnectionItem item : items) {
+                    writer.writeValue(out, item);
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // 客户端断开或签名失败后取消尚未开始的分块
+            for (; index < chunks.size(); index++) {
+                chunks.get(index).cancel(false);
+            }
+            throw e;
+        }
+    }
+
 }
@@ -0,0 +1,110 @@
+package io.octohub.controller;
+
+import io.octohub.annotation.SignatureAuth;
+import io.octohub.dto.ApiResponse;
+import io.octohub.dto.TaskAssignment;
+import io.octohub.dto.TaskResultRequest;
+import io.octohub.dto.TaskSubmitRequest;
+import io.octohub.enums.ErrorCode;
+import io.octohub.service.DispatchTask;
+import io.octohub.service.TaskDispatcher;
+import io.octohub.service.TaskResultService;
+import io.octohub.util.ResponseUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/task")
+public class TaskController {
+
+    private static final Pattern TASK_TYPE_PATTERN = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+    @Autowired
+    private TaskDispatcher taskDispatcher;
+
+    @Autowired
+    private TaskResultService taskResultService;
+
+    /**
+     * 提交任务，由调度器分发到负载最低的在线节点或指定节点
+     * @param request 任务类型、参数与可选的目标节点
+     * @return 任务ID与分发状态
+     */
+    @PostMapping("/submit")
+    public ResponseEntity<ApiResponse<TaskAssignment>> submit(@RequestBody TaskSubmitRequest request) {
+        if (request.getTaskType() == null || !TASK_TYPE_PATTERN.matcher(request.getTaskType()).matches()) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID, "taskType不合法");
+        }
+        if (!taskDispatcher.isAvailable()) {
+            return ResponseUtil.error(HttpStatus.SERVICE_UNAVAILABLE, ErrorCode.SERVICE_BUSY, "未配置任务推送通道");
+        }
+        String pcId = request.getPcId() != null && !request.getPcId().isBlank() ? request.getPcId() : null;
+        Map<String, Object> data = request.getData() != null ? request.getData() : Map.of();
+        DispatchTask task = new DispatchTask(UUID.randomUUID().toString(), request.getTaskType(), data,
+                System.currentTimeMillis());
+
+        ErrorCode result = taskDispatcher.submit(task, pcId);
+        if (result == ErrorCode.SERVICE_BUSY) {
+            return ResponseUtil.error(HttpStatus.TOO_MANY_REQUESTS, ErrorCode.SERVICE_BUSY);
+        }
+        if (result == ErrorCode.SYSTEM_ERROR) {
+            return ResponseUtil.error(HttpStatus.SERVICE_UNAVAILABLE, ErrorCode.SYSTEM_ERROR, "任务日志不可用");
+        }
+        if (result == ErrorCode.NODE_OFFLINE) {
+            return ResponseUtil.error(ErrorCode.NODE_OFFLINE, pcId != null ? "指定节点不在线" : "没有在线节点");
+        }
+        TaskAssignment assignment = taskDispatcher.getAssignment(task.getTaskId());
+        return ResponseUtil.success(assignment != null ? assignment : TaskAssignment.of(task));
+    }
+
+    /**
+     * 查询未完成任务的分发状态
+     * @param taskId 任务ID
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse<TaskAssignment>> status(@RequestParam("task_id") String taskId) {
+        TaskAssignment assignment = taskDispatcher.getAssignment(taskId);
+        if (assignment == null) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID, "任务不存在或已完成");
+        }
+        return ResponseUtil.success(assignment);
+    }
+
+    /**
+     * 节点上报任务结果，请求体为节点TaskProcessor生成的task_result消息
+     * 结果进入写入队列后即返回，由后台批量写入数据库；队列已满或任务日志不可用时返回429，节点应稍后重试；
+     * 任务不存在或未分配给该节点时返回409
+     * @param pcId 上报结果的节点ID
+     * @param request 任务结果
+     */
+    @PostMapping("/result")
+    @SignatureAuth
+    public ResponseEntity<ApiResponse<Void>> result(
+        @RequestParam("pc_id") String pcId,
+        @RequestBody TaskResultRequest request
+    ) {
+        String invalid = taskResultService.validate(pcId, request);
+        if (invalid != null) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID, invalid);
+        }
+        ErrorCode accepted = taskResultService.accept(pcId, request);
+        if (accepted == ErrorCode.TASK_NOT_ASSIGNED) {
+            return ResponseUtil.error(HttpStatus.CONFLICT, ErrorCode.TASK_NOT_ASSIGNED);
+        }
+        if (accepted != ErrorCode.SUCCESS) {
+            return ResponseUtil.error(HttpStatus.TOO_MANY_REQUESTS, ErrorCode.SERVICE_BUSY);
+        }
+        return ResponseUtil.success();
+    }
+}
@@ -3,15 +3,41 @@ package io.octohub.controller;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.beans.factory.annotation.Autowired;
 import io.octohub.dto.ApiResponse;
+import io.octohub.dto.UserPage;
+import io.octohub.dto.UserQuery;
+import io.octohub.dto.UserSummary;
 import io.octohub.dto.WebSocketConnectionDto;
 import io.octohub.entity.User;
 import io.octohub.enums.ErrorCode;
+import io.octohub.security.AuthTokenFilter;
+import io.octohub.security.VerifiedToken;
+import io.octohub.security.VerifiedTokenCache;
 import io.octohub.util.ResponseUtil;
+import io.octohub.service.TokenRevocationService;
 import io.octohub.service.UserService;
 import io.octohub.service.WebSocketService;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/user")
@@ -23,6 +49,15 @@ public class UserController {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/info")
     public ResponseEntity<ApiResponse<User>> getUserInfo() {
         return ResponseUtil.success(userService.getUserInfo());
@@ -46,5 +81,96 @@ public class UserController {
             return ResponseUtil.error(ErrorCode.SYSTEM_ERROR, "生成WebSocket连接地址失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 注销，吊销当前请求使用的JWT，并从已校验令牌缓存中移除
+     * 旧版令牌不携带jti，无法单独吊销，只能等待自然过期
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(HttpServletRequest request,
+            @RequestAttribute(name = AuthTokenFilter.VERIFIED_TOKEN_ATTRIBUTE, required = false) VerifiedToken token) {
+        if (token != null && token.getTokenId() != null) {
+            tokenRevocationService.revoke(token.getTokenId(), token.getUserId(), token.getExpiresAtMillis());
+        }
+        String jwt = AuthTokenFilter.parseJwt(request);
+        if (jwt != null) {
+            verifiedTokenCache.invalidate(jwt);
+        }
+        return ResponseUtil.success();
+    }
     
+
+    /**
+     * 用户列表，按创建时间倒序，使用游标翻页，仅管理员可用
+     * @param cursor 上一页返回的nextCursor，查询第一页时不传
+     * @param limit 每页条数
+     * @param emailPrefix 邮箱前缀
+     * @param createdFrom 创建时间下限（含），ISO格式
+     * @param createdTo 创建时间上限（不含），ISO格式
+     * @return 分页结果
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/list")
+    public ResponseEntity<ApiResponse<UserPage>> listUsers(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "50") int limit,
+            @RequestParam(name = "email_prefix", required = false) String emailPrefix,
+            @RequestParam(name = "created_from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(name = "created_to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        try {
+            return ResponseUtil.success(userService.listUsers(new UserQuery(emailPrefix, createdFrom, createdTo), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID, e.getMessage());
+        }
+    }
+
+    /**
+     * 按邮箱搜索用户，用于账号搜索与自动补全，仅管理员可用
+     * @param keyword 查询词，忽略大小写
+     * @param limit 最大返回条数
+     * @return 按邮箱排序的匹配用户
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<UserSummary>>> searchUsers(
+            @RequestParam(name = "q", required = false) String keyword,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        try {
+            return ResponseUtil.success(userService.searchUsers(keyword, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ErrorCode.PARAM_INVALID, e.getMessage());
+        }
+    }
+
+    /**
+     * 导出用户，以NDJSON逐行返回全部匹配的用户，条件与列表接口相同，仅管理员可用
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(name = "email_prefix", required = false) String emailPrefix,
+            @RequestParam(name = "created_from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(name = "created_to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        UserQuery query = new UserQuery(emailPrefix, createdFrom, createdTo);
+        ObjectWriter writer = objectMapper.writerFor(UserSummary.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, 16 * 1024);
+            try {
+                userService.exportUsers(query, user -> {
+                    try {
+                        writer.writeValue(out, user);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
 }
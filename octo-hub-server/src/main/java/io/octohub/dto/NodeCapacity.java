@@ -0,0 +1,61 @@
+package io.octohub.dto;
+
+/**
+ * 在线节点容量汇总
+ */
+public class NodeCapacity {
+
+    private int online;
+
+    private long capacity;
+
+    private long load;
+
+    public NodeCapacity() {}
+
+    public NodeCapacity(int online, long capacity, long load) {
+        this.online = online;
+        this.capacity = capacity;
+        this.load = load;
+    }
+
+    public int getOnline() {
+        return online;
+    }
+
+    public void setOnline(int online) {
+        this.online = online;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getLoad() {
+        return load;
+    }
+
+    public void setLoad(long load) {
+        this.load = load;
+    }
+
+    /**
+     * 剩余容量
+     */
+    public long getAvailable() {
+        return Math.max(0, capacity - load);
+    }
+
+    @Override
+    public String toString() {
+        return "NodeCapacity{" +
+                "online=" + online +
+                ", capacity=" + capacity +
+                ", load=" + load +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package io.octohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.octohub.enums.ErrorCode;
+
+/**
+ * 批量获取Node节点连接地址的单项结果
+ * 成功时携带wsUrl，失败时携带errcode与errmsg，不影响同批次的其他节点
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NodeConnectionItem {
+
+    private String pcId;
+
+    private String wsUrl;
+
+    private Integer errcode;
+
+    private String errmsg;
+
+    public NodeConnectionItem() {}
+
+    private NodeConnectionItem(String pcId, String wsUrl, Integer errcode, String errmsg) {
+        this.pcId = pcId;
+        this.wsUrl = wsUrl;
+        this.errcode = errcode;
+        this.errmsg = errmsg;
+    }
+
+    public static NodeConnectionItem success(String pcId, String wsUrl) {
+        return new NodeConnectionItem(pcId, wsUrl, ErrorCode.SUCCESS.getCode(), null);
+    }
+
+    public static NodeConnectionItem error(String pcId, ErrorCode errorCode, String errmsg) {
+        return new NodeConnectionItem(pcId, null, errorCode.getCode(), errmsg);
+    }
+
+    public String getPcId() {
+        return pcId;
+    }
+
+    public void setPcId(String pcId) {
+        this.pcId = pcId;
+    }
+
+    public String getWsUrl() {
+        return wsUrl;
+    }
+
+    public void setWsUrl(String wsUrl) {
+        this.wsUrl = wsUrl;
+    }
+
+    public Integer getErrcode() {
+        return errcode;
+    }
+
+    public void setErrcode(Integer errcode) {
+        this.errcode = errcode;
+    }
+
+    public String getErrmsg() {
+        return errmsg;
+    }
+
+    public void setErrmsg(String errmsg) {
+        this.errmsg = errmsg;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeConnectionItem{" +
+                "pcId='" + pcId + '\'' +
+                ", wsUrl='" + wsUrl + '\'' +
+                ", errcode=" + errcode +
+                ", errmsg='" + errmsg + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package io.octohub.dto;
+
+/**
+ * 在线节点状态
+ */
+public class NodeStatus {
+
+    private String pcId;
+
+    /**
+     * 节点上报的任务容量
+     */
+    private int capacity;
+
+    /**
+     * 节点上报的当前负载
+     */
+    private int load;
+
+    /**
+     * 最近一次心跳时间（毫秒）
+     */
+    private long lastHeartbeat;
+
+    /**
+     * 本次上线时间（毫秒）
+     */
+    private long onlineSince;
+
+    public NodeStatus() {}
+
+    public NodeStatus(String pcId, int capacity, int load, long lastHeartbeat, long onlineSince) {
+        this.pcId = pcId;
+        this.capacity = capacity;
+        this.load = load;
+        this.lastHeartbeat = lastHeartbeat;
+        this.onlineSince = onlineSince;
+    }
+
+    public String getPcId() {
+        return pcId;
+    }
+
+    public void setPcId(String pcId) {
+        this.pcId = pcId;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getLoad() {
+        return load;
+    }
+
+    public void setLoad(int load) {
+        this.load = load;
+    }
+
+    /**
+     * 剩余容量
+     */
+    public int getAvailable() {
+        return Math.max(0, capacity - load);
+    }
+
+    public long getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+
+    public void setLastHeartbeat(long lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat;
+    }
+
+    public long getOnlineSince() {
+        return onlineSince;
+    }
+
+    public void setOnlineSince(long onlineSince) {
+        this.onlineSince = onlineSince;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeStatus{" +
+                "pcId='" + pcId + '\'' +
+                ", capacity=" + capacity +
+                ", load=" + load +
+                ", lastHeartbeat=" + lastHeartbeat +
+                ", onlineSince=" + onlineSince +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package io.octohub.dto;
+
+/**
+ * 事件流连接票据
+ */
+public class StreamTicket {
+
+    private String ticket;
+
+    /**
+     * 有效期（秒），票据只能使用一次
+     */
+    private long expiresIn;
+
+    public StreamTicket(String ticket, long expiresIn) {
+        this.ticket = ticket;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
@@ -0,0 +1,93 @@
+package io.octohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.octohub.service.DispatchTask;
+
+/**
+ * 任务的分发状态
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskAssignment {
+
+    private String taskId;
+
+    private String taskType;
+
+    /**
+     * 当前分配的节点，未分配时为空
+     */
+    private String pcId;
+
+    /**
+     * QUEUED 或 DISPATCHED
+     */
+    private String state;
+
+    private int attempts;
+
+    public TaskAssignment() {}
+
+    public TaskAssignment(String taskId, String taskType, String pcId, String state, int attempts) {
+        this.taskId = taskId;
+        this.taskType = taskType;
+        this.pcId = pcId;
+        this.state = state;
+        this.attempts = attempts;
+    }
+
+    public static TaskAssignment of(DispatchTask task) {
+        return new TaskAssignment(task.getTaskId(), task.getTaskType(), task.getPcId(),
+                task.getState().name(), task.getAttempts());
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public void setTaskType(String taskType) {
+        this.taskType = taskType;
+    }
+
+    public String getPcId() {
+        return pcId;
+    }
+
+    public void setPcId(String pcId) {
+        this.pcId = pcId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskAssignment{" +
+                "taskId='" + taskId + '\'' +
+                ", taskType='" + taskType + '\'' +
+                ", pcId='" + pcId + '\'' +
+                ", state='" + state + '\'' +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
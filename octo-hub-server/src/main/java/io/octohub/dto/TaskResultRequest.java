@@ -0,0 +1,71 @@
+package io.octohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 节点上报的任务结果，与节点TaskProcessor生成的task_result消息格式一致
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskResultRequest {
+
+    @JsonProperty("task_id")
+    private String taskId;
+
+    /**
+     * completed 或 failed
+     */
+    private String status;
+
+    private JsonNode result;
+
+    private String error;
+
+    /**
+     * 节点完成任务的时间（秒）
+     */
+    private Long timestamp;
+
+    public TaskResultRequest() {}
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public JsonNode getResult() {
+        return result;
+    }
+
+    public void setResult(JsonNode result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
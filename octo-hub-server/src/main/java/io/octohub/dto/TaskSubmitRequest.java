@@ -0,0 +1,50 @@
+package io.octohub.dto;
+
+import java.util.Map;
+
+/**
+ * 任务提交请求
+ */
+public class TaskSubmitRequest {
+
+    /**
+     * 任务类型，对应节点TaskProcessor中注册的处理器
+     */
+    private String taskType;
+
+    /**
+     * 任务参数，原样放在推送消息的data字段中
+     */
+    private Map<String, Object> data;
+
+    /**
+     * 指定目标节点，为空时由调度器选择
+     */
+    private String pcId;
+
+    public TaskSubmitRequest() {}
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public void setTaskType(String taskType) {
+        this.taskType = taskType;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+
+    public String getPcId() {
+        return pcId;
+    }
+
+    public void setPcId(String pcId) {
+        this.pcId = pcId;
+    }
+}
@@ -0,0 +1,131 @@
+package io.octohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * 用户批量导入进度，每提交一个分块输出一行，最后一行done为true
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportProgress {
+
+    /**
+     * 已读取的数据行数
+     */
+    private long processed;
+
+    /**
+     * 已提交的用户数
+     */
+    private long imported;
+
+    /**
+     * 邮箱已存在而跳过的行数
+     */
+    private long skipped;
+
+    /**
+     * 格式错误或写入失败的行数
+     */
+    private long failed;
+
+    private boolean done;
+
+    /**
+     * 失败行的明细，只在最后一行输出且有数量上限
+     */
+    private List<Error> errors;
+
+    public UserImportProgress() {}
+
+    public UserImportProgress(long processed, long imported, long skipped, long failed, boolean done, List<Error> errors) {
+        this.processed = processed;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.done = done;
+        this.errors = errors;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<Error> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * 失败行
+     */
+    public static class Error {
+
+        private long line;
+
+        private String message;
+
+        public Error() {}
+
+        public Error(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
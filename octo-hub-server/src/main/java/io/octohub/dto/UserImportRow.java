@@ -0,0 +1,46 @@
+package io.octohub.dto;
+
+/**
+ * 用户批量导入的一行数据
+ * password与passwordHash二选一：passwordHash为已有系统迁移过来的BCrypt哈希，可跳过哈希计算
+ */
+public class UserImportRow {
+
+    private String email;
+
+    private String password;
+
+    private String passwordHash;
+
+    public UserImportRow() {}
+
+    public UserImportRow(String email, String password, String passwordHash) {
+        this.email = email;
+        this.password = password;
+        this.passwordHash = passwordHash;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+}
@@ -0,0 +1,37 @@
+package io.octohub.dto;
+
+import java.util.List;
+
+/**
+ * 用户列表分页结果
+ * nextCursor为下一页的游标，没有更多数据时为null
+ */
+public class UserPage {
+
+    private List<UserSummary> items;
+
+    private String nextCursor;
+
+    public UserPage() {}
+
+    public UserPage(List<UserSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UserSummary> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,56 @@
+package io.octohub.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户查询条件，均为可选
+ */
+public class UserQuery {
+
+    /**
+     * 邮箱前缀
+     */
+    private String emailPrefix;
+
+    /**
+     * 创建时间下限（含）
+     */
+    private LocalDateTime createdFrom;
+
+    /**
+     * 创建时间上限（不含）
+     */
+    private LocalDateTime createdTo;
+
+    public UserQuery() {}
+
+    public UserQuery(String emailPrefix, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        this.emailPrefix = emailPrefix;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+    }
+
+    public String getEmailPrefix() {
+        return emailPrefix;
+    }
+
+    public void setEmailPrefix(String emailPrefix) {
+        this.emailPrefix = emailPrefix;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+}
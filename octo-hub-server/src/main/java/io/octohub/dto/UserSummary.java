@@ -0,0 +1,62 @@
+package io.octohub.dto;
+
+import io.octohub.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户列表项
+ */
+public class UserSummary {
+
+    private Long id;
+
+    private String email;
+
+    private LocalDateTime createdAt;
+
+    public UserSummary() {}
+
+    public UserSummary(Long id, String email, LocalDateTime createdAt) {
+        this.id = id;
+        this.email = email;
+        this.createdAt = createdAt;
+    }
+
+    public static UserSummary of(User user) {
+        return new UserSummary(user.getId(), user.getEmail(), user.getCreatedAt());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSummary{" +
+                "id=" + id +
+                ", email='" + email + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
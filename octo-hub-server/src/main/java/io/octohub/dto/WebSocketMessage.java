@@ -0,0 +1,96 @@
+package io.octohub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * WebSocket消息，与octo-hub-ws的Message格式一致
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WebSocketMessage {
+
+    private String action;
+
+    private Object data;
+
+    /**
+     * 消息时间（秒）
+     */
+    private long timestamp;
+
+    /**
+     * 请求ID，响应中原样返回用于匹配
+     */
+    @JsonProperty("request_id")
+    private String requestId;
+
+    private String from;
+
+    private String to;
+
+    public WebSocketMessage() {}
+
+    public WebSocketMessage(String action, Object data, String requestId) {
+        this.action = action;
+        this.data = data;
+        this.timestamp = System.currentTimeMillis() / 1000;
+        this.requestId = requestId;
+    }
+
+    /**
+     * 系统消息，from为system
+     */
+    public static WebSocketMessage system(String action, Object data) {
+        WebSocketMessage message = new WebSocketMessage(action, data, null);
+        message.setFrom("system");
+        return message;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public void setData(Object data) {
+        this.data = data;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+}
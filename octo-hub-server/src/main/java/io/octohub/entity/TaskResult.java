@@ -0,0 +1,114 @@
+package io.octohub.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 节点上报的任务结果
+ * 由TaskResultWriter批量写入，同一任务重新分发后可能有多条记录
+ */
+@Entity
+@Table(name = "task_results", indexes = {
+        @Index(name = "idx_task_results_task_id", columnList = "task_id"),
+        @Index(name = "idx_task_results_received_at", columnList = "received_at")
+})
+public class TaskResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false, length = 64)
+    private String taskId;
+
+    @Column(name = "pc_id", nullable = false, length = 128)
+    private String pcId;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    /**
+     * 结果JSON
+     */
+    @Lob
+    private String result;
+
+    @Column(length = 1024)
+    private String error;
+
+    /**
+     * 节点上报的完成时间（秒）
+     */
+    @Column(name = "node_timestamp")
+    private Long nodeTimestamp;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    public TaskResult() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getPcId() {
+        return pcId;
+    }
+
+    public void setPcId(String pcId) {
+        this.pcId = pcId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Long getNodeTimestamp() {
+        return nodeTimestamp;
+    }
+
+    public void setNodeTimestamp(Long nodeTimestamp) {
+        this.nodeTimestamp = nodeTimestamp;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+}
@@ -6,10 +6,33 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
 public class User {
     
+    /**
+     * 每次从id_generators表取号预留的ID数
+     */
+    public static final int ID_ALLOCATION_SIZE = 100;
+    
+    /**
+     * 普通用户
+     */
+    public static final String ROLE_USER = "USER";
+    
+    /**
+     * 管理员，可以查看、导出全部用户并批量导入用户
+     */
+    public static final String ROLE_ADMIN = "ADMIN";
+    
+    /**
+     * 主键由id_generators表按段分配（pooled），插入前即可得到主键，Hibernate才能批量插入；
+     * IDENTITY策略需要逐行执行INSERT才能拿到主键。
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id")
+    @TableGenerator(name = "user_id", table = "id_generators",
+            pkColumnName = "name", valueColumnName = "next_val", pkColumnValue = "users",
+            allocationSize = User.ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(unique = true, nullable = false)
@@ -19,12 +42,26 @@ public class User {
     @JsonIgnore
     private String password;
     
+    /**
+     * 角色，USER或ADMIN，变更时版本号随之递增，携带旧角色的JWT失去无状态认证资格
+     */
+    @Column(nullable = false, length = 16)
+    private String role = ROLE_USER;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * 版本号，每次更新自增，同时写入JWT作为用户版本戳
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+    
     // 构造函数
     public User() {
         this.createdAt = LocalDateTime.now();
@@ -68,6 +105,14 @@ public class User {
         this.password = password;
     }
     
+    public String getRole() {
+        return role;
+    }
+    
+    public void setRole(String role) {
+        this.role = role;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -84,11 +129,20 @@ public class User {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "User{" +
                 "id=" + id +
                 ", email='" + email + '\'' +
+                ", role='" + role + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
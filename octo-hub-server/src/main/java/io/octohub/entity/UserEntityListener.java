@@ -0,0 +1,106 @@
+package io.octohub.entity;
+
+import io.octohub.service.EmailSearchIndex;
+import io.octohub.service.UserCache;
+import io.octohub.service.UserVersionRegistry;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 用户实体监听器
+ * 用户写入后同步内存中的版本戳，使旧版本的JWT失去无状态认证资格，同时使用户缓存失效、更新邮箱搜索索引。
+ * 回调发生在flush时，此时事务尚未提交：版本戳与索引在事务提交后才更新，回滚时保持不变；
+ * 缓存则立即失效并在提交后再失效一次。
+ */
+@Component
+public class UserEntityListener {
+
+    @Autowired
+    private ObjectProvider<UserVersionRegistry> userVersionRegistry;
+
+    @Autowired
+    private ObjectProvider<UserCache> userCache;
+
+    @Autowired
+    private ObjectProvider<EmailSearchIndex> emailSearchIndex;
+
+    /**
+     * 更新前先使缓存失效，缩短其他请求读到旧数据的窗口
+     */
+    @PreUpdate
+    public void beforeUpdate(User user) {
+        invalidateCache(user);
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterWrite(User user) {
+        invalidateCache(user);
+        Long id = user.getId();
+        Long version = user.getVersion();
+        String email = user.getEmail();
+        afterCommit(() -> {
+            UserVersionRegistry registry = userVersionRegistry.getIfAvailable();
+            if (registry != null && id != null && version != null) {
+                registry.record(id, version);
+            }
+            // 更新期间并发加载的旧数据会在这里再次清除，之后的命中还会按版本戳校验
+            invalidateCache(id);
+            EmailSearchIndex index = emailSearchIndex.getIfAvailable();
+            if (index != null) {
+                index.put(id, email);
+            }
+        });
+    }
+
+    @PostRemove
+    public void afterRemove(User user) {
+        invalidateCache(user);
+        Long id = user.getId();
+        afterCommit(() -> {
+            UserVersionRegistry registry = userVersionRegistry.getIfAvailable();
+            if (registry != null && id != null) {
+                registry.remove(id);
+            }
+            invalidateCache(id);
+            EmailSearchIndex index = emailSearchIndex.getIfAvailable();
+            if (index != null) {
+                index.remove(id);
+            }
+        });
+    }
+
+    /**
+     * 在当前事务提交后执行，没有事务同步时（如非事务写入）立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void invalidateCache(User user) {
+        invalidateCache(user.getId());
+    }
+
+    private void invalidateCache(Long id) {
+        UserCache cache = userCache.getIfAvailable();
+        if (cache != null && id != null) {
+            cache.invalidate(id);
+        }
+    }
+}
@@ -13,11 +13,22 @@ public enum ErrorCode {
     ERROR_LOGIN(401, "未登录"),
     LOGIN_FAILED(1001, "登录失败"),
     SYSTEM_ERROR(1000, "系统内部错误"),
+    PARAM_INVALID(1007, "请求参数错误"),
     
     // 签名验证错误
     SIGNATURE_INVALID(1002, "签名验证失败"),
     SIGNATURE_EXPIRED(1003, "签名已过期"),
-    SIGNATURE_MISSING(1004, "缺少签名信息");
+    SIGNATURE_MISSING(1004, "缺少签名信息"),
+    SIGNATURE_REPLAYED(1005, "请求已处理，禁止重放"),
+    
+    // 限流错误
+    SERVICE_BUSY(1006, "服务繁忙，请稍后重试"),
+    
+    // 节点错误
+    NODE_OFFLINE(1008, "节点不在线"),
+    
+    // 任务错误
+    TASK_NOT_ASSIGNED(1009, "任务不存在或未分配给该节点");
     
     
     private final Integer code;
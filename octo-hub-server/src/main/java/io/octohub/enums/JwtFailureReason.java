@@ -0,0 +1,25 @@
+package io.octohub.enums;
+
+/**
+ * JWT校验失败原因
+ */
+public enum JwtFailureReason {
+    
+    // 令牌为空
+    EMPTY,
+    
+    // 令牌格式错误
+    MALFORMED,
+    
+    // 签名校验失败
+    INVALID_SIGNATURE,
+    
+    // 令牌已过期
+    EXPIRED,
+    
+    // 不支持的令牌类型
+    UNSUPPORTED,
+    
+    // 主题不是合法的用户ID
+    INVALID_SUBJECT
+}
@@ -0,0 +1,50 @@
+package io.octohub.event;
+
+/**
+ * 节点上下线事件
+ * 节点首次上报心跳时发布ONLINE，心跳超时被移出登记表时发布OFFLINE。
+ * 事件在心跳线程或过期检查线程中同步发布，监听方不应执行耗时操作。
+ */
+public class NodeStatusEvent {
+
+    public enum Status {
+        ONLINE,
+        OFFLINE
+    }
+
+    private final String pcId;
+
+    private final Status status;
+
+    private final long timestamp;
+
+    public NodeStatusEvent(String pcId, Status status, long timestamp) {
+        this.pcId = pcId;
+        this.status = status;
+        this.timestamp = timestamp;
+    }
+
+    public String getPcId() {
+        return pcId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * 事件发生时间（毫秒）
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeStatusEvent{" +
+                "pcId='" + pcId + '\'' +
+                ", status=" + status +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
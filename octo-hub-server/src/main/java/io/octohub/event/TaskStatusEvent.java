@@ -0,0 +1,62 @@
+package io.octohub.event;
+
+/**
+ * 任务状态变化事件
+ * 任务提交进入队列时发布QUEUED，推送到节点后发布DISPATCHED，收到结果后发布COMPLETED。
+ * 事件在提交、推送或结果上报的线程中同步发布，监听方不应执行耗时操作。
+ */
+public class TaskStatusEvent {
+
+    public enum Status {
+        QUEUED,
+        DISPATCHED,
+        COMPLETED
+    }
+
+    private final String taskId;
+
+    private final Status status;
+
+    private final String pcId;
+
+    private final long timestamp;
+
+    public TaskStatusEvent(String taskId, Status status, String pcId, long timestamp) {
+        this.taskId = taskId;
+        this.status = status;
+        this.pcId = pcId;
+        this.timestamp = timestamp;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * 分配或执行的节点，未分配时为null
+     */
+    public String getPcId() {
+        return pcId;
+    }
+
+    /**
+     * 事件发生时间（毫秒）
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskStatusEvent{" +
+                "taskId='" + taskId + '\'' +
+                ", status=" + status +
+                ", pcId='" + pcId + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
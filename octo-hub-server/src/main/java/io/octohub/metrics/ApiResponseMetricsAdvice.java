@@ -0,0 +1,39 @@
+package io.octohub.metrics;
+
+import io.octohub.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 控制器返回的ApiResponse在写出前按错误码计数
+ * 过滤器与认证入口直接写出的错误响应由其自身调用ErrorCodeMetrics
+ */
+@RestControllerAdvice
+public class ApiResponseMetricsAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private ErrorCodeMetrics errorCodeMetrics;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType, @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        if (body instanceof ApiResponse<?> apiResponse) {
+            errorCodeMetrics.record(apiResponse.getErrcode());
+        }
+        return body;
+    }
+}
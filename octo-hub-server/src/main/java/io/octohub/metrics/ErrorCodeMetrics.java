@@ -0,0 +1,50 @@
+package io.octohub.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.enums.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按错误码统计响应结果
+ * 每个ErrorCode对应一个预先注册的api.responses计数器，未在枚举中定义的错误码计入OTHER
+ */
+@Component
+public class ErrorCodeMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Integer, Counter> counters = new HashMap<>();
+
+    private Counter otherCounter;
+
+    @PostConstruct
+    public void init() {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            counters.put(errorCode.getCode(), counter(errorCode.name()));
+        }
+        otherCounter = counter("OTHER");
+    }
+
+    public void record(ErrorCode errorCode) {
+        record(errorCode.getCode());
+    }
+
+    public void record(Integer code) {
+        Counter counter = code != null ? counters.get(code) : null;
+        (counter != null ? counter : otherCounter).increment();
+    }
+
+    private Counter counter(String outcome) {
+        return Counter.builder("api.responses")
+                .description("按错误码统计的响应数")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
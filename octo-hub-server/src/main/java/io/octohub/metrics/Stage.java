@@ -0,0 +1,28 @@
+package io.octohub.metrics;
+
+/**
+ * 请求处理阶段，对应octohub.stage计时器的stage标签
+ */
+public enum Stage {
+
+    SIGNATURE_FILTER("filter.signature"),
+    JWT_FILTER("filter.jwt"),
+    JWT_PARSE("jwt.parse"),
+    JWT_SIGN("jwt.sign"),
+    SIGNATURE_VERIFY("signature.verify"),
+    SIGNATURE_SIGN("signature.sign"),
+    WS_SIGNATURE_VERIFY("ws.signature.verify"),
+    WS_SIGNATURE_SIGN("ws.signature.sign"),
+    USER_LOOKUP("user.lookup"),
+    TASK_DISPATCH("task.dispatch");
+
+    private final String tag;
+
+    Stage(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,67 @@
+package io.octohub.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分阶段耗时统计
+ * 每个阶段的计时器在启动时注册一次，记录时按枚举序号取用，不做标签查找。
+ * 关闭时start()不读取时钟，stop()直接返回，调用点只剩一次布尔判断。
+ * 未注入Spring容器的实例（如基准测试中直接创建的工具类）使用NOOP。
+ */
+@Component
+public class StageMetrics {
+
+    /**
+     * 不做任何记录的实例
+     */
+    public static final StageMetrics NOOP = new StageMetrics();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${metrics.stage.enabled:true}")
+    private boolean enabled;
+
+    private Timer[] timers;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Stage[] stages = Stage.values();
+        timers = new Timer[stages.length];
+        for (Stage stage : stages) {
+            timers[stage.ordinal()] = Timer.builder("octohub.stage")
+                    .description("请求处理各阶段耗时")
+                    .tag("stage", stage.getTag())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 开始计时
+     * @return 起始时间，关闭时为0
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 结束计时并记录
+     * @param stage 阶段
+     * @param start start()的返回值
+     */
+    public void stop(Stage stage, long start) {
+        if (enabled) {
+            timers[stage.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.octohub.repository;
+
+import io.octohub.entity.RevokedToken;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * 查询尚未过期的吊销记录，用于启动时重建内存索引
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime time);
+
+    /**
+     * 查询某时间之后新增且尚未过期的吊销记录，用于多实例间同步
+     */
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime revokedAfter, LocalDateTime expiresAfter);
+
+    /**
+     * 删除已过期的吊销记录
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :time")
+    int deleteExpired(@Param("time") LocalDateTime time);
+
+}
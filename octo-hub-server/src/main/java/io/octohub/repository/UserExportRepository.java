@@ -0,0 +1,22 @@
+package io.octohub.repository;
+
+import io.octohub.dto.UserSummary;
+import io.octohub.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.function.Consumer;
+
+/**
+ * 用户导出，使用只进游标逐行读取，结果集不整体加载到内存
+ */
+public interface UserExportRepository {
+
+    /**
+     * 按条件逐行读取用户，顺序与列表接口一致
+     * 需要在事务中调用，游标在方法返回前关闭
+     * @param spec 查询条件
+     * @param consumer 逐行回调
+     * @return 读取的行数
+     */
+    long scanSummaries(Specification<User> spec, Consumer<UserSummary> consumer);
+}
@@ -0,0 +1,55 @@
+package io.octohub.repository;
+
+import io.octohub.dto.UserSummary;
+import io.octohub.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.function.Consumer;
+
+public class UserExportRepositoryImpl implements UserExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 游标每次从数据库读取的行数，MySQL需要在连接串中开启useCursorFetch才会按此分批读取
+     */
+    @Value("${user.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public long scanSummaries(Specification<User> spec, Consumer<UserSummary> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> cq = cb.createQuery(UserSummary.class);
+        Root<User> root = cq.from(User.class);
+        // 只查询列表字段并直接构造DTO，不产生托管实体，持久化上下文不会随行数增长
+        cq.select(cb.construct(UserSummary.class, root.get("id"), root.get("email"), root.get("createdAt")));
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        cq.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+
+        Query<UserSummary> query = entityManager.createQuery(cq).unwrap(Query.class);
+        query.setFetchSize(fetchSize);
+        query.setReadOnly(true);
+        long count = 0;
+        try (ScrollableResults<UserSummary> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept(results.get());
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,60 @@
+package io.octohub.repository;
+
+import io.octohub.dto.UserQuery;
+import io.octohub.entity.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户查询条件
+ * 列表按(created_at, id)倒序排列，与idx_users_created_at索引的顺序一致（InnoDB二级索引隐含主键）
+ */
+public final class UserSpecifications {
+
+    /**
+     * 键集分页使用的排序
+     */
+    public static final Sort KEYSET_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private UserSpecifications() {}
+
+    /**
+     * 按查询条件过滤
+     */
+    public static Specification<User> matching(UserQuery query) {
+        Specification<User> spec = Specification.unrestricted();
+        if (StringUtils.hasText(query.getEmailPrefix())) {
+            spec = spec.and(emailStartsWith(query.getEmailPrefix()));
+        }
+        if (query.getCreatedFrom() != null) {
+            LocalDateTime from = query.getCreatedFrom();
+            spec = spec.and((root, cq, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from));
+        }
+        if (query.getCreatedTo() != null) {
+            LocalDateTime to = query.getCreatedTo();
+            spec = spec.and((root, cq, cb) -> cb.lessThan(root.get("createdAt"), to));
+        }
+        return spec;
+    }
+
+    /**
+     * 位于游标之后的记录：created_at更早，或created_at相同且id更小
+     */
+    public static Specification<User> after(LocalDateTime createdAt, Long id) {
+        return (root, cq, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+    }
+
+    private static Specification<User> emailStartsWith(String prefix) {
+        String pattern = escapeLike(prefix) + "%";
+        return (root, cq, cb) -> cb.like(root.get("email"), pattern, '\\');
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
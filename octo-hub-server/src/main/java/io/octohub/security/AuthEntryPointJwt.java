@@ -1,12 +1,10 @@
 package io.octohub.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.octohub.dto.ApiResponse;
 import io.octohub.enums.ErrorCode;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -16,20 +14,14 @@ import java.io.IOException;
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
     
+    @Autowired
+    private ErrorResponseWriter errorResponseWriter;
+    
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                         AuthenticationException authException) throws IOException, ServletException {
-        
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        
-        // 使用统一的ApiResponse格式
-        ApiResponse<String> apiResponse = ApiResponse.error(
-            ErrorCode.ERROR_LOGIN, 
-            "认证失败：" + authException.getMessage()
-        );
-        
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), apiResponse);
+        // 使用统一的ApiResponse格式，异常文案种类有限，渲染结果按文案缓存
+        errorResponseWriter.write(response, HttpServletResponse.SC_UNAUTHORIZED,
+                ErrorCode.ERROR_LOGIN, "认证失败：" + authException.getMessage());
     }
-} 
\ No newline at end of file
+}
@@ -1,7 +1,11 @@
 package io.octohub.security;
 
+import io.octohub.metrics.Stage;
+import io.octohub.metrics.StageMetrics;
+import io.octohub.service.TokenRevocationService;
 import io.octohub.service.UserDetailsServiceImpl;
-import io.octohub.util.JwtUtils;
+import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+import io.octohub.service.UserVersionRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,47 +28,126 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
     
+    /**
+     * 认证通过后保存已校验令牌的请求属性，供注销等接口读取
+     */
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = "io.octohub.security.AuthTokenFilter.VERIFIED_TOKEN";
+    
+    /**
+     * 允许使用一次性ticket查询参数认证的路径（相对于context path）
+     */
+    private static final String STREAM_TICKET_PATH = "/events/stream";
+    
     @Autowired
-    private JwtUtils jwtUtils;
+    private VerifiedTokenCache verifiedTokenCache;
     
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
     
+    @Autowired
+    private UserVersionRegistry userVersionRegistry;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private StreamTicketService streamTicketService;
+    
+    @Autowired
+    private StageMetrics stageMetrics;
+    
+    /**
+     * 是否启用无状态认证：版本戳未过期时直接由JWT声明构建用户主体，不查询数据库
+     */
+    @Value("${jwt.stateless.enabled:true}")
+    private boolean statelessEnabled;
+    
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, 
                                   @NonNull FilterChain filterChain) throws ServletException, IOException {
+        // 如果已经通过签名验证认证，跳过JWT验证
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            logger.debug("Request already authenticated, skipping JWT validation");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        long start = stageMetrics.start();
         try {
-            // 如果已经通过签名验证认证，跳过JWT验证
-            if (SecurityContextHolder.getContext().getAuthentication() != null) {
-                logger.debug("Request already authenticated, skipping JWT validation");
-                filterChain.doFilter(request, response);
-                return;
-            }
             
             String jwt = parseJwt(request);
             logger.debug("Received JWT: {}", jwt != null ? jwt.substring(0, Math.min(jwt.length(), 50)) + "..." : "null");
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                Long id = jwtUtils.getIdFromJwtToken(jwt);
+            VerifiedToken verifiedToken = jwt != null ? verifiedTokenCache.getOrVerify(jwt) : null;
+            // 吊销检查不经过缓存，缓存命中的令牌同样需要检查
+            if (verifiedToken != null && tokenRevocationService.isRevoked(verifiedToken.getTokenId())) {
+                logger.debug("JWT {} has been revoked", verifiedToken.getTokenId());
+                verifiedToken = null;
+            }
+            if (verifiedToken != null) {
+                Long id = verifiedToken.getUserId();
                 logger.debug("Extracted id from JWT: {}", id);
 
-                UserDetails userDetails = userDetailsService.loadUserByUserId(id);
+                UserDetails userDetails = resolveUserDetails(verifiedToken);
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(VERIFIED_TOKEN_ATTRIBUTE, verifiedToken);
                 logger.debug("Successfully authenticated user: {} with roles: {}", id, userDetails.getAuthorities());
+            } else if (jwt == null && STREAM_TICKET_PATH.equals(request.getServletPath())) {
+                authenticateStreamTicket(request);
             } else {
                 logger.debug("JWT validation failed or JWT is null");
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage(), e);
+        } finally {
+            stageMetrics.stop(Stage.JWT_FILTER, start);
         }
         
         filterChain.doFilter(request, response);
     }
     
-    private String parseJwt(HttpServletRequest request) {
+    /**
+     * 解析用户主体
+     * 令牌携带的版本戳与当前已知版本一致时直接使用声明，否则回源数据库
+     */
+    private UserDetails resolveUserDetails(VerifiedToken verifiedToken) {
+        Long id = verifiedToken.getUserId();
+        if (statelessEnabled) {
+            UserPrincipal principal = verifiedToken.getPrincipal();
+            if (principal != null && userVersionRegistry.isCurrent(id, principal.getVersion())) {
+                return principal;
+            }
+            logger.debug("JWT version stamp is stale or missing, loading user {} from database", id);
+        }
+        return userDetailsService.loadUserByUserId(id);
+    }
+    
+    /**
+     * 浏览器EventSource无法设置请求头，事件流使用一次性票据认证，票据对应的用户从数据库加载
+     */
+    private void authenticateStreamTicket(HttpServletRequest request) {
+        Long id = streamTicketService.redeem(request.getParameter("ticket"));
+        if (id == null) {
+            logger.debug("Event stream ticket is missing, expired or already used");
+            return;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUserId(id);
+        UsernamePasswordAuthenticationToken authentication = 
+            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        logger.debug("Authenticated user {} with event stream ticket", id);
+    }
+    
+    /**
+     * 读取Authorization请求头中的Bearer令牌
+     * @param request 请求
+     * @return 令牌，不存在时返回null
+     */
+    public static String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
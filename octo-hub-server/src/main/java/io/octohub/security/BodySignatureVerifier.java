@@ -0,0 +1,157 @@
+package io.octohub.security;
+
+import io.octohub.enums.ErrorCode;
+import io.octohub.util.SignatureUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * 请求体签名校验
+ * 用于管理接口：请求体先写入临时文件，同时计算HMAC-SHA256，签名通过后才交给业务处理，
+ * 避免在校验完成前就已经提交了部分数据。
+ * 签名内容为 TIMESTAMP + "\n" + NONCE + "\n" + 请求体原始字节，签名以Base64放在X-Body-Signature头中；
+ * 密钥独立于节点共用的signature.secret.key，未配置时拒绝所有请求。
+ */
+@Component
+public class BodySignatureVerifier {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    public static final String HEADER_SIGNATURE = "X-Body-Signature";
+
+    public static final String HEADER_TIMESTAMP = "X-Timestamp";
+
+    public static final String HEADER_NONCE = "X-Nonce";
+
+    @Autowired
+    private NonceReplayStore nonceReplayStore;
+
+    @Value("${admin.body-signature.secret.key:}")
+    private String secretKey;
+
+    @Value("${admin.body-signature.max-bytes:268435456}")
+    private long maxBytes;
+
+    /**
+     * 校验失败，携带应返回的HTTP状态与错误码
+     */
+    public static class RejectedException extends Exception {
+
+        private final int status;
+
+        private final ErrorCode errorCode;
+
+        public RejectedException(int status, ErrorCode errorCode, String message) {
+            super(message);
+            this.status = status;
+            this.errorCode = errorCode;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public ErrorCode getErrorCode() {
+            return errorCode;
+        }
+    }
+
+    /**
+     * 读取并校验请求体
+     * @param request 当前请求
+     * @return 已通过校验的请求体临时文件，由调用方负责删除
+     * @throws RejectedException 缺少签名头、签名错误、超时、重放或请求体过大
+     * @throws IOException 读取请求体或写临时文件失败
+     */
+    public Path spool(HttpServletRequest request) throws RejectedException, IOException {
+        if (!StringUtils.hasText(secretKey)) {
+            throw new RejectedException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorCode.SYSTEM_ERROR, "未配置请求体签名密钥");
+        }
+        String signature = request.getHeader(HEADER_SIGNATURE);
+        String timestamp = request.getHeader(HEADER_TIMESTAMP);
+        String nonce = request.getHeader(HEADER_NONCE);
+        if (!StringUtils.hasText(signature) || !StringUtils.hasText(timestamp) || !StringUtils.hasText(nonce)) {
+            throw new RejectedException(HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.SIGNATURE_MISSING, "缺少请求体签名");
+        }
+        long timestampSeconds;
+        try {
+            timestampSeconds = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            throw new RejectedException(HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.SIGNATURE_INVALID, "时间戳格式错误");
+        }
+        if (Math.abs(System.currentTimeMillis() / 1000 - timestampSeconds) > SignatureUtils.TIMESTAMP_TOLERANCE_SECONDS) {
+            throw new RejectedException(HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.SIGNATURE_EXPIRED, "签名已过期");
+        }
+
+        Mac mac = newMac();
+        mac.update((timestamp + "\n" + nonce + "\n").getBytes(StandardCharsets.UTF_8));
+        Path file = Files.createTempFile("octohub-body-", ".tmp");
+        boolean accepted = false;
+        try {
+            copy(request.getInputStream(), file, mac);
+            byte[] expected = Base64.getEncoder().encode(mac.doFinal());
+            if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.ISO_8859_1))) {
+                throw new RejectedException(HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.SIGNATURE_INVALID, "请求体签名错误");
+            }
+            // 签名有效后再登记，避免伪造请求占用防重放存储
+            switch (nonceReplayStore.register(timestampSeconds, signature)) {
+                case ACCEPTED:
+                    break;
+                case CAPACITY_EXCEEDED:
+                    throw new RejectedException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorCode.SERVICE_BUSY, ErrorCode.SERVICE_BUSY.getMessage());
+                case EXPIRED:
+                    throw new RejectedException(HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.SIGNATURE_EXPIRED, ErrorCode.SIGNATURE_EXPIRED.getMessage());
+                default:
+                    throw new RejectedException(HttpServletResponse.SC_UNAUTHORIZED, ErrorCode.SIGNATURE_REPLAYED, ErrorCode.SIGNATURE_REPLAYED.getMessage());
+            }
+            accepted = true;
+            return file;
+        } finally {
+            if (!accepted) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void copy(InputStream in, Path file, Mac mac) throws IOException, RejectedException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new RejectedException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, ErrorCode.PARAM_INVALID, "请求体超过" + maxBytes + "字节");
+                }
+                mac.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_SHA256));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("签名引擎初始化失败", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.octohub.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.octohub.dto.ApiResponse;
+import io.octohub.enums.ErrorCode;
+import io.octohub.metrics.ErrorCodeMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 过滤器与认证入口的错误响应写出器
+ * 每个ErrorCode的响应体在启动时用Spring管理的ObjectMapper渲染为UTF-8字节，请求时直接写入输出流；
+ * 带自定义消息的响应按消息缓存渲染结果，消息来自有限的异常文案，缓存条目数有上限，超过后每次序列化。
+ */
+@Component
+public class ErrorResponseWriter {
+
+    /**
+     * 自定义消息缓存上限
+     */
+    private static final int MAX_CACHED_MESSAGES = 256;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ErrorCodeMetrics errorCodeMetrics;
+
+    private final Map<ErrorCode, byte[]> rendered = new EnumMap<>(ErrorCode.class);
+
+    private final Map<ErrorCode, Map<String, byte[]>> renderedMessages = new EnumMap<>(ErrorCode.class);
+
+    @PostConstruct
+    public void init() throws JsonProcessingException {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            rendered.put(errorCode, objectMapper.writeValueAsBytes(ApiResponse.error(errorCode)));
+            renderedMessages.put(errorCode, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 写出错误码对应的固定响应
+     */
+    public void write(HttpServletResponse response, int status, ErrorCode errorCode) throws IOException {
+        write(response, status, errorCode, rendered.get(errorCode));
+    }
+
+    /**
+     * 写出带自定义消息的错误响应
+     */
+    public void write(HttpServletResponse response, int status, ErrorCode errorCode, String message) throws IOException {
+        Map<String, byte[]> cache = renderedMessages.get(errorCode);
+        byte[] body = cache.get(message);
+        if (body == null) {
+            body = objectMapper.writeValueAsBytes(ApiResponse.error(errorCode, message));
+            if (cache.size() < MAX_CACHED_MESSAGES) {
+                cache.putIfAbsent(message, body);
+            }
+        }
+        write(response, status, errorCode, body);
+    }
+
+    private void write(HttpServletResponse response, int status, ErrorCode errorCode, byte[] body) throws IOException {
+        errorCodeMetrics.record(errorCode);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+}
@@ -0,0 +1,199 @@
+package io.octohub.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.util.SignatureUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 签名请求防重放存储
+ * 按请求时间戳分桶记录已使用的签名（签名已绑定X-Nonce），每个桶内部按哈希分片以避免热点锁。
+ * 时间戳允许的偏差为±300秒，因此桶只需保留覆盖600秒的环形数组；
+ * 过期的桶整体替换或置空，淘汰代价为O(1)。总条目数有硬上限，超过时拒绝新请求。
+ */
+@Component
+public class NonceReplayStore {
+
+    /**
+     * 登记结果
+     */
+    public enum Result {
+        ACCEPTED,
+        REPLAYED,
+        EXPIRED,
+        CAPACITY_EXCEEDED
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${signature.nonce.bucket-seconds:10}")
+    private int bucketSeconds;
+
+    @Value("${signature.nonce.max-entries:500000}")
+    private long maxEntries;
+
+    @Value("${signature.nonce.shards:16}")
+    private int shardCount;
+
+    private AtomicReferenceArray<Bucket> ring;
+
+    private final AtomicLong entries = new AtomicLong();
+
+    private Counter replayedCounter;
+
+    private Counter expiredCounter;
+
+    private Counter capacityCounter;
+
+    @PostConstruct
+    public void init() {
+        // 时间戳范围[now-300, now+300]，额外留出两个桶应对边界与时钟推进
+        int ringSize = (int) ((2L * SignatureUtils.TIMESTAMP_TOLERANCE_SECONDS) / bucketSeconds) + 2;
+        ring = new AtomicReferenceArray<>(ringSize);
+        shardCount = Integer.highestOneBit(Math.max(1, shardCount));
+
+        Gauge.builder("signature.nonce.entries", entries, AtomicLong::get)
+                .description("防重放存储当前条目数")
+                .register(meterRegistry);
+        Gauge.builder("signature.nonce.capacity", this, store -> store.maxEntries)
+                .description("防重放存储条目上限")
+                .register(meterRegistry);
+        replayedCounter = rejections("replayed");
+        expiredCounter = rejections("expired");
+        capacityCounter = rejections("capacity");
+    }
+
+    /**
+     * 登记一次签名请求
+     * @param timestampSeconds 请求时间戳（秒）
+     * @param key 请求的唯一标识，使用已校验通过的签名
+     * @return 登记结果，只有ACCEPTED表示请求可以继续处理
+     */
+    public Result register(long timestampSeconds, String key) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        if (Math.abs(nowSeconds - timestampSeconds) > SignatureUtils.TIMESTAMP_TOLERANCE_SECONDS) {
+            expiredCounter.increment();
+            return Result.EXPIRED;
+        }
+
+        Bucket bucket = bucketFor(Math.floorDiv(timestampSeconds, bucketSeconds));
+        if (bucket == null) {
+            expiredCounter.increment();
+            return Result.EXPIRED;
+        }
+
+        if (entries.incrementAndGet() > maxEntries) {
+            entries.decrementAndGet();
+            capacityCounter.increment();
+            return Result.CAPACITY_EXCEEDED;
+        }
+        if (!bucket.add(key)) {
+            entries.decrementAndGet();
+            replayedCounter.increment();
+            return Result.REPLAYED;
+        }
+        return Result.ACCEPTED;
+    }
+
+    /**
+     * 当前条目数
+     */
+    public long size() {
+        return entries.get();
+    }
+
+    /**
+     * 定期清空已过期的桶，避免环形数组中的旧桶等到槽位复用时才释放内存。
+     * 同时按存活桶重新校准条目计数，修正桶替换瞬间并发写入造成的计数偏差。
+     */
+    @Scheduled(fixedDelayString = "${signature.nonce.evict-interval-ms:10000}")
+    public void evictExpired() {
+        long oldestLive = Math.floorDiv(
+                System.currentTimeMillis() / 1000 - SignatureUtils.TIMESTAMP_TOLERANCE_SECONDS, bucketSeconds);
+        long live = 0;
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket == null) {
+                continue;
+            }
+            if (bucket.index < oldestLive) {
+                ring.compareAndSet(i, bucket, null);
+            } else {
+                live += bucket.size();
+            }
+        }
+        entries.set(live);
+    }
+
+    private Bucket bucketFor(long index) {
+        int slot = (int) Math.floorMod(index, (long) ring.length());
+        while (true) {
+            Bucket current = ring.get(slot);
+            if (current != null && current.index == index) {
+                return current;
+            }
+            if (current != null && current.index > index) {
+                // 槽位已被更新的时间段占用，说明请求时间戳已超出保留范围
+                return null;
+            }
+            Bucket fresh = new Bucket(index, shardCount);
+            if (ring.compareAndSet(slot, current, fresh)) {
+                if (current != null) {
+                    entries.addAndGet(-current.size());
+                }
+                return fresh;
+            }
+        }
+    }
+
+    private Counter rejections(String reason) {
+        return Counter.builder("signature.nonce.rejections")
+                .description("防重放存储拒绝的请求数")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 一个时间段内的签名集合，按哈希分片
+     */
+    private static final class Bucket {
+
+        private final long index;
+
+        private final Set<String>[] shards;
+
+        @SuppressWarnings("unchecked")
+        private Bucket(long index, int shardCount) {
+            this.index = index;
+            this.shards = new Set[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = ConcurrentHashMap.newKeySet();
+            }
+        }
+
+        private boolean add(String key) {
+            int h = key.hashCode();
+            h ^= (h >>> 16);
+            return shards[h & (shards.length - 1)].add(key);
+        }
+
+        private long size() {
+            long size = 0;
+            for (Set<String> shard : shards) {
+                size += shard.size();
+            }
+            return size;
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package io.octohub.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.octohub.annotation.SignatureAuth;
-import io.octohub.dto.ApiResponse;
 import io.octohub.enums.ErrorCode;
-import io.octohub.util.ResponseUtil;
+import io.octohub.metrics.Stage;
+import io.octohub.metrics.StageMetrics;
 import io.octohub.util.SignatureUtils;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -13,16 +11,14 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerExecutionChain;
-import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -37,13 +33,40 @@ public class SignatureAuthFilter extends OncePerRequestFilter {
     private SignatureUtils signatureUtils;
     
     @Autowired
-    private RequestMappingHandlerMapping handlerMapping;
+    private SignatureAuthRouteIndex routeIndex;
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private NonceReplayStore nonceReplayStore;
+    
+    @Autowired
+    private StageMetrics stageMetrics;
+    
+    @Autowired
+    private ErrorResponseWriter errorResponseWriter;
+    
+    @Value("${signature.nonce.enabled:true}")
+    private boolean nonceCheckEnabled;
     
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, 
                                   @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long start = stageMetrics.start();
+        boolean proceed;
+        try {
+            proceed = authenticate(request, response);
+        } finally {
+            stageMetrics.stop(Stage.SIGNATURE_FILTER, start);
+        }
+        if (proceed) {
+            filterChain.doFilter(request, response);
+        }
+    }
+    
+    /**
+     * 按需执行签名验证与防重放检查，失败时直接写出错误响应
+     * @return 请求可以继续处理时返回true
+     */
+    private boolean authenticate(HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
             // 检查当前请求是否需要签名验证
             if (requiresSignatureAuth(request)) {
@@ -52,7 +75,15 @@ public class SignatureAuthFilter extends OncePerRequestFilter {
                 if (!validateSignature(request)) {
                     logger.warn("Signature validation failed for request: {}", request.getRequestURI());
                     sendErrorResponse(response, ErrorCode.SIGNATURE_INVALID);
-                    return;
+                    return false;
+                }
+                
+                // 签名有效后再登记，避免伪造请求占用防重放存储
+                ErrorCode replayError = checkReplay(request);
+                if (replayError != null) {
+                    logger.warn("Signature replay check rejected request: {} ({})", request.getRequestURI(), replayError);
+                    sendErrorResponse(response, replayError);
+                    return false;
                 }
                 
                 // 签名验证成功，设置一个匿名认证，表示已通过签名验证
@@ -65,38 +96,21 @@ public class SignatureAuthFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             logger.error("Error during signature authentication: {}", e.getMessage(), e);
             sendErrorResponse(response, ErrorCode.SIGNATURE_INVALID);
-            return;
+            return false;
         }
-        
-        filterChain.doFilter(request, response);
+        return true;
     }
     
     /**
-     * 检查请求是否需要签名验证
+     * 检查请求是否需要签名验证，查询启动时构建的路由索引
      */
     private boolean requiresSignatureAuth(HttpServletRequest request) {
-        try {
-            HandlerExecutionChain handlerChain = handlerMapping.getHandler(request);
-            if (handlerChain != null && handlerChain.getHandler() instanceof HandlerMethod) {
-                HandlerMethod handlerMethod = (HandlerMethod) handlerChain.getHandler();
-                
-                // 检查方法级别的注解
-                SignatureAuth methodAnnotation = handlerMethod.getMethodAnnotation(SignatureAuth.class);
-                if (methodAnnotation != null) {
-                    return methodAnnotation.required();
-                }
-                
-                // 检查类级别的注解
-                SignatureAuth classAnnotation = handlerMethod.getBeanType().getAnnotation(SignatureAuth.class);
-                if (classAnnotation != null) {
-                    return classAnnotation.required();
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Could not determine handler for request: {}", request.getRequestURI());
+        String path = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (StringUtils.hasLength(contextPath) && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
         }
-        
-        return false;
+        return routeIndex.requiresSignature(request.getMethod(), path);
     }
     
     /**
@@ -127,17 +141,34 @@ public class SignatureAuthFilter extends OncePerRequestFilter {
     }
     
     /**
-     * 发送错误响应
+     * 防重放检查，同一签名在时间窗口内只允许使用一次
+     * @return 拒绝时返回错误码，通过时返回null
+     */
+    private ErrorCode checkReplay(HttpServletRequest request) {
+        if (!nonceCheckEnabled) {
+            return null;
+        }
+        long timestamp = Long.parseLong(request.getHeader("X-Timestamp"));
+        switch (nonceReplayStore.register(timestamp, request.getHeader("X-Signature"))) {
+            case ACCEPTED:
+                return null;
+            case CAPACITY_EXCEEDED:
+                return ErrorCode.SERVICE_BUSY;
+            case EXPIRED:
+                return ErrorCode.SIGNATURE_EXPIRED;
+            default:
+                return ErrorCode.SIGNATURE_REPLAYED;
+        }
+    }
+    
+    /**
+     * 发送错误响应，响应体为启动时预先渲染的字节
+     * 防重放存储已满时返回429，与登录、任务提交的限流一致，节点按繁忙处理并重试，而不是视为认证失败
      */
     private void sendErrorResponse(HttpServletResponse response, ErrorCode errorCode) throws IOException {
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setCharacterEncoding("UTF-8");
-        
-        ApiResponse<Object> apiResponse = ResponseUtil.error(errorCode).getBody();
-        String jsonResponse = objectMapper.writeValueAsString(apiResponse);
-        
-        response.getWriter().write(jsonResponse);
-        response.getWriter().flush();
+        int status = errorCode == ErrorCode.SERVICE_BUSY
+                ? HttpStatus.TOO_MANY_REQUESTS.value()
+                : HttpServletResponse.SC_UNAUTHORIZED;
+        errorResponseWriter.write(response, status, errorCode);
     }
 }
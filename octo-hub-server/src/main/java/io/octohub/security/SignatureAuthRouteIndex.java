@@ -0,0 +1,357 @@
+package io.octohub.security;
+
+import io.octohub.annotation.SignatureAuth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 签名验证路由索引
+ * 启动时从所有请求映射中收集@SignatureAuth声明，按路径段构建前缀树，
+ * 请求到来时只需按路径段逐层查找，不再在过滤器中执行完整的处理器解析。
+ * 匹配优先级与Spring MVC一致：字面量段 > 带通配的段 > 单段变量 > 多段通配。
+ */
+@Component
+public class SignatureAuthRouteIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignatureAuthRouteIndex.class);
+
+    /**
+     * 未声明HTTP方法的映射使用的键
+     */
+    private static final String ANY_METHOD = "*";
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private volatile Node root = new Node();
+
+    private volatile List<Route> routes = List.of();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * 根据当前的请求映射重建索引
+     */
+    public synchronized void rebuild() {
+        Node newRoot = new Node();
+        Map<String, Route> newRoutes = new TreeMap<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            boolean required = isSignatureRequired(entry.getValue());
+            Set<String> methods = new TreeSet<>();
+            for (RequestMethod method : info.getMethodsCondition().getMethods()) {
+                methods.add(method.name());
+            }
+            if (methods.isEmpty()) {
+                methods.add(ANY_METHOD);
+            }
+            for (String pattern : patternsOf(info)) {
+                Node node = newRoot.insert(pattern);
+                for (String method : methods) {
+                    // 同一路径与方法存在多个映射时（如按参数区分），只要有一个要求签名即要求签名
+                    boolean merged = node.decisions.merge(method, required, Boolean::logicalOr);
+                    newRoutes.put(pattern + " " + method, new Route(method, pattern, merged));
+                }
+            }
+        }
+        root = newRoot;
+        routes = List.copyOf(newRoutes.values());
+        logger.info("Signature route index built: {} routes, {} require signature",
+                routes.size(), routes.stream().filter(Route::isRequired).count());
+    }
+
+    /**
+     * 判断请求是否需要签名验证
+     * @param method HTTP方法
+     * @param path 应用内路径（不含context path）
+     * @return 命中的映射声明了@SignatureAuth(required = true)时返回true
+     */
+    public boolean requiresSignature(String method, String path) {
+        String[] segments = splitPath(path);
+        Boolean decision = root.find(segments, 0, method);
+        if (decision == null && "HEAD".equals(method)) {
+            // 与Spring MVC一致，HEAD请求由GET映射处理
+            decision = root.find(segments, 0, "GET");
+        }
+        return decision != null && decision;
+    }
+
+    /**
+     * 索引中的全部路由，用于诊断
+     */
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    private static boolean isSignatureRequired(HandlerMethod handlerMethod) {
+        // 方法级别的注解优先于类级别
+        SignatureAuth methodAnnotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), SignatureAuth.class);
+        if (methodAnnotation != null) {
+            return methodAnnotation.required();
+        }
+        SignatureAuth classAnnotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), SignatureAuth.class);
+        return classAnnotation != null && classAnnotation.required();
+    }
+
+    private static Set<String> patternsOf(RequestMappingInfo info) {
+        if (info.getPathPatternsCondition() != null) {
+            Set<String> patterns = new LinkedHashSet<>();
+            for (PathPattern pattern : info.getPathPatternsCondition().getPatterns()) {
+                patterns.add(pattern.getPatternString());
+            }
+            return patterns;
+        }
+        if (info.getPatternsCondition() != null) {
+            return info.getPatternsCondition().getPatterns();
+        }
+        return Set.of("");
+    }
+
+    private static String[] splitPath(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                segments.add(normalizeSegment(path.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static String normalizeSegment(String segment) {
+        // 去除矩阵变量（如;jsessionid=...），再解码百分号编码
+        int semicolon = segment.indexOf(';');
+        if (semicolon >= 0) {
+            segment = segment.substring(0, semicolon);
+        }
+        if (segment.indexOf('%') >= 0) {
+            segment = UriUtils.decode(segment, StandardCharsets.UTF_8);
+        }
+        return segment;
+    }
+
+    /**
+     * 索引中的一条路由
+     */
+    public static class Route {
+        private final String method;
+        private final String pattern;
+        private final boolean required;
+
+        public Route(String method, String pattern, boolean required) {
+            this.method = method;
+            this.pattern = pattern;
+            this.required = required;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+    }
+
+    /**
+     * 前缀树节点，每个节点对应一个路径段
+     */
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+
+        private final List<RegexChild> regexChildren = new ArrayList<>();
+
+        /**
+         * 单段变量，如{id}或*
+         */
+        private Node variable;
+
+        /**
+         * 多段通配，如**或{*path}，匹配剩余所有路径段
+         */
+        private Node catchAll;
+
+        /**
+         * HTTP方法 -> 是否需要签名
+         */
+        private final Map<String, Boolean> decisions = new HashMap<>();
+
+        private Node insert(String pattern) {
+            Node node = this;
+            for (String segment : splitPattern(pattern)) {
+                if ("**".equals(segment) || (segment.startsWith("{*") && segment.endsWith("}"))) {
+                    if (node.catchAll == null) {
+                        node.catchAll = new Node();
+                    }
+                    // 多段通配只能出现在末尾
+                    return node.catchAll;
+                }
+                if ("*".equals(segment) || isPlainVariable(segment)) {
+                    if (node.variable == null) {
+                        node.variable = new Node();
+                    }
+                    node = node.variable;
+                } else if (isLiteral(segment)) {
+                    node = node.literals.computeIfAbsent(segment, key -> new Node());
+                } else {
+                    node = node.regexChild(segment);
+                }
+            }
+            return node;
+        }
+
+        private Boolean find(String[] segments, int index, String method) {
+            if (index == segments.length) {
+                Boolean decision = decide(method);
+                if (decision != null) {
+                    return decision;
+                }
+                // **也可以匹配零个路径段
+                return catchAll != null ? catchAll.decide(method) : null;
+            }
+            String segment = segments[index];
+            Node literal = literals.get(segment);
+            if (literal != null) {
+                Boolean decision = literal.find(segments, index + 1, method);
+                if (decision != null) {
+                    return decision;
+                }
+            }
+            for (RegexChild child : regexChildren) {
+                if (child.pattern.matcher(segment).matches()) {
+                    Boolean decision = child.node.find(segments, index + 1, method);
+                    if (decision != null) {
+                        return decision;
+                    }
+                }
+            }
+            if (variable != null && !segment.isEmpty()) {
+                Boolean decision = variable.find(segments, index + 1, method);
+                if (decision != null) {
+                    return decision;
+                }
+            }
+            return catchAll != null ? catchAll.decide(method) : null;
+        }
+
+        private Boolean decide(String method) {
+            Boolean decision = decisions.get(method);
+            return decision != null ? decision : decisions.get(ANY_METHOD);
+        }
+
+        private Node regexChild(String segment) {
+            for (RegexChild child : regexChildren) {
+                if (child.source.equals(segment)) {
+                    return child.node;
+                }
+            }
+            RegexChild child = new RegexChild(segment);
+            regexChildren.add(child);
+            return child.node;
+        }
+
+        private static String[] splitPattern(String pattern) {
+            List<String> segments = new ArrayList<>();
+            for (String segment : pattern.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            return segments.toArray(new String[0]);
+        }
+
+        private static boolean isPlainVariable(String segment) {
+            return segment.length() > 2 && segment.charAt(0) == '{' && segment.indexOf('}') == segment.length() - 1
+                    && segment.indexOf(':') < 0 && segment.charAt(1) != '*';
+        }
+
+        private static boolean isLiteral(String segment) {
+            return segment.indexOf('{') < 0 && segment.indexOf('*') < 0 && segment.indexOf('?') < 0;
+        }
+    }
+
+    /**
+     * 带通配或正则约束的路径段，如*.json、{id:\d+}
+     */
+    private static final class RegexChild {
+
+        private final String source;
+
+        private final Pattern pattern;
+
+        private final Node node = new Node();
+
+        private RegexChild(String source) {
+            this.source = source;
+            this.pattern = Pattern.compile(toRegex(source));
+        }
+
+        private static String toRegex(String segment) {
+            StringBuilder regex = new StringBuilder();
+            int i = 0;
+            while (i < segment.length()) {
+                char c = segment.charAt(i);
+                if (c == '{') {
+                    int end = findClosingBrace(segment, i);
+                    String variable = segment.substring(i + 1, end);
+                    int colon = variable.indexOf(':');
+                    regex.append('(').append(colon >= 0 ? variable.substring(colon + 1) : "[^/]+").append(')');
+                    i = end + 1;
+                    continue;
+                }
+                if (c == '*') {
+                    regex.append("[^/]*");
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+                i++;
+            }
+            return regex.toString();
+        }
+
+        private static int findClosingBrace(String segment, int open) {
+            int depth = 0;
+            for (int i = open; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    return i;
+                }
+            }
+            return segment.length() - 1;
+        }
+    }
+}
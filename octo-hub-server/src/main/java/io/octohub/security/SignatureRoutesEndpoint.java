@@ -0,0 +1,24 @@
+package io.octohub.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 签名路由索引诊断端点：/actuator/signatureroutes
+ */
+@Component
+@Endpoint(id = "signatureroutes")
+public class SignatureRoutesEndpoint {
+
+    @Autowired
+    private SignatureAuthRouteIndex routeIndex;
+
+    @ReadOperation
+    public List<SignatureAuthRouteIndex.Route> routes() {
+        return routeIndex.getRoutes();
+    }
+}
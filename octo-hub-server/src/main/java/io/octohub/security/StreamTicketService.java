@@ -0,0 +1,110 @@
+package io.octohub.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.octohub.util.HmacEngine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * 事件流连接票据
+ * 浏览器EventSource无法设置请求头，JWT放在查询参数中会被访问日志和代理日志长期记录。
+ * 客户端先携带JWT换取票据，再用票据建立事件流：票据有效期很短，只能使用一次，泄露后无法再用于其他接口。
+ * 票据格式为 用户ID.过期时间(秒).随机数.签名，签名使用JWT密钥，任意实例都能校验；
+ * 已使用的随机数只记录在本实例，多实例部署时同一票据在有效期内最多在每个实例各使用一次。
+ */
+@Component
+public class StreamTicketService {
+
+    private static final String SIGN_PREFIX = "stream-ticket&";
+
+    private static final int NONCE_BYTES = 16;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.secret}")
+    private String secretKey;
+
+    @Value("${events.stream.ticket-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${events.stream.ticket-max-redeemed:100000}")
+    private long maxRedeemed;
+
+    private HmacEngine hmacEngine;
+
+    /**
+     * 已使用的票据随机数，保留到票据过期
+     */
+    private Cache<String, Boolean> redeemed;
+
+    @PostConstruct
+    public void init() {
+        hmacEngine = new HmacEngine(secretKey);
+        redeemed = Caffeine.newBuilder()
+                .maximumSize(maxRedeemed)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds + 1))
+                .build();
+    }
+
+    /**
+     * 签发票据
+     * @param userId 已认证的用户
+     * @return 票据
+     */
+    public String issue(Long userId) {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        String payload = userId + "." + (System.currentTimeMillis() / 1000 + ttlSeconds) + "." + HEX.formatHex(nonce);
+        return payload + "." + hmacEngine.signHex(hmacEngine.buffer().append(SIGN_PREFIX).append(payload));
+    }
+
+    /**
+     * 使用票据
+     * @param ticket 票据
+     * @return 票据有效且未使用过时返回用户ID，否则返回null
+     */
+    public Long redeem(String ticket) {
+        if (ticket == null) {
+            return null;
+        }
+        int signatureStart = ticket.lastIndexOf('.');
+        if (signatureStart <= 0) {
+            return null;
+        }
+        String payload = ticket.substring(0, signatureStart);
+        String[] parts = payload.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        if (!hmacEngine.verifyHex(hmacEngine.buffer().append(SIGN_PREFIX).append(payload), ticket.substring(signatureStart + 1))) {
+            return null;
+        }
+        long userId;
+        long expiresAt;
+        try {
+            userId = Long.parseLong(parts[0]);
+            expiresAt = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (System.currentTimeMillis() / 1000 > expiresAt) {
+            return null;
+        }
+        if (redeemed.asMap().putIfAbsent(parts[2], Boolean.TRUE) != null) {
+            return null;
+        }
+        return userId;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+}
@@ -0,0 +1,50 @@
+package io.octohub.security;
+
+import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+
+/**
+ * 已通过签名校验的JWT
+ * 缓存校验结果，重复请求无需再次解析和校验签名
+ */
+public class VerifiedToken {
+
+    private final Long userId;
+
+    /**
+     * 令牌ID（jti），旧版令牌不携带时为null
+     */
+    private final String tokenId;
+
+    /**
+     * 由声明构建的用户主体，旧版令牌不携带用户信息时为null
+     */
+    private final UserPrincipal principal;
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    private final long expiresAtMillis;
+
+    public VerifiedToken(Long userId, String tokenId, UserPrincipal principal, long expiresAtMillis) {
+        this.userId = userId;
+        this.tokenId = tokenId;
+        this.principal = principal;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public UserPrincipal getPrincipal() {
+        return principal;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
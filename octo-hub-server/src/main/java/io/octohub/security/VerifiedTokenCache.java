@@ -0,0 +1,131 @@
+package io.octohub.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+import io.octohub.util.JwtUtils;
+import io.octohub.util.JwtVerification;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已校验JWT缓存
+ * 以令牌为键缓存校验结果，条目在令牌的exp时刻过期，超过容量时按频率淘汰。
+ * 命中时跳过签名校验；吊销检查不经过缓存，由AuthTokenFilter在每次请求时单独进行。
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.cache.max-size:100000}")
+    private long maxSize;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+    }
+
+    /**
+     * 获取已校验的令牌，未命中时校验签名并写入缓存
+     * @param token JWT字符串
+     * @return 校验结果，令牌无效时返回null
+     */
+    public VerifiedToken getOrVerify(String token) {
+        if (!enabled) {
+            return verify(token);
+        }
+        return cache.get(token, this::verify);
+    }
+
+    /**
+     * 使单个令牌失效，用于注销
+     */
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private VerifiedToken verify(String token) {
+        JwtVerification verification = jwtUtils.verify(token);
+        if (!verification.isValid()) {
+            logger.debug("JWT verification failed: {}", verification.getFailureReason());
+            return null;
+        }
+        Long userId = verification.getUserId();
+        // 不带exp的令牌过期时间为0，不会留在缓存中
+        return new VerifiedToken(userId, verification.getClaims().getId(), principalFromClaims(userId, verification.getClaims()),
+                verification.getExpiresAtMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    private UserPrincipal principalFromClaims(Long id, Claims claims) {
+        String email = claims.get(JwtUtils.CLAIM_EMAIL, String.class);
+        Number version = claims.get(JwtUtils.CLAIM_VERSION, Number.class);
+        Object authorities = claims.get(JwtUtils.CLAIM_AUTHORITIES);
+        if (email == null || version == null || !(authorities instanceof Collection)) {
+            return null;
+        }
+        return UserPrincipal.fromClaims(id, email, version.longValue(), (Collection<String>) authorities);
+    }
+
+    /**
+     * 按令牌剩余有效期设置缓存过期时间
+     */
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.octohub.service;
+
+import java.util.Map;
+
+/**
+ * 待分发到节点的任务
+ * 状态字段只在TaskDispatcher的锁内修改
+ */
+public class DispatchTask {
+
+    public enum State {
+        /**
+         * 在节点队列或未分配队列中等待
+         */
+        QUEUED,
+        /**
+         * 已推送给节点，等待结果
+         */
+        DISPATCHED
+    }
+
+    private final String taskId;
+
+    private final String taskType;
+
+    private final Map<String, Object> data;
+
+    private final long submittedAt;
+
+    private String pcId;
+
+    private State state = State.QUEUED;
+
+    /**
+     * 推送次数，节点离线后重新分发时增加
+     */
+    private int attempts;
+
+    public DispatchTask(String taskId, String taskType, Map<String, Object> data, long submittedAt) {
+        this.taskId = taskId;
+        this.taskType = taskType;
+        this.data = data;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /**
+     * 当前分配的节点，未分配时为null
+     */
+    public String getPcId() {
+        return pcId;
+    }
+
+    void setPcId(String pcId) {
+        this.pcId = pcId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    void incrementAttempts() {
+        attempts++;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchTask{" +
+                "taskId='" + taskId + '\'' +
+                ", taskType='" + taskType + '\'' +
+                ", pcId='" + pcId + '\'' +
+                ", state=" + state +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
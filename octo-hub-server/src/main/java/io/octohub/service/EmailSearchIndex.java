@@ -0,0 +1,643 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.dto.UserQuery;
+import io.octohub.dto.UserSummary;
+import io.octohub.repository.UserRepository;
+import io.octohub.repository.UserSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户邮箱内存索引，用于账号搜索与自动补全
+ * 索引由两部分组成：
+ * 1. 不可变的基础快照：按邮箱（小写UTF-8字节序）排序的紧凑数组，前缀查询为二分查找；
+ *    每个邮箱的三字符片段（trigram）建立倒排表，行号差值以变长整数编码，用于子串查询。
+ * 2. 增量覆盖层：启动后写入的用户记录在这里，同一用户在覆盖层中的记录屏蔽基础快照中的旧记录。
+ * 覆盖层超过阈值时在后台合并成新的快照，合并不访问数据库。
+ * 内存预算：基础快照约每用户 邮箱长度 + 12字节（ID与偏移）+ 约1.5字节×trigram数，
+ * 平均邮箱约20字节时每用户约64字节，100万用户约64MB；覆盖层每条约120字节。
+ * 超过max-bytes时不再构建索引，搜索退回数据库查询。
+ */
+@Component
+public class EmailSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailSearchIndex.class);
+
+    /**
+     * 覆盖层每条记录的估算字节数（ConcurrentHashMap节点、Long键、Entry与邮箱字符串）
+     */
+    private static final int OVERLAY_ENTRY_BYTES = 120;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 加载或合并失败时置为false，此后不再接收写入，覆盖层不会在没有快照的情况下无限增长
+     */
+    @Value("${user.search.index.enabled:false}")
+    private volatile boolean enabled;
+
+    /**
+     * 覆盖层合并阈值
+     */
+    @Value("${user.search.index.rebuild-threshold:10000}")
+    private int rebuildThreshold;
+
+    /**
+     * 索引内存上限（字节）
+     */
+    @Value("${user.search.index.max-bytes:134217728}")
+    private long maxBytes;
+
+    private volatile Snapshot base = Snapshot.EMPTY;
+
+    private volatile boolean ready;
+
+    /**
+     * 用户ID -> 最新记录，email为null表示已删除
+     */
+    private final ConcurrentHashMap<Long, Entry> overlay = new ConcurrentHashMap<>();
+
+    /**
+     * 启动完成后加载全部用户邮箱，加载期间的写入进入覆盖层，搜索暂时退回数据库
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("user.search.index.users", this, index -> index.base.size())
+                .description("邮箱索引快照中的用户数")
+                .register(meterRegistry);
+        Gauge.builder("user.search.index.overlay", overlay, Map::size)
+                .description("邮箱索引覆盖层中的记录数")
+                .register(meterRegistry);
+        Gauge.builder("user.search.index.bytes", this, EmailSearchIndex::estimatedBytes)
+                .description("邮箱索引估算占用的字节数")
+                .register(meterRegistry);
+
+        long start = System.nanoTime();
+        SnapshotBuilder builder = new SnapshotBuilder();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> userRepository.scanSummaries(
+                    UserSpecifications.matching(new UserQuery()),
+                    user -> builder.add(user.getId(), user.getEmail())));
+        } catch (BudgetExceededException e) {
+            logger.warn("Email search index disabled: {}", e.getMessage());
+            disable();
+            return;
+        } catch (RuntimeException e) {
+            logger.error("Email search index disabled, load failed: {}", e.getMessage(), e);
+            disable();
+            return;
+        }
+        base = builder.build();
+        ready = true;
+        logger.info("Email search index loaded: {} users, ~{} KB in {} ms",
+                base.size(), estimatedBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 索引是否可用，不可用时调用方应退回数据库查询
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 记录用户写入
+     */
+    public void put(Long id, String email) {
+        if (enabled && id != null && email != null) {
+            overlay.put(id, new Entry(normalize(email), email));
+        }
+    }
+
+    /**
+     * 记录用户删除
+     */
+    public void remove(Long id) {
+        if (enabled && id != null) {
+            overlay.put(id, new Entry(null, null));
+        }
+    }
+
+    /**
+     * 搜索邮箱
+     * 查询词不少于3个字符时按子串匹配，否则按前缀匹配；忽略大小写，结果按邮箱排序
+     * @param query 查询词
+     * @param limit 最大返回条数
+     * @return 匹配的用户（不含创建时间）
+     */
+    public List<UserSummary> search(String query, int limit) {
+        String normalized = normalize(query);
+        byte[] needle = normalized.getBytes(StandardCharsets.UTF_8);
+        Snapshot snapshot = base;
+        List<Match> matches = new ArrayList<>(Math.min(limit, 64));
+
+        if (needle.length >= 3) {
+            snapshot.searchInfix(needle, limit, overlay, matches);
+        } else {
+            snapshot.searchPrefix(needle, limit, overlay, matches);
+        }
+        for (Map.Entry<Long, Entry> entry : overlay.entrySet()) {
+            Entry value = entry.getValue();
+            if (value.normalized != null && (needle.length >= 3
+                    ? value.normalized.contains(normalized) : value.normalized.startsWith(normalized))) {
+                matches.add(new Match(entry.getKey(), value.email, value.normalized));
+            }
+        }
+
+        matches.sort(Comparator.comparing(match -> match.normalized));
+        List<UserSummary> results = new ArrayList<>(Math.min(matches.size(), limit));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            Match match = matches.get(i);
+            results.add(new UserSummary(match.id, match.email, null));
+        }
+        return results;
+    }
+
+    /**
+     * 覆盖层超过阈值时合并为新快照
+     */
+    @Scheduled(fixedDelayString = "${user.search.index.rebuild-check-ms:30000}")
+    public void rebuildIfNeeded() {
+        if (ready && overlay.size() >= rebuildThreshold) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 合并基础快照与覆盖层
+     * 合并期间发生的写入会替换覆盖层中的记录，按对象引用删除已合并的记录时不会误删
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Snapshot current = base;
+        Map<Long, Entry> captured = new HashMap<>(overlay);
+
+        SnapshotBuilder builder = new SnapshotBuilder();
+        try {
+            current.forEach((id, email) -> {
+                if (!captured.containsKey(id)) {
+                    builder.add(id, email);
+                }
+            });
+            captured.forEach((id, entry) -> {
+                if (entry.email != null) {
+                    builder.add(id, entry.email);
+                }
+            });
+        } catch (BudgetExceededException e) {
+            // 快照已放不下，继续保留覆盖层只会让内存越过预算
+            logger.warn("Email search index disabled, rebuild exceeds budget: {}", e.getMessage());
+            disable();
+            return;
+        }
+        base = builder.build();
+        captured.forEach(overlay::remove);
+        logger.info("Email search index rebuilt: {} users, {} overlay entries merged in {} ms",
+                base.size(), captured.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 停用索引并释放内存，搜索退回数据库查询
+     * 与put并发时可能残留个别覆盖层记录，数量受并发写入数限制
+     */
+    private void disable() {
+        enabled = false;
+        ready = false;
+        base = Snapshot.EMPTY;
+        overlay.clear();
+    }
+
+    /**
+     * 估算占用的字节数
+     */
+    public long estimatedBytes() {
+        return base.estimatedBytes() + (long) overlay.size() * OVERLAY_ENTRY_BYTES;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final String normalized;
+        private final String email;
+
+        private Entry(String normalized, String email) {
+            this.normalized = normalized;
+            this.email = email;
+        }
+    }
+
+    private static final class Match {
+        private final long id;
+        private final String email;
+        private final String normalized;
+
+        private Match(long id, String email, String normalized) {
+            this.id = id;
+            this.email = email;
+            this.normalized = normalized;
+        }
+    }
+
+    private static final class BudgetExceededException extends RuntimeException {
+        private BudgetExceededException(String message) {
+            super(message);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(long id, String email);
+    }
+
+    /**
+     * 快照构建器，逐条加入后按邮箱排序
+     */
+    private final class SnapshotBuilder {
+        private final List<Row> rows = new ArrayList<>();
+        private long bytes;
+
+        private void add(long id, String email) {
+            byte[] normalized = normalize(email).getBytes(StandardCharsets.UTF_8);
+            rows.add(new Row(id, email, normalized));
+            bytes += normalized.length + 12L + Math.max(0, normalized.length - 2) * 3L / 2;
+            if (bytes > maxBytes) {
+                throw new BudgetExceededException("estimated size exceeds " + maxBytes + " bytes");
+            }
+        }
+
+        private Snapshot build() {
+            rows.sort((a, b) -> Arrays.compareUnsigned(a.normalized, b.normalized));
+            return Snapshot.of(rows);
+        }
+    }
+
+    private static final class Row {
+        private final long id;
+        private final String email;
+        private final byte[] normalized;
+
+        private Row(long id, String email, byte[] normalized) {
+            this.id = id;
+            this.email = email;
+            this.normalized = normalized;
+        }
+    }
+
+    /**
+     * 不可变快照
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = of(List.of());
+
+        private final long[] ids;
+
+        /**
+         * 所有规范化邮箱首尾相接，第i个邮箱位于[offsets[i], offsets[i + 1])
+         */
+        private final byte[] emails;
+
+        private final int[] offsets;
+
+        /**
+         * 原始大小写与规范化形式不同的邮箱，行号 -> 原始邮箱
+         */
+        private final Map<Integer, String> originals;
+
+        private final TrigramTable trigrams;
+
+        private Snapshot(long[] ids, byte[] emails, int[] offsets, Map<Integer, String> originals, TrigramTable trigrams) {
+            this.ids = ids;
+            this.emails = emails;
+            this.offsets = offsets;
+            this.originals = originals;
+            this.trigrams = trigrams;
+        }
+
+        private static Snapshot of(List<Row> rows) {
+            int n = rows.size();
+            long[] ids = new long[n];
+            int[] offsets = new int[n + 1];
+            int total = 0;
+            for (Row row : rows) {
+                total += row.normalized.length;
+            }
+            byte[] emails = new byte[total];
+            Map<Integer, String> originals = new HashMap<>();
+            TrigramTable.Builder trigrams = new TrigramTable.Builder();
+            int position = 0;
+            for (int i = 0; i < n; i++) {
+                Row row = rows.get(i);
+                ids[i] = row.id;
+                offsets[i] = position;
+                System.arraycopy(row.normalized, 0, emails, position, row.normalized.length);
+                position += row.normalized.length;
+                if (!row.email.equals(new String(row.normalized, StandardCharsets.UTF_8))) {
+                    originals.put(i, row.email);
+                }
+                trigrams.add(i, row.normalized);
+            }
+            offsets[n] = position;
+            return new Snapshot(ids, emails, offsets, originals, trigrams.build());
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private long estimatedBytes() {
+            // 空快照只保留固定大小的空表，停用后的索引按0计
+            if (ids.length == 0) {
+                return 0;
+            }
+            return ids.length * 8L + offsets.length * 4L + emails.length + trigrams.estimatedBytes()
+                    + originals.size() * 80L;
+        }
+
+        private void forEach(RowConsumer consumer) {
+            for (int i = 0; i < ids.length; i++) {
+                consumer.accept(ids[i], email(i));
+            }
+        }
+
+        private void searchPrefix(byte[] prefix, int limit, Map<Long, Entry> overlay, List<Match> matches) {
+            int found = 0;
+            for (int row = lowerBound(prefix); row < ids.length && found < limit && startsWith(row, prefix); row++) {
+                if (!overlay.containsKey(ids[row])) {
+                    matches.add(match(row));
+                    found++;
+                }
+            }
+        }
+
+        private void searchInfix(byte[] needle, int limit, Map<Long, Entry> overlay, List<Match> matches) {
+            int[] candidates = trigrams.candidates(needle);
+            int found = 0;
+            for (int i = 0; i < candidates.length && found < limit; i++) {
+                int row = candidates[i];
+                if (contains(row, needle) && !overlay.containsKey(ids[row])) {
+                    matches.add(match(row));
+                    found++;
+                }
+            }
+        }
+
+        private Match match(int row) {
+            String email = email(row);
+            String normalized = originals.containsKey(row)
+                    ? new String(emails, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8)
+                    : email;
+            return new Match(ids[row], email, normalized);
+        }
+
+        private String email(int row) {
+            String original = originals.get(row);
+            return original != null ? original
+                    : new String(emails, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+        }
+
+        private int lowerBound(byte[] key) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Arrays.compareUnsigned(emails, offsets[mid], offsets[mid + 1], key, 0, key.length) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private boolean startsWith(int row, byte[] prefix) {
+            int start = offsets[row];
+            return offsets[row + 1] - start >= prefix.length
+                    && Arrays.equals(emails, start, start + prefix.length, prefix, 0, prefix.length);
+        }
+
+        private boolean contains(int row, byte[] needle) {
+            int start = offsets[row];
+            int last = offsets[row + 1] - needle.length;
+            for (int i = start; i <= last; i++) {
+                if (Arrays.equals(emails, i, i + needle.length, needle, 0, needle.length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * trigram倒排表
+     * 开放寻址哈希表，键为3个字节拼成的24位整数；倒排表为递增行号的差值变长编码
+     */
+    private static final class TrigramTable {
+
+        private static final int EMPTY_KEY = -1;
+
+        private final int[] keys;
+        private final int[] postingOffsets;
+        private final int[] postingCounts;
+        private final byte[] postings;
+        private final int mask;
+
+        private TrigramTable(int[] keys, int[] postingOffsets, int[] postingCounts, byte[] postings) {
+            this.keys = keys;
+            this.postingOffsets = postingOffsets;
+            this.postingCounts = postingCounts;
+            this.postings = postings;
+            this.mask = keys.length - 1;
+        }
+
+        private long estimatedBytes() {
+            return keys.length * 12L + postings.length;
+        }
+
+        /**
+         * 候选行号：取查询词中最稀有的两个trigram求交集，结果需逐行校验子串
+         */
+        private int[] candidates(byte[] needle) {
+            int rarest = -1;
+            int second = -1;
+            for (int i = 0; i + 2 < needle.length; i++) {
+                int slot = find(pack(needle, i));
+                if (slot < 0) {
+                    return new int[0];
+                }
+                if (rarest < 0 || postingCounts[slot] < postingCounts[rarest]) {
+                    second = rarest;
+                    rarest = slot;
+                } else if (slot != rarest && (second < 0 || postingCounts[slot] < postingCounts[second])) {
+                    second = slot;
+                }
+            }
+            int[] result = decode(rarest);
+            return second < 0 ? result : intersect(result, decode(second));
+        }
+
+        private int find(int key) {
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int[] decode(int slot) {
+            int[] rows = new int[postingCounts[slot]];
+            int position = postingOffsets[slot];
+            int previous = 0;
+            for (int i = 0; i < rows.length; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = postings[position++];
+                    delta |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+                previous += delta;
+                rows[i] = previous;
+            }
+            return rows;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] result = new int[Math.min(a.length, b.length)];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    result[k++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, k);
+        }
+
+        private static int pack(byte[] bytes, int i) {
+            return (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static final class Builder {
+
+            private final Map<Integer, IntList> postings = new HashMap<>();
+
+            private void add(int row, byte[] email) {
+                for (int i = 0; i + 2 < email.length; i++) {
+                    IntList list = postings.computeIfAbsent(pack(email, i), key -> new IntList());
+                    // 同一邮箱中重复的trigram只记录一次，行号递增加入
+                    if (list.size == 0 || list.last() != row) {
+                        list.add(row);
+                    }
+                }
+            }
+
+            private TrigramTable build() {
+                int capacity = Integer.highestOneBit(Math.max(4, postings.size() * 2 - 1)) << 1;
+                int[] keys = new int[capacity];
+                Arrays.fill(keys, EMPTY_KEY);
+                int[] offsets = new int[capacity];
+                int[] counts = new int[capacity];
+                VarIntBuffer buffer = new VarIntBuffer();
+                int mask = capacity - 1;
+                for (Map.Entry<Integer, IntList> entry : postings.entrySet()) {
+                    int key = entry.getKey();
+                    int slot = mix(key) & mask;
+                    while (keys[slot] != EMPTY_KEY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = key;
+                    offsets[slot] = buffer.length;
+                    IntList list = entry.getValue();
+                    counts[slot] = list.size;
+                    int previous = 0;
+                    for (int i = 0; i < list.size; i++) {
+                        buffer.write(list.values[i] - previous);
+                        previous = list.values[i];
+                    }
+                }
+                return new TrigramTable(keys, offsets, counts, buffer.toArray());
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int last() {
+            return values[size - 1];
+        }
+    }
+
+    private static final class VarIntBuffer {
+        private byte[] bytes = new byte[1024];
+        private int length;
+
+        private void write(int value) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7f) != 0) {
+                bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        private byte[] toArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
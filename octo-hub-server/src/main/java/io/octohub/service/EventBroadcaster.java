@@ -0,0 +1,377 @@
+package io.octohub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.event.NodeStatusEvent;
+import io.octohub.event.TaskStatusEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点与任务状态事件的SSE广播
+ * 订阅连接使用Servlet异步请求，不占用请求线程。事件按对象（节点pcId、任务taskId）合并：
+ * 发布时只在共享的待发送表中覆盖该对象的最新状态，每flush-ms由一次定时任务取出并序列化一次，
+ * 再追加到每个订阅者的待写表中，由少量写出线程把待写表一次写出。
+ * 订阅者写出较慢时，同一对象的新状态覆盖待写表中未写出的旧状态，只发送最新状态；
+ * 待写表超过max-pending个对象时关闭该连接，由客户端重连后通过REST接口重新获取完整状态。
+ * 单次写出超过send-timeout-ms的订阅者被断开，不再接收新事件；被阻塞的写出线程要等容器写超时才返回，
+ * 期间线程池临时补充线程（最多max-blocked-writers个），其他订阅者的写出不会排在它后面。
+ * 同一批内不同对象的事件顺序不保证，事件中携带发生时间。
+ */
+@Service
+public class EventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventBroadcaster.class);
+
+    private static final MediaType FRAME_TYPE = MediaType.APPLICATION_OCTET_STREAM;
+
+    /**
+     * 连接建立后的第一帧：客户端断线重连间隔与注释行，使响应头立即发出
+     */
+    private static final byte[] CONNECTED_FRAME = "retry: 3000\n: connected\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] HEARTBEAT_FRAME = ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 订阅连接数上限
+     */
+    @Value("${events.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    /**
+     * 连接最长保持时间，到期后关闭由客户端重连
+     */
+    @Value("${events.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${events.stream.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${events.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${events.stream.flush-threads:2}")
+    private int flushThreads;
+
+    /**
+     * 单次写出的超时时间，超过后断开该订阅者
+     */
+    @Value("${events.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    /**
+     * 为被阻塞的写出临时补充的线程数上限
+     */
+    @Value("${events.stream.max-blocked-writers:16}")
+    private int maxBlockedWriters;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 上次广播后发布的事件，按对象合并
+     */
+    private final ConcurrentHashMap<String, Object> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 因写出超时被断开、写出线程仍未返回的订阅者
+     */
+    private final Set<Subscriber> blocked = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor flushExecutor;
+
+    private Counter publishedCounter;
+
+    private Counter coalescedCounter;
+
+    private Counter overflowCounter;
+
+    private Counter slowCounter;
+
+    @PostConstruct
+    public void init() {
+        // 每个订阅者同一时间最多有一个写出任务，队列长度不超过订阅者数；
+        // 核心线程数随被阻塞的写出增减，最大线程数只作为上限
+        flushExecutor = new ThreadPoolExecutor(flushThreads, flushThreads + maxBlockedWriters, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("event-stream-"));
+        Gauge.builder("events.stream.subscribers", subscribers, Set::size)
+                .description("SSE订阅连接数")
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("events.stream.published")
+                .description("发布的状态事件数")
+                .register(meterRegistry);
+        coalescedCounter = Counter.builder("events.stream.coalesced")
+                .description("订阅者写出较慢时被新状态覆盖的事件数")
+                .register(meterRegistry);
+        overflowCounter = Counter.builder("events.stream.overflow")
+                .description("待写事件过多被关闭的连接数")
+                .register(meterRegistry);
+        slowCounter = Counter.builder("events.stream.slow")
+                .description("写出超时被断开的连接数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        flushExecutor.shutdown();
+    }
+
+    /**
+     * 建立订阅
+     * @param userId 订阅用户
+     * @return 连接数已达上限时返回null
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.offer(Map.of("", CONNECTED_FRAME));
+        logger.debug("User {} subscribed to event stream, {} subscribers", userId, subscribers.size());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onNodeStatus(NodeStatusEvent event) {
+        publish("node:" + event.getPcId(), event);
+    }
+
+    @EventListener
+    public void onTaskStatus(TaskStatusEvent event) {
+        publish("task:" + event.getTaskId(), event);
+    }
+
+    /**
+     * 发布对象的最新状态，在下一次广播时发送
+     */
+    public void publish(String key, Object event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        pending.put(key, event);
+        publishedCounter.increment();
+    }
+
+    /**
+     * 广播上次以来发布的事件，没有事件时向长时间没有写出的连接发送心跳
+     */
+    @Scheduled(fixedDelayString = "${events.stream.flush-ms:200}")
+    public void broadcast() {
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        for (String key : pending.keySet()) {
+            // 逐个移除，移除后发布的事件留到下一次
+            Object event = pending.remove(key);
+            if (event != null) {
+                batch.put(key, render(event));
+            }
+        }
+        long now = System.currentTimeMillis();
+        checkSlowWriters(now);
+        Map<String, byte[]> heartbeat = Map.of("", HEARTBEAT_FRAME);
+        for (Subscriber subscriber : subscribers) {
+            if (!batch.isEmpty()) {
+                subscriber.offer(batch);
+            } else if (now - subscriber.lastWrite >= heartbeatMs) {
+                subscriber.offer(heartbeat);
+            }
+        }
+    }
+
+    /**
+     * 断开写出超时的订阅者，并按仍被阻塞的写出数调整写出线程数
+     */
+    private void checkSlowWriters(long now) {
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started > sendTimeoutMs) {
+                slowCounter.increment();
+                logger.info("Event stream of user {} blocked for {} ms, disconnecting", subscriber.userId, now - started);
+                blocked.add(subscriber);
+                subscriber.close();
+            }
+        }
+        blocked.removeIf(subscriber -> subscriber.sendStartedAt == 0);
+        int corePoolSize = flushThreads + Math.min(blocked.size(), maxBlockedWriters);
+        if (flushExecutor.getCorePoolSize() != corePoolSize) {
+            flushExecutor.setCorePoolSize(corePoolSize);
+        }
+    }
+
+    private byte[] render(Object event) {
+        String name = event instanceof NodeStatusEvent ? "node" : "task";
+        try {
+            byte[] data = objectMapper.writeValueAsBytes(event);
+            byte[] prefix = ("event: " + name + "\ndata: ").getBytes(StandardCharsets.UTF_8);
+            byte[] frame = new byte[prefix.length + data.length + 2];
+            System.arraycopy(prefix, 0, frame, 0, prefix.length);
+            System.arraycopy(data, 0, frame, prefix.length, data.length);
+            frame[frame.length - 2] = '\n';
+            frame[frame.length - 1] = '\n';
+            return frame;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("事件无法序列化: " + event, e);
+        }
+    }
+
+    /**
+     * 订阅连接，待写表与writing由自身锁保护
+     */
+    private final class Subscriber {
+
+        private final Long userId;
+
+        private final SseEmitter emitter;
+
+        private final LinkedHashMap<String, byte[]> backlog = new LinkedHashMap<>();
+
+        private boolean writing;
+
+        private boolean closed;
+
+        private volatile long lastWrite = System.currentTimeMillis();
+
+        /**
+         * 当前写出的开始时间，不在写出时为0
+         */
+        private volatile long sendStartedAt;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Map<String, byte[]> batch) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                for (Map.Entry<String, byte[]> entry : batch.entrySet()) {
+                    // 先移除再放入，使更新过的对象按最新状态的顺序写出
+                    if (backlog.remove(entry.getKey()) != null) {
+                        coalescedCounter.increment();
+                    }
+                    backlog.put(entry.getKey(), entry.getValue());
+                }
+                if (backlog.size() > maxPending) {
+                    overflowCounter.increment();
+                    logger.info("Event stream of user {} fell behind by {} objects, closing", userId, backlog.size());
+                } else if (writing) {
+                    return;
+                } else {
+                    writing = true;
+                    flushExecutor.execute(this::drain);
+                    return;
+                }
+            }
+            close();
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> items;
+                synchronized (this) {
+                    if (closed) {
+                        writing = false;
+                        break;
+                    }
+                    if (backlog.isEmpty()) {
+                        writing = false;
+                        return;
+                    }
+                    items = new LinkedHashSet<>(backlog.size() * 2);
+                    for (byte[] frame : backlog.values()) {
+                        items.add(new ResponseBodyEmitter.DataWithMediaType(frame, FRAME_TYPE));
+                    }
+                    backlog.clear();
+                }
+                sendStartedAt = System.currentTimeMillis();
+                try {
+                    emitter.send(items);
+                    lastWrite = System.currentTimeMillis();
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Event stream of user {} closed: {}", userId, e.getMessage());
+                    synchronized (this) {
+                        writing = false;
+                    }
+                    close();
+                    return;
+                } finally {
+                    sendStartedAt = 0;
+                }
+            }
+            // 写出期间被关闭，由写出线程完成连接
+            complete();
+        }
+
+        /**
+         * 关闭连接
+         * 写出线程持有emitter的写锁，正在写出时只做标记，由写出线程在写出返回后完成连接，
+         * 避免调用方（广播线程）被慢连接阻塞
+         */
+        private void close() {
+            boolean idle;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                backlog.clear();
+                idle = !writing;
+            }
+            subscribers.remove(this);
+            if (idle) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                logger.debug("Event stream of user {} already completed", userId);
+            }
+        }
+    }
+}
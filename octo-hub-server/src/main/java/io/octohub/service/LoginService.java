@@ -0,0 +1,129 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.octohub.dto.JwtResponse;
+import io.octohub.dto.LoginRequest;
+import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+import io.octohub.util.JwtUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+
+/**
+ * 登录服务
+ * 密码校验（BCrypt）在独立的有界线程池中执行，不占用Tomcat请求线程；
+ * 队列已满时立即拒绝，避免登录洪峰或撞库拖垮其他接口。
+ */
+@Service
+public class LoginService {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${login.executor.threads:0}")
+    private int threads;
+
+    @Value("${login.executor.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * 排队超过该时长的登录请求不再校验密码，客户端大概率已经超时
+     */
+    @Value("${login.executor.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer waitTimer;
+
+    private Timer hashTimer;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("login-bcrypt-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("login.queue.depth", executor, e -> e.getQueue().size())
+                .description("等待校验密码的登录请求数")
+                .register(meterRegistry);
+        Gauge.builder("login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在校验密码的登录请求数")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("login.queue.wait")
+                .description("登录请求排队时间")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        hashTimer = Timer.builder("login.hash.time")
+                .description("登录认证耗时（含BCrypt校验）")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("login.rejected")
+                .description("因线程池已满或排队超时被拒绝的登录请求数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 异步登录
+     * @param loginRequest 登录请求
+     * @return 登录结果；线程池已满时以RejectedExecutionException结束，认证失败时以AuthenticationException结束
+     */
+    public CompletableFuture<JwtResponse> login(LoginRequest loginRequest) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(loginRequest, enqueuedAt), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private JwtResponse authenticate(LoginRequest loginRequest, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        long waitedNanos = startedAt - enqueuedAt;
+        waitTimer.record(waitedNanos, TimeUnit.NANOSECONDS);
+        if (waitedNanos > TimeUnit.MILLISECONDS.toNanos(maxWaitMs)) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("登录请求排队超时");
+        }
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                    loginRequest.getEmail(),
+                    loginRequest.getPassword()));
+        } finally {
+            hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
+        String jwt = jwtUtils.generateJwtToken(userDetails);
+        return new JwtResponse(jwt, userDetails.getId());
+    }
+}
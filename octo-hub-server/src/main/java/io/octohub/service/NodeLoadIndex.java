@@ -0,0 +1,508 @@
+package io.octohub.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 节点负载索引
+ * 每个节点一个任务队列，在途任务数不超过节点上报的容量，超出部分在节点队列中排队。
+ * 可分配的节点按负载分数保存在带位置索引的最小堆中，选择目标节点为O(1)，
+ * 任务入队、完成等改变分数的操作只调整该节点在堆中的位置，为O(log n)，不随节点数线性增长。
+ * 节点有空闲容量且自身队列为空时，依次从未分配队列和积压最多的节点队列尾部取任务（工作窃取），
+ * 积压节点同样保存在按队列长度排序的最大堆中，窃取目标的选择也不需要遍历节点。
+ * 非线程安全，由TaskDispatcher加锁访问。
+ */
+public class NodeLoadIndex {
+
+    /**
+     * 目标节点选择策略
+     */
+    public enum Strategy {
+        /**
+         * 未完成任务数（在途 + 排队）最少的节点
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * 未完成任务数与容量之比最小的节点，容量大的节点按比例分到更多任务
+         */
+        WEIGHTED_CAPACITY
+    }
+
+    private final Strategy strategy;
+
+    private final Map<String, Slot> slots = new HashMap<>();
+
+    private final Map<String, DispatchTask> tasks = new HashMap<>();
+
+    /**
+     * 节点离线或全部节点不可用时无处安放的任务
+     */
+    private final ArrayDeque<DispatchTask> unassigned = new ArrayDeque<>();
+
+    /**
+     * 可分配的节点，堆顶为负载最低的节点
+     */
+    private final SlotHeap loads = new SlotHeap(false);
+
+    /**
+     * 队列非空的节点，即工作窃取的候选，堆顶为暂停推送或积压最多的节点
+     */
+    private final SlotHeap backlogs = new SlotHeap(true);
+
+    private long queued;
+
+    private long stolen;
+
+    public NodeLoadIndex(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * 登记节点或更新容量
+     * @return 节点状态，调用方随后应调用fill分发任务
+     */
+    public Slot upsert(String pcId, int capacity) {
+        Slot slot = slots.get(pcId);
+        if (slot == null) {
+            slot = new Slot(pcId);
+            slots.put(pcId, slot);
+        }
+        slot.capacity = capacity;
+        reposition(slot);
+        return slot;
+    }
+
+    /**
+     * 恢复所有暂停推送的节点
+     * @return 被恢复的节点
+     */
+    public List<Slot> unblockAll() {
+        List<Slot> unblocked = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            if (slot.blocked) {
+                slot.blocked = false;
+                reposition(slot);
+                unblocked.add(slot);
+            }
+        }
+        return unblocked;
+    }
+
+    /**
+     * 移除节点，其排队与在途任务放回未分配队列，调用方随后应调用redistribute
+     * @return 放回未分配队列的任务数
+     */
+    public int remove(String pcId) {
+        Slot slot = slots.remove(pcId);
+        if (slot == null) {
+            return 0;
+        }
+        loads.remove(slot);
+        backlogs.remove(slot);
+        int count = 0;
+        // 在途任务更早提交，排在前面
+        for (DispatchTask task : slot.running.values()) {
+            task.incrementAttempts();
+            requeue(task);
+            count++;
+        }
+        DispatchTask task;
+        while ((task = slot.queue.pollFirst()) != null) {
+            queued--;
+            requeue(task);
+            count++;
+        }
+        slot.running.clear();
+        return count;
+    }
+
+    /**
+     * 登记新任务并分配到负载最低的节点
+     * @return 目标节点，没有可分配节点时返回null且任务进入未分配队列
+     */
+    public Slot assign(DispatchTask task) {
+        tasks.put(task.getTaskId(), task);
+        Slot slot = loads.peek();
+        if (slot == null) {
+            requeue(task);
+            return null;
+        }
+        enqueue(slot, task);
+        return slot;
+    }
+
+    /**
+     * 登记新任务并分配到指定节点
+     * @return 目标节点，节点未登记时返回null且不登记任务
+     */
+    public Slot assignTo(String pcId, DispatchTask task) {
+        Slot slot = slots.get(pcId);
+        if (slot == null) {
+            return null;
+        }
+        tasks.put(task.getTaskId(), task);
+        enqueue(slot, task);
+        return slot;
+    }
+
+    /**
+     * 将未分配队列中的任务重新分配到节点
+     * @return 接收了任务的节点
+     */
+    public Set<Slot> redistribute() {
+        Set<Slot> touched = new LinkedHashSet<>();
+        while (!unassigned.isEmpty() && loads.peek() != null) {
+            DispatchTask task = unassigned.pollFirst();
+            Slot slot = loads.peek();
+            enqueue(slot, task);
+            touched.add(slot);
+        }
+        return touched;
+    }
+
+    /**
+     * 按节点空闲容量取出待推送的任务：先取自身队列，再取未分配队列，最后从积压节点窃取
+     * @param out 取出的任务，已标记为DISPATCHED
+     */
+    public void fill(Slot slot, List<DispatchTask> out) {
+        if (slot.blocked || slots.get(slot.pcId) != slot) {
+            return;
+        }
+        while (slot.running.size() < slot.capacity) {
+            DispatchTask task = slot.queue.pollFirst();
+            if (task != null) {
+                queued--;
+            } else {
+                task = unassigned.pollFirst();
+                if (task == null) {
+                    task = steal(slot);
+                    if (task == null) {
+                        break;
+                    }
+                }
+            }
+            task.setPcId(slot.pcId);
+            task.setState(DispatchTask.State.DISPATCHED);
+            slot.running.put(task.getTaskId(), task);
+            out.add(task);
+        }
+        reposition(slot);
+    }
+
+    /**
+     * 任务完成，释放节点容量
+     * @return 完成任务所在的节点，任务未登记时返回null
+     */
+    public Slot complete(String taskId) {
+        DispatchTask task = tasks.remove(taskId);
+        if (task == null) {
+            return null;
+        }
+        Slot slot = task.getPcId() != null ? slots.get(task.getPcId()) : null;
+        if (slot == null) {
+            // 仍在未分配队列中
+            unassigned.remove(task);
+            return null;
+        }
+        if (slot.running.remove(taskId) == null && slot.queue.remove(task)) {
+            queued--;
+        }
+        reposition(slot);
+        return slot;
+    }
+
+    /**
+     * 推送失败，任务放回节点队首，节点暂停推送直到unblockAll，期间其队列可被其他节点窃取
+     */
+    public void reject(DispatchTask task) {
+        Slot slot = task.getPcId() != null ? slots.get(task.getPcId()) : null;
+        if (slot == null || slot.running.remove(task.getTaskId()) == null) {
+            // 节点已移除（任务已随之放回未分配队列）或任务已完成
+            return;
+        }
+        task.setState(DispatchTask.State.QUEUED);
+        slot.queue.addFirst(task);
+        queued++;
+        slot.blocked = true;
+        reposition(slot);
+    }
+
+    public DispatchTask getTask(String taskId) {
+        return tasks.get(taskId);
+    }
+
+    public Slot getSlot(String pcId) {
+        return slots.get(pcId);
+    }
+
+    public int nodeCount() {
+        return slots.size();
+    }
+
+    public int taskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * 节点队列中排队的任务数
+     */
+    public long queuedCount() {
+        return queued;
+    }
+
+    public int unassignedCount() {
+        return unassigned.size();
+    }
+
+    /**
+     * 已推送等待结果的任务数
+     */
+    public long dispatchedCount() {
+        return tasks.size() - queued - unassigned.size();
+    }
+
+    /**
+     * 累计窃取的任务数
+     */
+    public long stolenCount() {
+        return stolen;
+    }
+
+    private void enqueue(Slot slot, DispatchTask task) {
+        task.setPcId(slot.pcId);
+        task.setState(DispatchTask.State.QUEUED);
+        slot.queue.addLast(task);
+        queued++;
+        reposition(slot);
+    }
+
+    private void requeue(DispatchTask task) {
+        task.setPcId(null);
+        task.setState(DispatchTask.State.QUEUED);
+        unassigned.addLast(task);
+    }
+
+    /**
+     * 从积压最多的节点队列尾部取一个任务，暂停推送的节点优先
+     */
+    private DispatchTask steal(Slot thief) {
+        // 窃取时自身队列已取空，但还未调整堆中位置
+        backlogs.remove(thief);
+        Slot victim = backlogs.peek();
+        if (victim == null) {
+            return null;
+        }
+        DispatchTask task = victim.queue.pollLast();
+        queued--;
+        stolen++;
+        reposition(victim);
+        return task;
+    }
+
+    /**
+     * 节点的分数或队列长度变化后调整其在两个堆中的位置
+     */
+    private void reposition(Slot slot) {
+        boolean present = slots.get(slot.pcId) == slot;
+        if (present && slot.capacity > 0 && !slot.blocked) {
+            loads.update(slot);
+        } else {
+            loads.remove(slot);
+        }
+        if (present && !slot.queue.isEmpty()) {
+            backlogs.update(slot);
+        } else {
+            backlogs.remove(slot);
+        }
+    }
+
+    private int compareLoad(Slot a, Slot b) {
+        long outstandingA = a.outstanding();
+        long outstandingB = b.outstanding();
+        if (strategy == Strategy.WEIGHTED_CAPACITY) {
+            // (outstandingA + 1) / capacityA 与 (outstandingB + 1) / capacityB 交叉相乘比较，避免浮点运算
+            int result = Long.compare((outstandingA + 1) * b.capacity, (outstandingB + 1) * a.capacity);
+            if (result != 0) {
+                return result;
+            }
+        } else {
+            int result = Long.compare(outstandingA, outstandingB);
+            if (result != 0) {
+                return result;
+            }
+        }
+        // 负载相同时优先容量大的节点
+        return Integer.compare(b.capacity, a.capacity);
+    }
+
+    private static int compareBacklog(Slot a, Slot b) {
+        if (a.blocked != b.blocked) {
+            return a.blocked ? -1 : 1;
+        }
+        return Integer.compare(b.queue.size(), a.queue.size());
+    }
+
+    /**
+     * 带位置索引的二叉堆，节点在堆中的下标保存在Slot上，调整与删除为O(log n)
+     */
+    private final class SlotHeap {
+
+        private final boolean backlog;
+
+        private Slot[] items = new Slot[64];
+
+        private int size;
+
+        private SlotHeap(boolean backlog) {
+            this.backlog = backlog;
+        }
+
+        private Slot peek() {
+            return size > 0 ? items[0] : null;
+        }
+
+        private void update(Slot slot) {
+            int index = indexOf(slot);
+            if (index < 0) {
+                if (size == items.length) {
+                    items = Arrays.copyOf(items, size * 2);
+                }
+                index = size++;
+                items[index] = slot;
+                setIndex(slot, index);
+            }
+            if (!siftUp(index)) {
+                siftDown(index);
+            }
+        }
+
+        private void remove(Slot slot) {
+            int index = indexOf(slot);
+            if (index < 0) {
+                return;
+            }
+            setIndex(slot, -1);
+            Slot last = items[--size];
+            items[size] = null;
+            if (index == size) {
+                return;
+            }
+            items[index] = last;
+            setIndex(last, index);
+            if (!siftUp(index)) {
+                siftDown(index);
+            }
+        }
+
+        private boolean siftUp(int index) {
+            Slot slot = items[index];
+            int start = index;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compare(slot, items[parent]) >= 0) {
+                    break;
+                }
+                items[index] = items[parent];
+                setIndex(items[index], index);
+                index = parent;
+            }
+            items[index] = slot;
+            setIndex(slot, index);
+            return index != start;
+        }
+
+        private void siftDown(int index) {
+            Slot slot = items[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && compare(items[right], items[child]) < 0) {
+                    child = right;
+                }
+                if (compare(slot, items[child]) <= 0) {
+                    break;
+                }
+                items[index] = items[child];
+                setIndex(items[index], index);
+                index = child;
+            }
+            items[index] = slot;
+            setIndex(slot, index);
+        }
+
+        private int compare(Slot a, Slot b) {
+            return backlog ? compareBacklog(a, b) : compareLoad(a, b);
+        }
+
+        private int indexOf(Slot slot) {
+            return backlog ? slot.backlogIndex : slot.loadIndex;
+        }
+
+        private void setIndex(Slot slot, int index) {
+            if (backlog) {
+                slot.backlogIndex = index;
+            } else {
+                slot.loadIndex = index;
+            }
+        }
+    }
+
+    /**
+     * 节点的分发状态
+     */
+    public static final class Slot {
+
+        private final String pcId;
+
+        private final ArrayDeque<DispatchTask> queue = new ArrayDeque<>();
+
+        private final Map<String, DispatchTask> running = new LinkedHashMap<>();
+
+        private int capacity;
+
+        /**
+         * 推送失败后暂停推送，不参与分配
+         */
+        private boolean blocked;
+
+        private int loadIndex = -1;
+
+        private int backlogIndex = -1;
+
+        private Slot(String pcId) {
+            this.pcId = pcId;
+        }
+
+        public String getPcId() {
+            return pcId;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getRunning() {
+            return running.size();
+        }
+
+        public int getQueued() {
+            return queue.size();
+        }
+
+        public boolean isBlocked() {
+            return blocked;
+        }
+
+        private long outstanding() {
+            return running.size() + queue.size();
+        }
+    }
+}
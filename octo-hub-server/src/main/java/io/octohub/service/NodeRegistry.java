@@ -0,0 +1,275 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.dto.NodeCapacity;
+import io.octohub.dto.NodeStatus;
+import io.octohub.event.NodeStatusEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 在线节点登记表
+ * 节点通过签名心跳上报容量与负载，登记表以ConcurrentHashMap保存节点状态，同一节点的更新只锁该节点。
+ * 心跳超时由时间轮检测：每个节点只在一个槽位中，心跳只更新时间戳而不移动槽位；
+ * 时间轮走到该槽位时再检查实际的最近心跳时间，未超时的节点移到新的到期槽位，
+ * 因此心跳为O(1)且不产生时间轮写入，每个节点每个超时周期最多被检查一次，不需要全量扫描。
+ */
+@Component
+public class NodeRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeRegistry.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 心跳超时时间，超过该时间未上报的节点视为离线
+     */
+    @Value("${node.registry.heartbeat-timeout-ms:30000}")
+    private long heartbeatTimeoutMs;
+
+    /**
+     * 时间轮刻度，即离线检测的精度
+     */
+    @Value("${node.registry.tick-ms:1000}")
+    private long tickMs;
+
+    /**
+     * 登记节点数上限
+     */
+    @Value("${node.registry.max-nodes:100000}")
+    private int maxNodes;
+
+    private final ConcurrentHashMap<String, Node> nodes = new ConcurrentHashMap<>();
+
+    private Queue<Node>[] wheel;
+
+    /**
+     * 已处理到的时间轮刻度
+     */
+    private volatile long processedTick;
+
+    private final AtomicLong totalCapacity = new AtomicLong();
+
+    private final AtomicLong totalLoad = new AtomicLong();
+
+    private Counter heartbeatCounter;
+
+    private Counter expiredCounter;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        // 到期刻度最多比当前刻度超前timeout/tick+1个，再留一个槽位避免与正在处理的槽位重叠
+        int wheelSize = (int) ((heartbeatTimeoutMs + tickMs - 1) / tickMs) + 2;
+        wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        processedTick = System.currentTimeMillis() / tickMs;
+
+        Gauge.builder("node.registry.online", nodes, ConcurrentHashMap::size)
+                .description("在线节点数")
+                .register(meterRegistry);
+        Gauge.builder("node.registry.capacity", totalCapacity, AtomicLong::get)
+                .description("在线节点上报的容量总和")
+                .register(meterRegistry);
+        Gauge.builder("node.registry.load", totalLoad, AtomicLong::get)
+                .description("在线节点上报的负载总和")
+                .register(meterRegistry);
+        heartbeatCounter = Counter.builder("node.registry.heartbeats")
+                .description("节点心跳数")
+                .register(meterRegistry);
+        expiredCounter = Counter.builder("node.registry.expired")
+                .description("心跳超时离线的节点数")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("node.registry.rejected")
+                .description("登记表已满被拒绝的新节点心跳数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次节点心跳
+     * @param pcId 节点ID
+     * @param capacity 节点任务容量
+     * @param load 节点当前负载
+     * @return 登记表已满且节点未登记时返回false
+     */
+    public boolean heartbeat(String pcId, int capacity, int load) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            Node node = nodes.get(pcId);
+            boolean created = false;
+            if (node == null) {
+                if (nodes.size() >= maxNodes) {
+                    rejectedCounter.increment();
+                    return false;
+                }
+                Node fresh = new Node(pcId, now);
+                node = nodes.putIfAbsent(pcId, fresh);
+                if (node == null) {
+                    node = fresh;
+                    created = true;
+                }
+            }
+            synchronized (node) {
+                if (node.removed) {
+                    // 节点恰好在此时过期移除，重新登记
+                    continue;
+                }
+                totalCapacity.addAndGet(capacity - node.capacity);
+                totalLoad.addAndGet(load - node.load);
+                node.capacity = capacity;
+                node.load = load;
+                node.lastHeartbeat = now;
+            }
+            heartbeatCounter.increment();
+            if (created) {
+                schedule(node, now + heartbeatTimeoutMs, processedTick);
+                eventPublisher.publishEvent(new NodeStatusEvent(pcId, NodeStatusEvent.Status.ONLINE, now));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 查询单个在线节点
+     * @return 节点不在线时返回null
+     */
+    public NodeStatus get(String pcId) {
+        Node node = nodes.get(pcId);
+        return node != null ? node.toStatus() : null;
+    }
+
+    /**
+     * 列出在线节点，顺序不固定
+     * @param minAvailable 剩余容量下限
+     * @param limit 最多返回的节点数
+     */
+    public List<NodeStatus> online(int minAvailable, int limit) {
+        List<NodeStatus> result = new ArrayList<>(Math.min(limit, nodes.size()));
+        for (Node node : nodes.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            NodeStatus status = node.toStatus();
+            if (status.getAvailable() >= minAvailable) {
+                result.add(status);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 在线节点容量汇总
+     */
+    public NodeCapacity capacity() {
+        return new NodeCapacity(nodes.size(), totalCapacity.get(), totalLoad.get());
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 推进时间轮，处理到期槽位中的节点
+     * 调度延迟时逐个补齐错过的刻度
+     */
+    @Scheduled(fixedRateString = "${node.registry.tick-ms:1000}")
+    public synchronized void advance() {
+        long now = System.currentTimeMillis();
+        long nowTick = now / tickMs;
+        while (processedTick < nowTick) {
+            long tick = processedTick + 1;
+            Queue<Node> slot = wheel[slotOf(tick)];
+            Node node;
+            while ((node = slot.poll()) != null) {
+                check(node, now, tick);
+            }
+            processedTick = tick;
+        }
+    }
+
+    private void check(Node node, long now, long tick) {
+        synchronized (node) {
+            if (node.removed) {
+                return;
+            }
+            long deadline = node.lastHeartbeat + heartbeatTimeoutMs;
+            if (deadline > now) {
+                schedule(node, deadline, tick);
+                return;
+            }
+            node.removed = true;
+            totalCapacity.addAndGet(-node.capacity);
+            totalLoad.addAndGet(-node.load);
+        }
+        nodes.remove(node.pcId, node);
+        expiredCounter.increment();
+        logger.debug("Node {} expired, last heartbeat {}ms ago", node.pcId, now - node.lastHeartbeat);
+        eventPublisher.publishEvent(new NodeStatusEvent(node.pcId, NodeStatusEvent.Status.OFFLINE, now));
+    }
+
+    /**
+     * 将节点放入到期刻度对应的槽位
+     * 目标刻度至少比当前刻度晚一格，且不超过一圈，超过一圈时提前检查一次再重新放入
+     */
+    private void schedule(Node node, long deadline, long currentTick) {
+        long target = (deadline + tickMs - 1) / tickMs;
+        target = Math.max(target, currentTick + 1);
+        target = Math.min(target, currentTick + wheel.length - 1);
+        wheel[slotOf(target)].add(node);
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) wheel.length);
+    }
+
+    /**
+     * 节点状态，字段在节点锁内修改
+     */
+    private static final class Node {
+
+        private final String pcId;
+
+        private final long onlineSince;
+
+        private volatile int capacity;
+
+        private volatile int load;
+
+        private volatile long lastHeartbeat;
+
+        private boolean removed;
+
+        private Node(String pcId, long onlineSince) {
+            this.pcId = pcId;
+            this.onlineSince = onlineSince;
+            this.lastHeartbeat = onlineSince;
+        }
+
+        private NodeStatus toStatus() {
+            return new NodeStatus(pcId, capacity, load, lastHeartbeat, onlineSince);
+        }
+    }
+}
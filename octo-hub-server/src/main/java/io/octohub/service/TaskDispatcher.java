@@ -0,0 +1,364 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.dto.NodeStatus;
+import io.octohub.dto.TaskAssignment;
+import io.octohub.enums.ErrorCode;
+import io.octohub.event.NodeStatusEvent;
+import io.octohub.event.TaskStatusEvent;
+import io.octohub.metrics.Stage;
+import io.octohub.metrics.StageMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 任务分发
+ * 调度决策在NodeLoadIndex上加锁完成，推送在锁外进行，推送失败的任务放回节点队首并暂停该节点，
+ * 由定期同步恢复；节点离线时其排队与在途任务重新分配给其他节点（至少一次语义）。
+ * 负载以本服务已推送未完成的任务数计算，不使用节点心跳上报的负载，避免心跳间隔内的重复分配。
+ * 开启任务日志时，任务在日志落盘后才进入分发队列并推送，启动时日志中未上报结果的任务进入未分配队列，等节点上线后分发。
+ */
+@Service
+public class TaskDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskDispatcher.class);
+
+    @Autowired
+    private NodeRegistry nodeRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private StageMetrics stageMetrics = StageMetrics.NOOP;
+
+    /**
+     * 推送通道由网关在启动时注册，分发器不注入网关，网关接收的任务结果经TaskResultService回到分发器时不形成循环依赖
+     */
+    private volatile TaskGateway taskGateway = TaskGateway.NONE;
+
+    @Autowired
+    private TaskJournal taskJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${task.dispatch.strategy:LEAST_OUTSTANDING}")
+    private NodeLoadIndex.Strategy strategy;
+
+    /**
+     * 未完成任务数上限（排队 + 在途 + 未分配）
+     */
+    @Value("${task.dispatch.max-tasks:100000}")
+    private int maxTasks;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private NodeLoadIndex index;
+
+    private Counter submittedCounter;
+
+    private Counter dispatchedCounter;
+
+    private Counter undeliverableCounter;
+
+    private Counter redispatchedCounter;
+
+    @PostConstruct
+    public void init() {
+        index = new NodeLoadIndex(strategy);
+        gauge("task.dispatch.queued", "节点队列中排队的任务数", NodeLoadIndex::queuedCount);
+        gauge("task.dispatch.unassigned", "未分配到节点的任务数", NodeLoadIndex::unassignedCount);
+        gauge("task.dispatch.inflight", "已推送等待结果的任务数", NodeLoadIndex::dispatchedCount);
+        FunctionCounter.builder("task.dispatch.stolen", this, dispatcher -> dispatcher.read(NodeLoadIndex::stolenCount))
+                .description("被空闲节点窃取的任务数")
+                .register(meterRegistry);
+        submittedCounter = counter("task.dispatch.submitted", "提交的任务数");
+        dispatchedCounter = counter("task.dispatch.pushed", "推送成功的任务数");
+        undeliverableCounter = counter("task.dispatch.undeliverable", "推送失败放回队列的任务数");
+        redispatchedCounter = counter("task.dispatch.redispatched", "节点离线后重新分配的任务数");
+        List<DispatchTask> recovered = taskJournal.pendingTasks();
+        for (DispatchTask task : recovered) {
+            index.assign(task);
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Recovered {} pending tasks from task WAL", recovered.size());
+        }
+    }
+
+    /**
+     * 注册推送通道，未注册时任务提交不可用
+     */
+    public void registerGateway(TaskGateway gateway) {
+        taskGateway = gateway;
+        logger.info("Task gateway registered: {}", gateway.getClass().getSimpleName());
+    }
+
+    /**
+     * 是否配置了推送通道
+     */
+    public boolean isAvailable() {
+        return taskGateway != TaskGateway.NONE;
+    }
+
+    /**
+     * 提交任务
+     * @param task 任务
+     * @param pcId 指定节点，为null时选择负载最低的节点
+     * @return SUCCESS；任务数已达上限时返回SERVICE_BUSY，指定节点不在线或没有在线节点时返回NODE_OFFLINE，
+     * 任务日志写入或刷盘失败时返回SYSTEM_ERROR
+     */
+    public ErrorCode submit(DispatchTask task, String pcId) {
+        long seq;
+        long start = stageMetrics.start();
+        lock.lock();
+        try {
+            ErrorCode admission = admit(pcId);
+            if (admission != ErrorCode.SUCCESS) {
+                return admission;
+            }
+            seq = taskJournal.submitted(task);
+        } catch (TaskJournal.JournalException e) {
+            return ErrorCode.SYSTEM_ERROR;
+        } finally {
+            lock.unlock();
+            stageMetrics.stop(Stage.TASK_DISPATCH, start);
+        }
+        // 落盘后才进入分发队列，保证推送给节点的任务在重启后可以恢复
+        if (!taskJournal.awaitDurable(seq)) {
+            return ErrorCode.SYSTEM_ERROR;
+        }
+
+        List<DispatchTask> out = new ArrayList<>(1);
+        List<String> targets = new ArrayList<>(1);
+        lock.lock();
+        try {
+            NodeLoadIndex.Slot slot = pcId != null ? index.assignTo(pcId, task) : null;
+            if (slot == null) {
+                // 未指定节点，或指定节点在等待落盘期间离线：任务已记入日志，交给负载最低的节点或未分配队列
+                slot = index.assign(task);
+            }
+            if (slot != null) {
+                index.fill(slot, out);
+            }
+            collectTargets(out, targets);
+        } finally {
+            lock.unlock();
+        }
+        submittedCounter.increment();
+        eventPublisher.publishEvent(new TaskStatusEvent(task.getTaskId(), TaskStatusEvent.Status.QUEUED,
+                pcId, System.currentTimeMillis()));
+        push(out, targets);
+        return ErrorCode.SUCCESS;
+    }
+
+    /**
+     * 检查任务数上限与目标节点，在锁内调用
+     * 等待落盘期间不占用名额，并发提交时任务数可能短暂超过上限
+     */
+    private ErrorCode admit(String pcId) {
+        if (index.taskCount() >= maxTasks) {
+            return ErrorCode.SERVICE_BUSY;
+        }
+        if (pcId != null ? index.getSlot(pcId) == null : index.nodeCount() == 0) {
+            return ErrorCode.NODE_OFFLINE;
+        }
+        return ErrorCode.SUCCESS;
+    }
+
+    /**
+     * 任务是否已分配给指定节点
+     * 节点离线后任务被重新分配，原节点之后上报的结果不再属于它
+     */
+    public boolean isAssignedTo(String taskId, String pcId) {
+        lock.lock();
+        try {
+            DispatchTask task = index.getTask(taskId);
+            return task != null && pcId.equals(task.getPcId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 任务完成，释放节点容量并分发后续任务
+     * @param pcId 上报结果的节点
+     * @return 任务未登记（未提交或已完成）或未分配给该节点时返回false
+     */
+    public boolean complete(String taskId, String pcId) {
+        List<DispatchTask> out = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
+        lock.lock();
+        try {
+            DispatchTask task = index.getTask(taskId);
+            if (task == null || !pcId.equals(task.getPcId())) {
+                return false;
+            }
+            NodeLoadIndex.Slot slot = index.complete(taskId);
+            if (slot != null) {
+                index.fill(slot, out);
+            }
+            collectTargets(out, targets);
+        } finally {
+            lock.unlock();
+        }
+        eventPublisher.publishEvent(new TaskStatusEvent(taskId, TaskStatusEvent.Status.COMPLETED,
+                pcId, System.currentTimeMillis()));
+        push(out, targets);
+        return true;
+    }
+
+    /**
+     * 查询未完成任务的分发状态
+     * @return 任务未登记时返回null
+     */
+    public TaskAssignment getAssignment(String taskId) {
+        lock.lock();
+        try {
+            DispatchTask task = index.getTask(taskId);
+            return task != null ? TaskAssignment.of(task) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onNodeStatus(NodeStatusEvent event) {
+        List<DispatchTask> out = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
+        lock.lock();
+        try {
+            // 上下线事件在不同线程发布，可能乱序到达：以登记表的当前状态为准，
+            // 节点已重新上线时忽略迟到的OFFLINE，节点已离线时忽略迟到的ONLINE
+            NodeStatus status = nodeRegistry.get(event.getPcId());
+            if (event.getStatus() == NodeStatusEvent.Status.ONLINE) {
+                if (status == null) {
+                    return;
+                }
+                NodeLoadIndex.Slot slot = index.upsert(event.getPcId(), status.getCapacity());
+                index.fill(slot, out);
+            } else if (status == null) {
+                int requeued = index.remove(event.getPcId());
+                if (requeued > 0) {
+                    redispatchedCounter.increment(requeued);
+                    logger.info("Node {} went offline, redistributing {} tasks", event.getPcId(), requeued);
+                }
+                for (NodeLoadIndex.Slot slot : index.redistribute()) {
+                    index.fill(slot, out);
+                }
+            }
+            collectTargets(out, targets);
+        } finally {
+            lock.unlock();
+        }
+        push(out, targets);
+    }
+
+    /**
+     * 定期同步节点容量，恢复暂停推送的节点并分发积压任务
+     */
+    @Scheduled(fixedDelayString = "${task.dispatch.sync-ms:1000}")
+    public void sync() {
+        List<NodeStatus> nodes = nodeRegistry.online(0, Integer.MAX_VALUE);
+        List<DispatchTask> out = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
+        lock.lock();
+        try {
+            Set<NodeLoadIndex.Slot> touched = new LinkedHashSet<>();
+            for (NodeStatus status : nodes) {
+                NodeLoadIndex.Slot slot = index.getSlot(status.getPcId());
+                if (slot == null || slot.getCapacity() != status.getCapacity()) {
+                    touched.add(index.upsert(status.getPcId(), status.getCapacity()));
+                }
+            }
+            touched.addAll(index.unblockAll());
+            touched.addAll(index.redistribute());
+            for (NodeLoadIndex.Slot slot : touched) {
+                index.fill(slot, out);
+            }
+            collectTargets(out, targets);
+        } finally {
+            lock.unlock();
+        }
+        push(out, targets);
+    }
+
+    private static void collectTargets(List<DispatchTask> out, List<String> targets) {
+        for (DispatchTask task : out) {
+            targets.add(task.getPcId());
+        }
+    }
+
+    /**
+     * 在锁外推送任务，失败的任务放回节点队首
+     */
+    private void push(List<DispatchTask> out, List<String> targets) {
+        for (int i = 0; i < out.size(); i++) {
+            DispatchTask task = out.get(i);
+            boolean sent;
+            try {
+                sent = taskGateway.send(targets.get(i), task);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to push task {} to node {}", task.getTaskId(), targets.get(i), e);
+                sent = false;
+            }
+            if (sent) {
+                dispatchedCounter.increment();
+                try {
+                    taskJournal.dispatched(task.getTaskId(), targets.get(i));
+                } catch (TaskJournal.JournalException e) {
+                    // 推送记录只用于统计重试次数，丢失不影响恢复
+                    logger.warn("Failed to record dispatch of task {} in task WAL", task.getTaskId());
+                }
+                eventPublisher.publishEvent(new TaskStatusEvent(task.getTaskId(), TaskStatusEvent.Status.DISPATCHED,
+                        targets.get(i), System.currentTimeMillis()));
+                continue;
+            }
+            undeliverableCounter.increment();
+            lock.lock();
+            try {
+                index.reject(task);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void gauge(String name, String description, ToDoubleFunction<NodeLoadIndex> value) {
+        Gauge.builder(name, this, dispatcher -> dispatcher.read(value))
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private double read(ToDoubleFunction<NodeLoadIndex> value) {
+        lock.lock();
+        try {
+            return value.applyAsDouble(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Counter counter(String name, String description) {
+        return Counter.builder(name)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
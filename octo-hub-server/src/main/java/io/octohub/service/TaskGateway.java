@@ -0,0 +1,23 @@
+package io.octohub.service;
+
+/**
+ * 任务推送通道
+ * 将任务以{"action":"task","data":{"task_id":...,"task_type":...,"data":{...}}}消息推送给节点的WebSocket连接。
+ * 独立部署的Go网关没有服务端推送接口，启用内嵌网关（websocket.gateway.enabled）时WebSocketGateway启动后
+ * 通过TaskDispatcher.registerGateway注册自己；未注册推送通道时使用NONE，任务保留在节点队列中等待重试。
+ */
+public interface TaskGateway {
+
+    /**
+     * 不可用的推送通道，所有推送均失败
+     */
+    TaskGateway NONE = (pcId, task) -> false;
+
+    /**
+     * 推送任务给节点
+     * @param pcId 节点ID
+     * @param task 任务
+     * @return 节点连接不存在或发送失败时返回false
+     */
+    boolean send(String pcId, DispatchTask task);
+}
@@ -0,0 +1,593 @@
+package io.octohub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.octohub.wal.SegmentedWal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务生命周期日志
+ * 任务提交（SUBMITTED）、推送（DISPATCHED）、结果上报（ACKED，含结果内容）、结果入库（COMPLETED）
+ * 依次写入本地预写日志，提交与结果上报在落盘后才返回成功。
+ * 启动时回放日志：已提交但未上报结果的任务重新进入分发队列，已上报但未入库的结果重新进入写入队列。
+ * 内存中只保留未完成任务的SUBMITTED与ACKED记录，定期删除不再包含这些记录的旧段；
+ * 段数超过max-segments且最旧段中仍有效的记录不多时，把这些记录重写到日志末尾，再删除该段。
+ * 写入失败时抛出JournalException；刷盘失败后日志进入失败状态，之后的写入全部失败，需要重启恢复。
+ * 未开启时所有方法直接返回。
+ */
+@Component
+public class TaskJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskJournal.class);
+
+    private static final byte SUBMITTED = 1;
+
+    private static final byte DISPATCHED = 2;
+
+    private static final byte ACKED = 3;
+
+    private static final byte COMPLETED = 4;
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${task.wal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${task.wal.dir:data/task-wal}")
+    private String dir;
+
+    @Value("${task.wal.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${task.wal.fsync:true}")
+    private boolean fsync;
+
+    @Value("${task.wal.group-commit-us:200}")
+    private long groupCommitUs;
+
+    @Value("${task.wal.max-segments:8}")
+    private int maxSegments;
+
+    private SegmentedWal wal;
+
+    /**
+     * 未完成的任务，由this保护
+     */
+    private final Map<String, LiveTask> live = new HashMap<>();
+
+    /**
+     * 仍有效的记录，按序号排序，由this保护
+     */
+    private final TreeMap<Long, LiveRecord> liveRecords = new TreeMap<>();
+
+    private Counter appendCounter;
+
+    private Counter failureCounter;
+
+    private Counter relocatedCounter;
+
+    private Timer commitTimer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long[] records = new long[1];
+        wal = SegmentedWal.open(Paths.get(dir), segmentBytes, fsync, TimeUnit.MICROSECONDS.toNanos(groupCommitUs),
+                (seq, type, payload) -> {
+                    apply(seq, type, payload);
+                    records[0]++;
+                });
+        logger.info("Task WAL recovered {} records in {} ms: {} pending tasks, {} pending results, {} segments",
+                records[0], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                pendingTasks().size(), pendingResults().size(), wal.segmentCount());
+
+        Gauge.builder("task.wal.segments", wal, SegmentedWal::segmentCount)
+                .description("日志段数")
+                .register(meterRegistry);
+        Gauge.builder("task.wal.live.tasks", this, journal -> journal.liveCount())
+                .description("日志中未完成的任务数")
+                .register(meterRegistry);
+        Gauge.builder("task.wal.syncs", wal, SegmentedWal::syncCount)
+                .description("累计刷盘次数")
+                .register(meterRegistry);
+        Gauge.builder("task.wal.failed", wal, w -> w.failure() != null ? 1 : 0)
+                .description("日志是否因刷盘失败停止写入")
+                .register(meterRegistry);
+        appendCounter = Counter.builder("task.wal.appends")
+                .description("写入的日志记录数")
+                .register(meterRegistry);
+        failureCounter = Counter.builder("task.wal.failures")
+                .description("写入或刷盘失败次数")
+                .register(meterRegistry);
+        relocatedCounter = Counter.builder("task.wal.relocated")
+                .description("压缩时重写到日志末尾的记录数")
+                .register(meterRegistry);
+        commitTimer = Timer.builder("task.wal.commit")
+                .description("等待记录落盘的耗时")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 日志是否因刷盘失败停止写入
+     */
+    public boolean isFailed() {
+        return enabled && wal.failure() != null;
+    }
+
+    /**
+     * 记录任务提交，在任务进入分发队列之前调用以保证与推送记录的顺序
+     * @return 记录序号，传给awaitDurable等待落盘
+     * @throws JournalException 写入失败
+     */
+    public long submitted(DispatchTask task) {
+        if (!enabled) {
+            return 0;
+        }
+        byte[] data;
+        try {
+            data = objectMapper.writeValueAsBytes(task.getData());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("任务数据无法序列化", e);
+        }
+        Encoder encoder = new Encoder(64 + data.length)
+                .string(task.getTaskId())
+                .string(task.getTaskType())
+                .string(task.getPcId())
+                .putLong(task.getSubmittedAt())
+                .bytes(data);
+        return append(task.getTaskId(), SUBMITTED, encoder.toBytes());
+    }
+
+    /**
+     * 记录任务推送成功，不等待落盘
+     * @throws JournalException 写入失败
+     */
+    public void dispatched(String taskId, String pcId) {
+        if (!enabled) {
+            return;
+        }
+        append(taskId, DISPATCHED, new Encoder(64).string(taskId).string(pcId).toBytes());
+    }
+
+    /**
+     * 记录节点上报的任务结果，结果内容一并写入，入库前重启时据此重新写入
+     * @return 记录序号，传给awaitDurable等待落盘
+     * @throws JournalException 写入失败
+     */
+    public long acked(AckedResult result) {
+        if (!enabled) {
+            return 0;
+        }
+        Encoder encoder = new Encoder(64 + (result.resultJson != null ? result.resultJson.length() * 3 : 0))
+                .string(result.taskId)
+                .string(result.pcId)
+                .string(result.status)
+                .string(result.resultJson)
+                .string(result.error)
+                .putLong(result.nodeTimestamp != null ? result.nodeTimestamp : Long.MIN_VALUE)
+                .putLong(result.receivedAt);
+        return append(result.taskId, ACKED, encoder.toBytes());
+    }
+
+    /**
+     * 记录任务结果已入库，之后任务不再需要恢复
+     * @throws JournalException 写入失败
+     */
+    public void completed(Collection<String> taskIds) {
+        if (!enabled) {
+            return;
+        }
+        for (String taskId : taskIds) {
+            append(taskId, COMPLETED, new Encoder(32).string(taskId).toBytes());
+        }
+    }
+
+    /**
+     * 等待记录落盘，失败时记录日志并返回false
+     * @param seq 写入时返回的序号，未开启日志时为0
+     * @return 已落盘或未开启日志时返回true；开启日志时序号不合法（未写入）或刷盘失败返回false
+     */
+    public boolean awaitDurable(long seq) {
+        if (!enabled) {
+            return true;
+        }
+        if (seq <= 0) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            wal.awaitDurable(seq);
+            return true;
+        } catch (IOException e) {
+            failureCounter.increment();
+            logger.error("Task WAL record {} not durable: {}", seq, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 已提交但未上报结果的任务，按提交顺序
+     */
+    public synchronized List<DispatchTask> pendingTasks() {
+        List<DispatchTask> tasks = new ArrayList<>();
+        for (LiveRecord record : liveRecords.values()) {
+            if (record.type != SUBMITTED || live.get(record.taskId).ackedSeq != 0) {
+                continue;
+            }
+            Decoder decoder = new Decoder(ByteBuffer.wrap(record.payload));
+            String taskId = decoder.string();
+            String taskType = decoder.string();
+            decoder.string();
+            long submittedAt = decoder.getLong();
+            Map<String, Object> data;
+            try {
+                data = objectMapper.readValue(decoder.bytes(), DATA_TYPE);
+            } catch (IOException e) {
+                logger.warn("Skipping task {} with unreadable data in WAL", taskId, e);
+                continue;
+            }
+            DispatchTask task = new DispatchTask(taskId, taskType, data, submittedAt);
+            for (int i = live.get(taskId).attempts; i > 0; i--) {
+                task.incrementAttempts();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 已上报但未入库的结果，按上报顺序
+     */
+    public synchronized List<AckedResult> pendingResults() {
+        List<AckedResult> results = new ArrayList<>();
+        for (LiveRecord record : liveRecords.values()) {
+            if (record.type != ACKED) {
+                continue;
+            }
+            Decoder decoder = new Decoder(ByteBuffer.wrap(record.payload));
+            String taskId = decoder.string();
+            String pcId = decoder.string();
+            String status = decoder.string();
+            String resultJson = decoder.string();
+            String error = decoder.string();
+            long nodeTimestamp = decoder.getLong();
+            long receivedAt = decoder.getLong();
+            results.add(new AckedResult(taskId, pcId, status, resultJson, error,
+                    nodeTimestamp != Long.MIN_VALUE ? nodeTimestamp : null, receivedAt));
+        }
+        return results;
+    }
+
+    /**
+     * 删除不再包含有效记录的旧段，段数过多时先把最旧段中的有效记录重写到末尾
+     */
+    @Scheduled(fixedDelayString = "${task.wal.compact-interval-ms:10000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long lastSeq = 0;
+            synchronized (this) {
+                wal.deleteBefore(oldestLiveSeq());
+                if (wal.segmentCount() > maxSegments) {
+                    long cutoff = wal.firstSegmentLastSeq();
+                    List<Map.Entry<Long, LiveRecord>> stale = new ArrayList<>(liveRecords.headMap(cutoff, true).entrySet());
+                    long staleBytes = 0;
+                    for (Map.Entry<Long, LiveRecord> entry : stale) {
+                        staleBytes += entry.getValue().payload.length;
+                    }
+                    // 最旧段中有效记录较多时重写收益低，说明未完成的任务本身超出了段数限制
+                    if (staleBytes > segmentBytes / 4) {
+                        logger.debug("Skipping WAL relocation, {} live bytes in oldest segment", staleBytes);
+                        stale.clear();
+                    }
+                    for (Map.Entry<Long, LiveRecord> entry : stale) {
+                        LiveRecord record = entry.getValue();
+                        long seq = wal.append(record.type, record.payload);
+                        liveRecords.remove(entry.getKey());
+                        liveRecords.put(seq, record);
+                        LiveTask task = live.get(record.taskId);
+                        if (record.type == SUBMITTED) {
+                            task.submittedSeq = seq;
+                        } else {
+                            task.ackedSeq = seq;
+                        }
+                        lastSeq = seq;
+                    }
+                    relocatedCounter.increment(stale.size());
+                }
+            }
+            if (lastSeq > 0 && awaitDurable(lastSeq)) {
+                synchronized (this) {
+                    wal.deleteBefore(oldestLiveSeq());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            failureCounter.increment();
+            logger.warn("Task WAL compaction failed", e);
+        }
+    }
+
+    private synchronized long append(String taskId, byte type, byte[] payload) {
+        long seq;
+        try {
+            seq = wal.append(type, payload);
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            logger.error("Failed to append to task WAL", e);
+            throw new JournalException("任务日志写入失败", e);
+        }
+        appendCounter.increment();
+        track(seq, taskId, type, payload);
+        return seq;
+    }
+
+    private void apply(long seq, byte type, ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        track(seq, new Decoder(ByteBuffer.wrap(bytes)).string(), type, bytes);
+    }
+
+    private void track(long seq, String taskId, byte type, byte[] payload) {
+        switch (type) {
+            case SUBMITTED -> {
+                LiveTask task = live.computeIfAbsent(taskId, id -> new LiveTask());
+                if (task.submittedSeq != 0) {
+                    liveRecords.remove(task.submittedSeq);
+                }
+                task.submittedSeq = seq;
+                liveRecords.put(seq, new LiveRecord(taskId, type, payload));
+            }
+            case DISPATCHED -> {
+                LiveTask task = live.get(taskId);
+                if (task != null) {
+                    task.attempts++;
+                }
+            }
+            case ACKED -> {
+                // 重启前提交的任务也可能上报结果，同样需要保证入库
+                LiveTask task = live.computeIfAbsent(taskId, id -> new LiveTask());
+                if (task.ackedSeq != 0) {
+                    liveRecords.remove(task.ackedSeq);
+                }
+                task.ackedSeq = seq;
+                liveRecords.put(seq, new LiveRecord(taskId, type, payload));
+            }
+            case COMPLETED -> {
+                LiveTask task = live.remove(taskId);
+                if (task != null) {
+                    liveRecords.remove(task.submittedSeq);
+                    liveRecords.remove(task.ackedSeq);
+                }
+            }
+            default -> logger.warn("Unknown task WAL record type {} at seq {}", type, seq);
+        }
+    }
+
+    private long oldestLiveSeq() {
+        return liveRecords.isEmpty() ? wal.nextSeq() : liveRecords.firstKey();
+    }
+
+    private synchronized int liveCount() {
+        return live.size();
+    }
+
+    /**
+     * 日志写入失败，调用方不应再把对应的任务或结果视为已接收
+     */
+    public static class JournalException extends RuntimeException {
+
+        public JournalException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 节点上报的任务结果
+     */
+    public static final class AckedResult {
+
+        private final String taskId;
+
+        private final String pcId;
+
+        private final String status;
+
+        private final String resultJson;
+
+        private final String error;
+
+        private final Long nodeTimestamp;
+
+        private final long receivedAt;
+
+        public AckedResult(String taskId, String pcId, String status, String resultJson, String error,
+                           Long nodeTimestamp, long receivedAt) {
+            this.taskId = taskId;
+            this.pcId = pcId;
+            this.status = status;
+            this.resultJson = resultJson;
+            this.error = error;
+            this.nodeTimestamp = nodeTimestamp;
+            this.receivedAt = receivedAt;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public String getPcId() {
+            return pcId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getResultJson() {
+            return resultJson;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Long getNodeTimestamp() {
+            return nodeTimestamp;
+        }
+
+        public long getReceivedAt() {
+            return receivedAt;
+        }
+    }
+
+    private static final class LiveTask {
+
+        private long submittedSeq;
+
+        private long ackedSeq;
+
+        private int attempts;
+    }
+
+    private static final class LiveRecord {
+
+        private final String taskId;
+
+        private final byte type;
+
+        private final byte[] payload;
+
+        private LiveRecord(String taskId, byte type, byte[] payload) {
+            this.taskId = taskId;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * 记录内容编码：字符串为长度（-1表示null）+ UTF-8字节
+     */
+    private static final class Encoder {
+
+        private ByteBuffer buffer;
+
+        private Encoder(int initialCapacity) {
+            buffer = ByteBuffer.allocate(initialCapacity);
+        }
+
+        private Encoder string(String value) {
+            return bytes(value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+        }
+
+        private Encoder bytes(byte[] value) {
+            if (value == null) {
+                ensure(4).putInt(-1);
+            } else {
+                ensure(4 + value.length).putInt(value.length).put(value);
+            }
+            return this;
+        }
+
+        private Encoder putLong(long value) {
+            ensure(8).putLong(value);
+            return this;
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                buffer = larger.put(buffer);
+            }
+            return buffer;
+        }
+
+        private byte[] toBytes() {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.flip();
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+
+    private static final class Decoder {
+
+        private final ByteBuffer buffer;
+
+        private Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private String string() {
+            byte[] bytes = bytes();
+            return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+        }
+
+        private byte[] bytes() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        private long getLong() {
+            return buffer.getLong();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.octohub.service;
+
+import io.octohub.dto.TaskResultRequest;
+import io.octohub.enums.ErrorCode;
+import io.octohub.util.NodeIds;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * 节点任务结果的接收
+ * HTTP上报接口与内嵌WebSocket网关共用：校验结果，放入写入队列后释放节点容量。
+ * 只接收分配给上报节点、尚未完成的任务的结果；服务重启后恢复的任务在重新分配前不属于任何节点，
+ * 其结果被拒绝，任务重新分发执行（至少一次语义）。
+ */
+@Service
+public class TaskResultService {
+
+    private static final Set<String> RESULT_STATUSES = Set.of("completed", "failed");
+
+    /**
+     * task_results.error列长度
+     */
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    @Autowired
+    private TaskResultWriter taskResultWriter;
+
+    @Autowired
+    private TaskDispatcher taskDispatcher;
+
+    /**
+     * 结果JSON的最大长度（字符）
+     */
+    @Value("${task.result.max-result-length:65536}")
+    private int maxResultLength;
+
+    /**
+     * 校验任务结果
+     * @return 错误信息，合法时返回null
+     */
+    public String validate(String pcId, TaskResultRequest request) {
+        if (!NodeIds.isValid(pcId)
+                || request.getTaskId() == null || request.getTaskId().isEmpty() || request.getTaskId().length() > 64
+                || request.getStatus() == null || !RESULT_STATUSES.contains(request.getStatus())) {
+            return ErrorCode.PARAM_INVALID.getMessage();
+        }
+        if (request.getResult() != null && !request.getResult().isNull()
+                && request.getResult().toString().length() > maxResultLength) {
+            return "result超过" + maxResultLength + "字符";
+        }
+        return null;
+    }
+
+    /**
+     * 接收已校验的任务结果
+     * @return SUCCESS；任务不存在或未分配给该节点时返回TASK_NOT_ASSIGNED；
+     * 写入队列已满、正在关闭或任务日志不可用时返回SERVICE_BUSY，节点应稍后重试
+     */
+    public ErrorCode accept(String pcId, TaskResultRequest request) {
+        if (!taskDispatcher.isAssignedTo(request.getTaskId(), pcId)) {
+            return ErrorCode.TASK_NOT_ASSIGNED;
+        }
+        String resultJson = request.getResult() != null && !request.getResult().isNull()
+                ? request.getResult().toString() : null;
+        String error = request.getError();
+        if (error != null && error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (!taskResultWriter.submit(request.getTaskId(), pcId, request.getStatus(), resultJson, error,
+                request.getTimestamp())) {
+            return ErrorCode.SERVICE_BUSY;
+        }
+        // 写入期间任务可能因节点离线被重新分配，此时结果已保存，由新节点的结果完成任务
+        taskDispatcher.complete(request.getTaskId(), pcId);
+        return ErrorCode.SUCCESS;
+    }
+}
@@ -0,0 +1,289 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务结果异步批量写入
+ * 上报的结果先放入有界队列，由单独的写入线程攒批后以JDBC批量INSERT写入task_results：
+ * 攒满batch-size条或第一条等待超过max-delay-ms时写入一次。队列满时拒绝新结果，由调用方重试。
+ * 写入失败时按退避重试max-retries次，仍失败的批次丢弃并计数。
+ * 关闭时停止接收新结果，写入线程把队列中剩余的结果全部写完后退出。
+ * 开启任务日志时，结果写入日志并落盘后才入队，入库后记录完成；启动时日志中未入库的结果重新入队。
+ */
+@Service
+public class TaskResultWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskResultWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO task_results "
+            + "(task_id, pc_id, status, result, error, node_timestamp, received_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskJournal taskJournal;
+
+    @Value("${task.result.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${task.result.batch-size:500}")
+    private int batchSize;
+
+    @Value("${task.result.max-delay-ms:200}")
+    private long maxDelayMs;
+
+    @Value("${task.result.max-retries:3}")
+    private int maxRetries;
+
+    /**
+     * 关闭时等待队列写完的最长时间
+     */
+    @Value("${task.result.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<PendingResult> queue;
+
+    private Thread writerThread;
+
+    private volatile boolean stopping;
+
+    private Counter acceptedCounter;
+
+    private Counter rejectedCounter;
+
+    private Counter writtenCounter;
+
+    private Counter droppedCounter;
+
+    private Timer flushTimer;
+
+    private DistributionSummary batchSummary;
+
+    @PostConstruct
+    public void init() throws InterruptedException {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("task.result.queue.depth", queue, BlockingQueue::size)
+                .description("等待写入的任务结果数")
+                .register(meterRegistry);
+        Gauge.builder("task.result.queue.capacity", this, writer -> writer.queueCapacity)
+                .description("任务结果队列容量")
+                .register(meterRegistry);
+        acceptedCounter = results("accepted");
+        rejectedCounter = results("rejected");
+        writtenCounter = results("written");
+        droppedCounter = results("dropped");
+        flushTimer = Timer.builder("task.result.flush")
+                .description("每批任务结果的写入耗时，包括重试")
+                .register(meterRegistry);
+        batchSummary = DistributionSummary.builder("task.result.batch.size")
+                .description("每批写入的任务结果数")
+                .register(meterRegistry);
+
+        writerThread = new Thread(this::run, "task-result-writer");
+        writerThread.start();
+
+        List<TaskJournal.AckedResult> recovered = taskJournal.pendingResults();
+        for (TaskJournal.AckedResult result : recovered) {
+            // 写入线程已启动，超过队列容量时等待写入腾出空间
+            queue.put(new PendingResult(result));
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Recovered {} unwritten task results from task WAL", recovered.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        writerThread.join(shutdownTimeoutMs);
+        if (writerThread.isAlive()) {
+            logger.warn("Task result writer did not finish within {} ms, {} results not written",
+                    shutdownTimeoutMs, queue.size());
+            writerThread.interrupt();
+        }
+    }
+
+    /**
+     * 提交一条任务结果
+     * 开启任务日志时先等待结果落盘再入队，日志写入或刷盘失败时拒绝，由节点重试
+     * @param resultJson 结果JSON，可为null
+     * @param nodeTimestamp 节点完成任务的时间（秒），可为null
+     * @return 队列已满、正在关闭或日志不可用时返回false
+     */
+    public boolean submit(String taskId, String pcId, String status, String resultJson, String error,
+                          Long nodeTimestamp) {
+        if (stopping) {
+            rejectedCounter.increment();
+            return false;
+        }
+        // 先检查容量，避免为会被拒绝的结果写日志
+        if (queue.remainingCapacity() == 0) {
+            rejectedCounter.increment();
+            return false;
+        }
+        TaskJournal.AckedResult acked = new TaskJournal.AckedResult(taskId, pcId, status, resultJson, error,
+                nodeTimestamp, System.currentTimeMillis());
+        long seq;
+        try {
+            seq = taskJournal.acked(acked);
+        } catch (TaskJournal.JournalException e) {
+            rejectedCounter.increment();
+            return false;
+        }
+        if (!taskJournal.awaitDurable(seq)) {
+            rejectedCounter.increment();
+            return false;
+        }
+        if (!queue.offer(new PendingResult(acked))) {
+            // 日志中的记录在节点重试的结果入库后失效，未重试时在重启后写入
+            rejectedCounter.increment();
+            return false;
+        }
+        acceptedCounter.increment();
+        return true;
+    }
+
+    private void run() {
+        List<PendingResult> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                PendingResult first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (stopping && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    if (batch.size() >= batchSize || stopping) {
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingResult next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<PendingResult> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, result) -> {
+                        ps.setString(1, result.taskId);
+                        ps.setString(2, result.pcId);
+                        ps.setString(3, result.status);
+                        ps.setString(4, result.resultJson);
+                        ps.setString(5, result.error);
+                        if (result.nodeTimestamp != null) {
+                            ps.setLong(6, result.nodeTimestamp);
+                        } else {
+                            ps.setNull(6, Types.BIGINT);
+                        }
+                        ps.setTimestamp(7, result.receivedAt);
+                    });
+                    writtenCounter.increment(batch.size());
+                    batchSummary.record(batch.size());
+                    markCompleted(batch);
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxRetries) {
+                        droppedCounter.increment(batch.size());
+                        logger.error("Failed to write {} task results after {} attempts, dropping batch",
+                                batch.size(), attempt + 1, e);
+                        return;
+                    }
+                    logger.warn("Failed to write {} task results, retrying: {}", batch.size(), e.getMessage());
+                    // 关闭过程中也重试，但不再长时间等待
+                    Thread.sleep(stopping ? 100 : 100L << attempt);
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 在日志中记录结果已入库；失败时不重试入库，未记录完成的结果在重启后会再写入一次
+     */
+    private void markCompleted(List<PendingResult> batch) {
+        if (!taskJournal.isEnabled()) {
+            return;
+        }
+        List<String> taskIds = new ArrayList<>(batch.size());
+        for (PendingResult result : batch) {
+            taskIds.add(result.taskId);
+        }
+        try {
+            taskJournal.completed(taskIds);
+        } catch (TaskJournal.JournalException e) {
+            logger.warn("Failed to mark {} written task results as completed in task WAL", taskIds.size());
+        }
+    }
+
+    private Counter results(String outcome) {
+        return Counter.builder("task.result.results")
+                .description("任务结果的接收与写入数")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class PendingResult {
+        private final String taskId;
+        private final String pcId;
+        private final String status;
+        private final String resultJson;
+        private final String error;
+        private final Long nodeTimestamp;
+        private final Timestamp receivedAt;
+
+        private PendingResult(TaskJournal.AckedResult result) {
+            this.taskId = result.getTaskId();
+            this.pcId = result.getPcId();
+            this.status = result.getStatus();
+            this.resultJson = result.getResultJson();
+            this.error = result.getError();
+            this.nodeTimestamp = result.getNodeTimestamp();
+            this.receivedAt = new Timestamp(result.getReceivedAt());
+        }
+    }
+}
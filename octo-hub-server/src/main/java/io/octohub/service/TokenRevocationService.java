@@ -0,0 +1,159 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.entity.RevokedToken;
+import io.octohub.repository.RevokedTokenRepository;
+import io.octohub.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT吊销服务
+ * 吊销记录持久化到revoked_tokens表，内存中维护布隆过滤器与精确集合：
+ * 绝大多数未吊销的令牌在布隆过滤器处即可判定，只有命中时才查询精确集合确认，
+ * 每次请求的开销为几次位运算，不访问数据库。
+ * 启动时从表中重建，定期同步其他实例新增的记录并清理已过期的令牌。
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    /**
+     * 同步新增记录时向前回看的时间，覆盖其他实例事务提交的延迟
+     */
+    private static final long SYNC_OVERLAP_SECONDS = 30;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /**
+     * 令牌ID -> 过期时间（毫秒时间戳）
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    private LocalDateTime lastSyncAt;
+
+    @PostConstruct
+    public void init() {
+        LocalDateTime now = LocalDateTime.now();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getJti(), toEpochMillis(token.getExpiresAt()));
+        }
+        lastSyncAt = now;
+        rebuildFilter();
+        logger.info("Token revocation index loaded: {} revoked tokens", revoked.size());
+
+        Gauge.builder("jwt.revocation.entries", revoked, Map::size)
+                .description("内存中的已吊销令牌数")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.filter.bytes", this, service -> service.filter.sizeInBytes())
+                .description("吊销布隆过滤器占用的字节数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 判断令牌是否已被吊销
+     * @param jti 令牌ID，旧版令牌不携带时为null
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * 吊销令牌
+     * @param jti 令牌ID
+     * @param userId 用户ID
+     * @param expiresAtMillis 令牌过期时间（毫秒时间戳），过期后吊销记录会被清理
+     */
+    public void revoke(String jti, Long userId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            // 已过期的令牌无需记录
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, userId, toLocalDateTime(expiresAtMillis)));
+        add(jti, expiresAtMillis);
+    }
+
+    /**
+     * 当前已吊销且未过期的令牌数
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * 同步其他实例新增的吊销记录，清理已过期的令牌并重建过滤器
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> added = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(
+                lastSyncAt.minusSeconds(SYNC_OVERLAP_SECONDS), now);
+        for (RevokedToken token : added) {
+            add(token.getJti(), toEpochMillis(token.getExpiresAt()));
+        }
+        lastSyncAt = now;
+
+        long nowMillis = System.currentTimeMillis();
+        boolean pruned = revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+        if (pruned) {
+            rebuildFilter();
+            int deleted = revokedTokenRepository.deleteExpired(now);
+            logger.debug("Pruned expired revocations, {} rows deleted", deleted);
+        }
+    }
+
+    private synchronized void add(String jti, long expiresAtMillis) {
+        revoked.put(jti, expiresAtMillis);
+        filter.put(jti);
+    }
+
+    /**
+     * 按当前集合重建过滤器，容量不足时按实际条目数的两倍扩容
+     * 与add互斥，保证重建期间新增的令牌不会丢失
+     */
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedEntries, revoked.size() * 2L), falsePositiveRate);
+        for (String jti : revoked.keySet()) {
+            rebuilt.put(jti);
+        }
+        filter = rebuilt;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,201 @@
+package io.octohub.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.octohub.config.ReplicaRoutingDataSource;
+import io.octohub.entity.User;
+import io.octohub.repository.UserRepository;
+import io.octohub.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 用户二级缓存
+ * 一级缓存挂在当前请求的属性上，同一请求内多次读取同一用户只查询一次；
+ * 二级缓存为进程内有界缓存，按写入时间过期。
+ * 用户更新或删除时由UserEntityListener使缓存失效；命中时还会与UserVersionRegistry中的
+ * 最新版本比对，只有已知存在更新的版本时才丢弃，避免并发加载在失效之后写回旧数据；
+ * 登记表中的条目过期或被淘汰不影响命中，二级缓存的有效期仍由user.cache.ttl-seconds决定。
+ * 同一用户并发未命中时只有一个请求查询数据库，其余请求共享其结果。
+ * 缓存中的User为脱离持久化上下文的副本，调用方不应修改后保存。
+ * 未命中时始终从主库加载：JWT认证依赖这里的版本戳，从库复制延迟会让已吊销的旧版本令牌重新通过。
+ */
+@Component
+public class UserCache {
+
+    private static final String REQUEST_ATTRIBUTE = UserCache.class.getName() + ".L1";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserVersionRegistry userVersionRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${user.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<Long, User> cache;
+
+    private final SingleFlight<Long, Optional<User>> loads = new SingleFlight<>();
+
+    private Counter requestHits;
+
+    private Counter requestMisses;
+
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user");
+        requestHits = Counter.builder("user.cache.request.hits")
+                .description("请求级缓存命中次数")
+                .register(meterRegistry);
+        requestMisses = Counter.builder("user.cache.request.misses")
+                .description("请求级缓存未命中次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("user.cache.load.deduplicated", loads, SingleFlight::getDeduplicatedCount)
+                .description("与并发请求合并、未查询数据库的加载次数")
+                .register(meterRegistry);
+        Gauge.builder("user.cache.load.in-flight", loads, SingleFlight::inFlightCount)
+                .description("正在执行的用户加载数")
+                .register(meterRegistry);
+        loadTimer = Timer.builder("user.cache.load")
+                .description("缓存未命中时从数据库加载用户的耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按ID获取用户，依次查询请求级缓存、进程级缓存与数据库
+     * @param id 用户ID
+     * @return 用户，不存在时为空
+     */
+    public Optional<User> getById(Long id) {
+        if (!enabled) {
+            return loads.execute(id, () -> loadFromDatabase(id).map(UserCache::copyOf));
+        }
+        Map<Long, User> requestCache = requestCache();
+        if (requestCache != null) {
+            User user = requestCache.get(id);
+            if (user != null) {
+                requestHits.increment();
+                return Optional.of(user);
+            }
+            requestMisses.increment();
+        }
+
+        User user = cache.getIfPresent(id);
+        if (user != null && userVersionRegistry.isSuperseded(id, versionOf(user))) {
+            cache.invalidate(id);
+            user = null;
+        }
+        if (user == null) {
+            Optional<User> loaded = loads.execute(id, () -> loadAndCache(id));
+            if (loaded.isEmpty()) {
+                return loaded;
+            }
+            user = loaded.get();
+        }
+
+        if (requestCache != null) {
+            requestCache.put(id, user);
+        }
+        return Optional.of(user);
+    }
+
+    /**
+     * 使用户缓存失效，包括当前请求的一级缓存
+     */
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        Map<Long, User> requestCache = requestCache();
+        if (requestCache != null) {
+            requestCache.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Optional<User> loadAndCache(Long id) {
+        Optional<User> loaded = loadFromDatabase(id);
+        // 缓存副本，避免跨请求共享当前持久化上下文中的托管实体
+        Optional<User> copy = loaded.map(UserCache::copyOf);
+        copy.ifPresent(user -> cache.put(id, user));
+        return copy;
+    }
+
+    private Optional<User> loadFromDatabase(Long id) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Optional<User> user = ReplicaRoutingDataSource.onPrimary(() -> userRepository.findById(id));
+            // 登记加载到的版本，版本戳只会向前推进
+            user.ifPresent(u -> userVersionRegistry.record(u.getId(), versionOf(u)));
+            return user;
+        } finally {
+            sample.stop(loadTimer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, User> requestCache() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Long, User> requestCache = (Map<Long, User>) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (requestCache == null) {
+            requestCache = new HashMap<>(4);
+            attributes.setAttribute(REQUEST_ATTRIBUTE, requestCache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return requestCache;
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getEmail(), user.getPassword());
+        copy.setId(user.getId());
+        copy.setRole(user.getRole());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    private static long versionOf(User user) {
+        return user.getVersion() != null ? user.getVersion() : 0L;
+    }
+}
@@ -1,9 +1,12 @@
 package io.octohub.service;
 
 import io.octohub.entity.User;
+import io.octohub.metrics.Stage;
+import io.octohub.metrics.StageMetrics;
 import io.octohub.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -20,40 +23,108 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserVersionRegistry userVersionRegistry;
+    
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private StageMetrics stageMetrics;
+    
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("用户未找到: " + email));
+        long start = stageMetrics.start();
+        User user;
+        try {
+            user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("用户未找到: " + email));
+        } finally {
+            stageMetrics.stop(Stage.USER_LOOKUP, start);
+        }
         
-        return UserPrincipal.create(user);
+        return createPrincipal(user);
     }
 
-    @Transactional
+    /**
+     * 按ID加载用户主体，经过用户缓存读取
+     * 登录仍按邮箱直接查询数据库，保证密码校验使用最新数据
+     */
     public UserDetails loadUserByUserId(Long id) throws UsernameNotFoundException {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UsernameNotFoundException("用户未找到: " + id));
+        long start = stageMetrics.start();
+        User user;
+        try {
+            user = userCache.getById(id)
+                    .orElseThrow(() -> new UsernameNotFoundException("用户未找到: " + id));
+        } finally {
+            stageMetrics.stop(Stage.USER_LOOKUP, start);
+        }
         
-        return UserPrincipal.create(user);
+        return createPrincipal(user);
+    }
+    
+    /**
+     * 登记从数据库加载到的版本戳，只向前推进，避免并发加载的旧数据把登记表回退
+     */
+    private UserPrincipal createPrincipal(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        userVersionRegistry.record(principal.getId(), principal.getVersion());
+        return principal;
     }
     
     // 内部类：用户主体
     public static class UserPrincipal implements UserDetails {
+        private static final List<GrantedAuthority> DEFAULT_AUTHORITIES =
+                List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        
+        private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        
         private Long id;
         private String email;
         private String password;
+        private long version;
+        private Collection<? extends GrantedAuthority> authorities;
         
         public UserPrincipal(Long id, String email, String password) {
+            this(id, email, password, 0L, DEFAULT_AUTHORITIES);
+        }
+        
+        public UserPrincipal(Long id, String email, String password, long version,
+                             Collection<? extends GrantedAuthority> authorities) {
             this.id = id;
             this.email = email;
             this.password = password;
+            this.version = version;
+            this.authorities = authorities;
         }
         
         public static UserPrincipal create(User user) {        
             return new UserPrincipal(
                     user.getId(),
                     user.getEmail(),
-                    user.getPassword()
+                    user.getPassword(),
+                    user.getVersion() != null ? user.getVersion() : 0L,
+                    User.ROLE_ADMIN.equals(user.getRole()) ? ADMIN_AUTHORITIES : DEFAULT_AUTHORITIES
+            );
+        }
+        
+        /**
+         * 根据JWT声明构建用户主体，不包含密码
+         * @param id 用户ID
+         * @param email 用户邮箱
+         * @param version 用户版本戳
+         * @param authorities 权限列表
+         * @return 用户主体
+         */
+        public static UserPrincipal fromClaims(Long id, String email, long version, Collection<String> authorities) {
+            return new UserPrincipal(
+                    id,
+                    email,
+                    null,
+                    version,
+                    AuthorityUtils.createAuthorityList(authorities)
             );
         }
         
@@ -61,6 +132,10 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             return id;
         }
         
+        public long getVersion() {
+            return version;
+        }
+        
         @Override
         public String getUsername() {
             return email;
@@ -93,8 +168,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         
         @Override
         public Collection<? extends GrantedAuthority> getAuthorities() {
-            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+            return authorities;
         }
     
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,467 @@
+package io.octohub.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.octohub.dto.UserImportProgress;
+import io.octohub.dto.UserImportRow;
+import io.octohub.entity.User;
+import io.octohub.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户批量导入服务
+ * 按行流式读取NDJSON或CSV，内存中最多保留两个分块：
+ * 当前分块的密码在有界线程池中并行哈希，同时提交上一个分块。
+ * 每个分块在独立事务中通过JDBC批量插入，提交后输出一次进度。
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    /**
+     * 导入数据格式
+     */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    /**
+     * 进度回调，每提交一个分块调用一次，最后以done为true结束
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(UserImportProgress progress) throws IOException;
+    }
+
+    private static final int MAX_EMAIL_LENGTH = 255;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 每个事务提交的行数
+     */
+    @Value("${user.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 密码哈希线程数，为0时使用CPU核数
+     */
+    @Value("${user.import.hash-threads:0}")
+    private int hashThreads;
+
+    /**
+     * 最终结果中最多输出的失败明细数
+     */
+    @Value("${user.import.max-errors:100}")
+    private int maxErrors;
+
+    /**
+     * 与Hibernate的JDBC批量大小一致，每批插入后清空持久化上下文
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int jdbcBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ThreadPoolExecutor hashExecutor;
+
+    private ObjectReader rowReader;
+
+    private Counter importedCounter;
+
+    private Counter skippedCounter;
+
+    private Counter failedCounter;
+
+    private Timer commitTimer;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        // 队列满时由导入线程自己计算哈希，多个导入同时进行时自然限速；线程池关闭后拒绝新任务，
+        // 不能使用CallerRunsPolicy：它在关闭后静默丢弃任务，导入线程会一直等待哈希完成
+        hashExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                new CustomizableThreadFactory("user-import-"),
+                (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("导入线程池已关闭");
+                    }
+                    task.run();
+                });
+        rowReader = objectMapper.readerFor(UserImportRow.class);
+        importedCounter = rows("imported");
+        skippedCounter = rows("skipped");
+        failedCounter = rows("failed");
+        commitTimer = Timer.builder("user.import.commit")
+                .description("每个分块的写入与提交耗时")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    /**
+     * 导入用户
+     * 邮箱已存在（包括同一文件中重复出现）的行跳过，格式错误的行记为失败，均不影响其他行。
+     * @param in 数据流，UTF-8编码
+     * @param format 数据格式；CSV首行为表头时按表头确定列顺序，否则按email,password解析
+     * @param listener 进度回调
+     */
+    public void importUsers(InputStream in, Format format, ProgressListener listener) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        ImportState state = new ImportState();
+        CsvColumns columns = null;
+        List<PendingRow> rows = new ArrayList<>(chunkSize);
+        Chunk previous = null;
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = CsvColumns.detect(line);
+                if (columns.header) {
+                    continue;
+                }
+            }
+            state.processed++;
+
+            UserImportRow row;
+            try {
+                row = format == Format.CSV ? columns.parse(line) : rowReader.readValue(line);
+            } catch (IOException | IllegalArgumentException e) {
+                state.fail(lineNumber, "格式错误", maxErrors);
+                continue;
+            }
+            String error = validate(row);
+            if (error != null) {
+                state.fail(lineNumber, error, maxErrors);
+                continue;
+            }
+
+            rows.add(new PendingRow(lineNumber, row));
+            if (rows.size() >= chunkSize) {
+                Chunk current = startHashing(rows);
+                if (previous != null) {
+                    commit(previous, state, listener);
+                }
+                previous = current;
+                rows = new ArrayList<>(chunkSize);
+            }
+        }
+
+        Chunk last = rows.isEmpty() ? null : startHashing(rows);
+        if (previous != null) {
+            commit(previous, state, listener);
+        }
+        if (last != null) {
+            commit(last, state, listener);
+        }
+        listener.onProgress(state.snapshot(true));
+        logger.info("User import finished: processed={}, imported={}, skipped={}, failed={}",
+                state.processed, state.imported, state.skipped, state.failed);
+    }
+
+    private static String validate(UserImportRow row) {
+        String email = row.getEmail() != null ? row.getEmail().trim() : null;
+        if (!StringUtils.hasText(email) || email.length() > MAX_EMAIL_LENGTH || email.indexOf('@') <= 0) {
+            return "邮箱格式错误";
+        }
+        row.setEmail(email);
+        if (StringUtils.hasText(row.getPasswordHash())) {
+            if (!isBcryptHash(row.getPasswordHash())) {
+                return "passwordHash不是BCrypt哈希";
+            }
+        } else if (!StringUtils.hasText(row.getPassword())) {
+            return "密码不能为空";
+        }
+        return null;
+    }
+
+    private static boolean isBcryptHash(String hash) {
+        return hash.length() == 60 && (hash.startsWith("$2a$") || hash.startsWith("$2b$") || hash.startsWith("$2y$"));
+    }
+
+    /**
+     * 将分块拆成若干片并行计算密码哈希
+     */
+    private Chunk startHashing(List<PendingRow> rows) {
+        int slices = Math.max(1, Math.min(hashExecutor.getCorePoolSize(), rows.size()));
+        int sliceSize = (rows.size() + slices - 1) / slices;
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[slices];
+        for (int i = 0; i < slices; i++) {
+            List<PendingRow> slice = rows.subList(Math.min(i * sliceSize, rows.size()), Math.min((i + 1) * sliceSize, rows.size()));
+            try {
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    for (PendingRow row : slice) {
+                        String hash = row.row.getPasswordHash();
+                        row.encodedPassword = StringUtils.hasText(hash) ? hash : passwordEncoder.encode(row.row.getPassword());
+                    }
+                }, hashExecutor);
+            } catch (RejectedExecutionException e) {
+                futures[i] = CompletableFuture.failedFuture(e);
+            }
+        }
+        return new Chunk(rows, CompletableFuture.allOf(futures));
+    }
+
+    private void commit(Chunk chunk, ImportState state, ProgressListener listener) throws IOException {
+        try {
+            chunk.hashing.join();
+        } catch (CompletionException | CancellationException e) {
+            // 服务关闭时哈希任务被拒绝，本分块不再写入
+            logger.warn("User import chunk starting at line {} aborted: {}", chunk.rows.get(0).lineNumber, e.getMessage());
+            for (PendingRow row : chunk.rows) {
+                state.fail(row.lineNumber, "服务关闭，未导入", maxErrors);
+            }
+            listener.onProgress(state.snapshot(false));
+            return;
+        }
+
+        // 跳过已存在的邮箱与分块内重复的邮箱，之前分块中的邮箱已经提交，由数据库查询覆盖；
+        // 邮箱列的排序规则不区分大小写，比较时统一转为小写
+        Set<String> keys = new HashSet<>();
+        List<String> emails = new ArrayList<>(chunk.rows.size());
+        List<PendingRow> toInsert = new ArrayList<>(chunk.rows.size());
+        for (PendingRow row : chunk.rows) {
+            if (keys.add(emailKey(row.row.getEmail()))) {
+                emails.add(row.row.getEmail());
+                toInsert.add(row);
+            } else {
+                state.skipped++;
+                skippedCounter.increment();
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (String email : userRepository.findExistingEmails(emails)) {
+            existing.add(emailKey(email));
+        }
+        if (!existing.isEmpty()) {
+            toInsert.removeIf(row -> {
+                if (existing.contains(emailKey(row.row.getEmail()))) {
+                    state.skipped++;
+                    skippedCounter.increment();
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        if (!toInsert.isEmpty()) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(toInsert));
+                state.imported += toInsert.size();
+                importedCounter.increment(toInsert.size());
+            } catch (RuntimeException e) {
+                // 并发导入等原因导致的唯一键冲突会使整个分块回滚
+                logger.warn("User import chunk starting at line {} failed: {}", toInsert.get(0).lineNumber, e.getMessage());
+                for (PendingRow row : toInsert) {
+                    state.fail(row.lineNumber, "写入失败", maxErrors);
+                }
+            } finally {
+                sample.stop(commitTimer);
+            }
+        }
+        listener.onProgress(state.snapshot(false));
+    }
+
+    private void insert(List<PendingRow> rows) {
+        int count = 0;
+        for (PendingRow row : rows) {
+            entityManager.persist(new User(row.row.getEmail(), row.encodedPassword));
+            if (++count % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private Counter rows(String result) {
+        return Counter.builder("user.import.rows")
+                .description("批量导入处理的行数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class PendingRow {
+        private final long lineNumber;
+        private final UserImportRow row;
+        private String encodedPassword;
+
+        private PendingRow(long lineNumber, UserImportRow row) {
+            this.lineNumber = lineNumber;
+            this.row = row;
+        }
+    }
+
+    private static final class Chunk {
+        private final List<PendingRow> rows;
+        private final CompletableFuture<Void> hashing;
+
+        private Chunk(List<PendingRow> rows, CompletableFuture<Void> hashing) {
+            this.rows = rows;
+            this.hashing = hashing;
+        }
+    }
+
+    private final class ImportState {
+        private long processed;
+        private long imported;
+        private long skipped;
+        private long failed;
+        private final List<UserImportProgress.Error> errors = new ArrayList<>();
+
+        private void fail(long lineNumber, String message, int maxErrors) {
+            failed++;
+            failedCounter.increment();
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportProgress.Error(lineNumber, message));
+            }
+        }
+
+        private UserImportProgress snapshot(boolean done) {
+            return new UserImportProgress(processed, imported, skipped, failed, done, done ? errors : null);
+        }
+    }
+
+    /**
+     * CSV列位置，支持双引号包裹与""转义
+     */
+    private static final class CsvColumns {
+        private final boolean header;
+        private final int email;
+        private final int password;
+        private final int passwordHash;
+
+        private CsvColumns(boolean header, int email, int password, int passwordHash) {
+            this.header = header;
+            this.email = email;
+            this.password = password;
+            this.passwordHash = passwordHash;
+        }
+
+        private static CsvColumns detect(String firstLine) {
+            List<String> fields = split(firstLine);
+            int email = -1;
+            int password = -1;
+            int passwordHash = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+                switch (name) {
+                    case "email" -> email = i;
+                    case "password" -> password = i;
+                    case "passwordhash", "password_hash" -> passwordHash = i;
+                    default -> { }
+                }
+            }
+            if (email < 0) {
+                return new CsvColumns(false, 0, 1, -1);
+            }
+            return new CsvColumns(true, email, password, passwordHash);
+        }
+
+        private UserImportRow parse(String line) {
+            List<String> fields = split(line);
+            return new UserImportRow(field(fields, email), field(fields, password), field(fields, passwordHash));
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>(3);
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            current.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("未闭合的引号");
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+}
@@ -1,25 +1,65 @@
 package io.octohub.service;
 
+import io.octohub.dto.UserPage;
+import io.octohub.dto.UserQuery;
+import io.octohub.dto.UserSummary;
 import io.octohub.entity.User;
 import io.octohub.repository.UserRepository;
+import io.octohub.repository.UserSpecifications;
 import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class UserService {
     
+    @Autowired
+    private UserCache userCache;
+    
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private EmailSearchIndex emailSearchIndex;
+    
+    /**
+     * 列表单页最大条数
+     */
+    @Value("${user.list.max-limit:200}")
+    private int maxLimit;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
     /**
      * 获取当前登录用户的信息
+     * 经过用户缓存读取，命中时不开启事务也不获取数据库连接
      * @return 当前用户的User对象
      */
-    @Transactional(readOnly = true)
     public User getUserInfo() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -27,7 +67,7 @@ public class UserService {
         }
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Long userId = userPrincipal.getId();
-        return userRepository.findById(userId)
+        return userCache.getById(userId)
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
     }
     
@@ -36,9 +76,110 @@ public class UserService {
      * @param userId 用户ID
      * @return 用户信息
      */
-    @Transactional(readOnly = true)
     public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.getById(userId)
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
     }
+    
+    /**
+     * 按键集分页查询用户
+     * 使用上一页最后一条记录的(created_at, id)作为游标，查询耗时与翻页深度无关
+     * @param query 查询条件
+     * @param cursor 上一页返回的游标，查询第一页时为空
+     * @param limit 每页条数，超过上限时按上限处理
+     * @return 分页结果
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public UserPage listUsers(UserQuery query, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxLimit));
+        Specification<User> spec = UserSpecifications.matching(query);
+        if (StringUtils.hasText(cursor)) {
+            Cursor position = Cursor.decode(cursor);
+            spec = spec.and(UserSpecifications.after(position.createdAt, position.id));
+        }
+        // 多取一条用于判断是否还有下一页
+        List<User> users = userRepository.findBy(spec, q -> q
+                .sortBy(UserSpecifications.KEYSET_ORDER)
+                .limit(pageSize + 1)
+                .all());
+        
+        boolean hasMore = users.size() > pageSize;
+        List<UserSummary> items = new ArrayList<>(Math.min(users.size(), pageSize));
+        for (int i = 0; i < users.size() && i < pageSize; i++) {
+            items.add(UserSummary.of(users.get(i)));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            UserSummary last = items.get(items.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new UserPage(items, nextCursor);
+    }
+    
+    /**
+     * 按邮箱搜索用户，用于自动补全
+     * 启用内存索引时支持子串匹配（查询词不少于3个字符）；索引未启用或尚未加载完成时退回数据库前缀查询
+     * @param keyword 查询词
+     * @param limit 最大返回条数，超过上限时按上限处理
+     * @return 按邮箱排序的匹配用户
+     * @throws IllegalArgumentException 查询词为空
+     */
+    public List<UserSummary> searchUsers(String keyword, int limit) {
+        if (!StringUtils.hasText(keyword)) {
+            throw new IllegalArgumentException("查询词不能为空");
+        }
+        int size = Math.max(1, Math.min(limit, maxLimit));
+        if (emailSearchIndex.isReady()) {
+            return emailSearchIndex.search(keyword, size);
+        }
+        List<User> users = userRepository.findBy(UserSpecifications.matching(new UserQuery(keyword.trim(), null, null)), q -> q
+                .sortBy(Sort.by("email"))
+                .limit(size)
+                .all());
+        List<UserSummary> results = new ArrayList<>(users.size());
+        for (User user : users) {
+            results.add(UserSummary.of(user));
+        }
+        return results;
+    }
+    
+    /**
+     * 按条件导出用户，在只读事务中通过只进游标逐行回调
+     * @param query 查询条件
+     * @param consumer 逐行回调
+     * @return 导出的行数
+     */
+    public long exportUsers(UserQuery query, Consumer<UserSummary> consumer) {
+        Long count = readOnlyTransaction.execute(status ->
+                userRepository.scanSummaries(UserSpecifications.matching(query), consumer));
+        return count != null ? count : 0L;
+    }
+    
+    /**
+     * 分页游标，编码为Base64URL的"created_at|id"
+     */
+    private static final class Cursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+        
+        private Cursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+        
+        private String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        private static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("游标格式错误", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package io.octohub.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 用户版本戳登记表
+ * 记录每个用户当前已知的最新版本号，用于判断JWT中携带的用户信息是否过期。
+ * 未登记的用户（如服务重启后、条目被淘汰或过期后）一律视为过期，请求回源数据库后再登记。
+ * 登记表只在本实例内有效：其他实例上的用户更新不会通知到这里，
+ * 因此条目在写入ttl-seconds后过期，多实例部署时旧版本令牌最多在这段时间内继续通过无状态认证。
+ */
+@Component
+public class UserVersionRegistry {
+
+    @Value("${user.version-registry.max-size:100000}")
+    private long maxSize;
+
+    @Value("${user.version-registry.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<Long, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * 登记用户版本，只会向更新的版本推进
+     * @param userId 用户ID
+     * @param version 版本号
+     */
+    public void record(Long userId, long version) {
+        versions.asMap().merge(userId, version, Math::max);
+    }
+
+    public void remove(Long userId) {
+        versions.invalidate(userId);
+    }
+
+    /**
+     * 判断令牌中的版本戳是否为当前版本
+     * @param userId 用户ID
+     * @param version 令牌中的版本号
+     * @return 已登记且版本一致时返回true
+     */
+    public boolean isCurrent(Long userId, long version) {
+        Long known = versions.getIfPresent(userId);
+        return known != null && known == version;
+    }
+
+    /**
+     * 判断缓存副本的版本是否已被更新的版本取代
+     * 与isCurrent不同，未登记的用户视为未知：登记该版本后返回false，供本实例的用户缓存使用，
+     * 本实例内的更新与删除另由UserEntityListener直接使缓存失效。
+     * @param userId 用户ID
+     * @param version 缓存副本的版本号
+     * @return 已登记的版本比该版本新时返回true
+     */
+    public boolean isSuperseded(Long userId, long version) {
+        return versions.asMap().merge(userId, version, Math::max) > version;
+    }
+
+    public long size() {
+        return versions.estimatedSize();
+    }
+}
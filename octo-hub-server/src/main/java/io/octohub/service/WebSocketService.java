@@ -1,14 +1,32 @@
 package io.octohub.service;
 
+import io.octohub.dto.NodeConnectionItem;
 import io.octohub.dto.WebSocketConnectionDto;
+import io.octohub.enums.ErrorCode;
+import io.octohub.util.NodeIds;
 import io.octohub.util.WebSocketSignatureUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class WebSocketService {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketService.class);
+
     @Autowired
     private WebSocketSignatureUtils signatureUtils;
 
@@ -21,6 +39,44 @@ public class WebSocketService {
     @Value("${websocket.server.protocol:ws}")
     private String wsProtocol;
 
+    /**
+     * 批量签名时每个任务处理的节点数
+     */
+    @Value("${node.ws.batch.chunk-size:128}")
+    private int batchChunkSize;
+
+    /**
+     * 批量签名线程数，为0时使用CPU核数
+     */
+    @Value("${node.ws.batch.threads:0}")
+    private int batchThreads;
+
+    private String nodeUrlPrefix;
+
+    private ThreadPoolExecutor batchExecutor;
+
+    @PostConstruct
+    public void init() {
+        nodeUrlPrefix = wsProtocol + "://" + wsHost + ":" + wsPort + "/ws/node?pc_id=";
+        int threads = batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors();
+        // 队列满时由请求线程自己签名，形成自然的背压；线程池关闭后拒绝新任务，
+        // 不能使用CallerRunsPolicy：它在关闭后静默丢弃任务，对应的future永远不会完成
+        batchExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16),
+                new CustomizableThreadFactory("ws-sign-"),
+                (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("签名线程池已关闭");
+                    }
+                    task.run();
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdown();
+    }
+
     /**
      * 生成用户WebSocket连接地址
      * @param userId 用户ID
@@ -28,7 +84,7 @@ public class WebSocketService {
      */
     public WebSocketConnectionDto generateUserConnectionUrl(String userId) {
         String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
-        String signature = signatureUtils.generateSignature(userId, timestamp);
+        String signature = signatureUtils.generateSignature(WebSocketSignatureUtils.CLIENT_USER, userId, timestamp);
         
         String wsUrl = String.format("%s://%s:%s/ws/user?user_id=%s&timestamp=%s&signature=%s",
                 wsProtocol, wsHost, wsPort, userId, timestamp, signature);
@@ -40,25 +96,76 @@ public class WebSocketService {
      * 生成Node节点WebSocket连接地址
      * @param pcId Node节点ID
      * @return WebSocket连接信息
+     * @throws IllegalArgumentException 节点ID格式错误
      */
     public WebSocketConnectionDto generateNodeConnectionUrl(String pcId) {
+        if (!NodeIds.isValid(pcId)) {
+            throw new IllegalArgumentException("节点ID格式错误");
+        }
         String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
-        String signature = signatureUtils.generateSignature(pcId, timestamp);
-        
-        String wsUrl = String.format("%s://%s:%s/ws/node?pc_id=%s&timestamp=%s&signature=%s",
-                wsProtocol, wsHost, wsPort, pcId, timestamp, signature);
-        
-        return new WebSocketConnectionDto(wsUrl);
+        return new WebSocketConnectionDto(buildNodeConnectionUrl(pcId, timestamp));
+    }
+
+    /**
+     * 批量生成Node节点WebSocket连接地址
+     * 节点按chunk-size分块后并行签名，同一批次共用一个时间戳。
+     * 返回的分块结果与输入顺序一致，调用方可以按顺序逐块输出；单个节点失败不影响其他节点。
+     * 服务停机、线程池已关闭时，未能提交的分块以RejectedExecutionException异常完成。
+     * @param pcIds Node节点ID列表
+     * @return 按输入顺序排列的分块结果
+     */
+    public List<CompletableFuture<List<NodeConnectionItem>>> generateNodeConnectionUrls(List<String> pcIds) {
+        String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        int chunkSize = Math.max(1, batchChunkSize);
+        List<CompletableFuture<List<NodeConnectionItem>>> chunks = new ArrayList<>((pcIds.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < pcIds.size(); from += chunkSize) {
+            List<String> chunk = pcIds.subList(from, Math.min(from + chunkSize, pcIds.size()));
+            CompletableFuture<List<NodeConnectionItem>> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> signChunk(chunk, timestamp), batchExecutor);
+            } catch (RejectedExecutionException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            chunks.add(future);
+        }
+        return chunks;
     }
 
     /**
      * 验证WebSocket连接签名
+     * @param clientType 连接类型，WebSocketSignatureUtils.CLIENT_USER或CLIENT_NODE
      * @param id 用户ID或PC ID
      * @param timestamp 时间戳
      * @param signature 签名
      * @return 验证结果
      */
-    public boolean validateConnectionSignature(String id, String timestamp, String signature) {
-        return signatureUtils.validateSignature(id, timestamp, signature);
+    public boolean validateConnectionSignature(String clientType, String id, String timestamp, String signature) {
+        return signatureUtils.validateSignature(clientType, id, timestamp, signature);
+    }
+
+    private List<NodeConnectionItem> signChunk(List<String> pcIds, String timestamp) {
+        List<NodeConnectionItem> items = new ArrayList<>(pcIds.size());
+        for (String pcId : pcIds) {
+            if (!NodeIds.isValid(pcId)) {
+                items.add(NodeConnectionItem.error(pcId, ErrorCode.PARAM_INVALID, "节点ID格式错误"));
+                continue;
+            }
+            try {
+                items.add(NodeConnectionItem.success(pcId, buildNodeConnectionUrl(pcId, timestamp)));
+            } catch (Exception e) {
+                logger.warn("Failed to sign connection url for node {}: {}", pcId, e.getMessage());
+                items.add(NodeConnectionItem.error(pcId, ErrorCode.SYSTEM_ERROR, "生成WebSocket连接地址失败"));
+            }
+        }
+        return items;
+    }
+
+    private String buildNodeConnectionUrl(String pcId, String timestamp) {
+        String signature = signatureUtils.generateSignature(WebSocketSignatureUtils.CLIENT_NODE, pcId, timestamp);
+        return new StringBuilder(nodeUrlPrefix.length() + pcId.length() + timestamp.length() + signature.length() + 22)
+                .append(nodeUrlPrefix).append(pcId)
+                .append("&timestamp=").append(timestamp)
+                .append("&signature=").append(signature)
+                .toString();
     }
 }
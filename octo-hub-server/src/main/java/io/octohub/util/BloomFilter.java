@@ -0,0 +1,101 @@
+package io.octohub.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 字符串布隆过滤器
+ * 位数组使用AtomicLongArray，写入通过CAS置位，查询无锁；
+ * 判定不存在时一定不存在，判定存在时需要由精确集合确认。
+ * 不支持删除，元素过期后通过重建新过滤器的方式清理。
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        // 位数取64的整数倍
+        int words = (int) Math.max(1, (bitCount + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * 按预期元素数与误判率创建过滤器
+     * @param expectedEntries 预期元素数
+     * @param falsePositiveRate 期望误判率，取值(0, 1)
+     */
+    public static BloomFilter create(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int k = Math.max(1, (int) Math.round((double) m / n * ln2));
+        return new BloomFilter(m, k);
+    }
+
+    public void put(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 位数组占用的字节数
+     */
+    public long sizeInBytes() {
+        return bitCount >>> 3;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private long index(int combined) {
+        // 双重哈希可能为负数，先取反再取模
+        return (combined < 0 ? ~combined : combined) % bitCount;
+    }
+
+    /**
+     * 对字符串做64位混合，高低32位作为两个独立的哈希值
+     */
+    private static long hash64(String value) {
+        long h = 0x9E3779B97F4A7C15L;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        // MurmurHash3 fmix64
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
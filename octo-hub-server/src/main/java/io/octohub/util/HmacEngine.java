@@ -0,0 +1,274 @@
+package io.octohub.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * HMAC-SHA256签名引擎
+ * SignatureUtils与WebSocketSignatureUtils共用，减少每次签名的对象分配：
+ * 每个线程持有一个已初始化的Mac实例，待签名内容直接写入线程内复用的字节缓冲区，
+ * 十六进制与Base64编码均查表完成，校验时使用恒定时间比较。
+ */
+public final class HmacEngine {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    /**
+     * HMAC-SHA256输出长度
+     */
+    private static final int MAC_LENGTH = 32;
+
+    private static final byte[] HEX_TABLE = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BASE64_TABLE =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec keySpec;
+
+    private final ThreadLocal<Mac> macs;
+
+    private final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+
+    public HmacEngine(String secretKey) {
+        this.keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+        // 启动时校验一次密钥，避免在请求线程中才暴露配置错误
+        newMac();
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * 获取当前线程的待签名缓冲区，内容已清空
+     * 返回的缓冲区只能在当前线程、下一次调用buffer()之前使用
+     */
+    public Buffer buffer() {
+        Buffer buffer = scratches.get().buffer;
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * 计算签名并以小写十六进制返回
+     */
+    public String signHex(Buffer buffer) {
+        Scratch scratch = scratches.get();
+        int length = encodeHex(doFinal(buffer, scratch), scratch.encoded);
+        return new String(scratch.encoded, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 计算签名并以标准Base64返回
+     */
+    public String signBase64(Buffer buffer) {
+        Scratch scratch = scratches.get();
+        int length = encodeBase64(doFinal(buffer, scratch), scratch.encoded);
+        return new String(scratch.encoded, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 恒定时间校验十六进制签名
+     */
+    public boolean verifyHex(Buffer buffer, String signature) {
+        Scratch scratch = scratches.get();
+        int length = encodeHex(doFinal(buffer, scratch), scratch.encoded);
+        return constantTimeEquals(scratch.encoded, length, signature);
+    }
+
+    /**
+     * 恒定时间校验Base64签名
+     */
+    public boolean verifyBase64(Buffer buffer, String signature) {
+        Scratch scratch = scratches.get();
+        int length = encodeBase64(doFinal(buffer, scratch), scratch.encoded);
+        return constantTimeEquals(scratch.encoded, length, signature);
+    }
+
+    private byte[] doFinal(Buffer buffer, Scratch scratch) {
+        Mac mac = macs.get();
+        try {
+            mac.update(buffer.bytes, 0, buffer.length);
+            mac.doFinal(scratch.mac, 0);
+            return scratch.mac;
+        } catch (GeneralSecurityException e) {
+            mac.reset();
+            throw new IllegalStateException("签名计算失败", e);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(keySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("签名引擎初始化失败", e);
+        }
+    }
+
+    static int encodeHex(byte[] src, byte[] dst) {
+        int j = 0;
+        for (byte b : src) {
+            dst[j++] = HEX_TABLE[(b >> 4) & 0x0f];
+            dst[j++] = HEX_TABLE[b & 0x0f];
+        }
+        return j;
+    }
+
+    static int encodeBase64(byte[] src, byte[] dst) {
+        int j = 0;
+        int i = 0;
+        int full = src.length - src.length % 3;
+        while (i < full) {
+            int bits = (src[i++] & 0xff) << 16 | (src[i++] & 0xff) << 8 | (src[i++] & 0xff);
+            dst[j++] = BASE64_TABLE[(bits >>> 18) & 0x3f];
+            dst[j++] = BASE64_TABLE[(bits >>> 12) & 0x3f];
+            dst[j++] = BASE64_TABLE[(bits >>> 6) & 0x3f];
+            dst[j++] = BASE64_TABLE[bits & 0x3f];
+        }
+        int remaining = src.length - full;
+        if (remaining > 0) {
+            int bits = (src[i] & 0xff) << 16 | (remaining == 2 ? (src[i + 1] & 0xff) << 8 : 0);
+            dst[j++] = BASE64_TABLE[(bits >>> 18) & 0x3f];
+            dst[j++] = BASE64_TABLE[(bits >>> 12) & 0x3f];
+            dst[j++] = remaining == 2 ? BASE64_TABLE[(bits >>> 6) & 0x3f] : (byte) '=';
+            dst[j++] = '=';
+        }
+        return j;
+    }
+
+    /**
+     * 恒定时间比较，耗时只与期望签名的长度有关
+     */
+    static boolean constantTimeEquals(byte[] expected, int length, String actual) {
+        if (actual == null) {
+            return false;
+        }
+        int actualLength = actual.length();
+        int diff = length ^ actualLength;
+        for (int i = 0; i < length; i++) {
+            int c = i < actualLength ? actual.charAt(i) : 0;
+            diff |= (expected[i] & 0xff) ^ c;
+        }
+        return diff == 0;
+    }
+
+    /**
+     * 线程内复用的临时空间
+     */
+    private static final class Scratch {
+        private final Buffer buffer = new Buffer();
+        private final byte[] mac = new byte[MAC_LENGTH];
+        // 十六进制编码长度大于Base64编码长度
+        private final byte[] encoded = new byte[MAC_LENGTH * 2];
+    }
+
+    /**
+     * 待签名内容缓冲区，字符串按UTF-8直接写入，不产生中间字符串
+     */
+    public static final class Buffer {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        /**
+         * 超过该大小的缓冲区在复用前收缩，避免偶发的超长参数长期占用线程内存
+         */
+        private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+        private int length;
+
+        private Buffer() {}
+
+        public Buffer append(String value) {
+            if (value == null) {
+                return append("null");
+            }
+            int count = value.length();
+            ensureCapacity(length + count);
+            for (int i = 0; i < count; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else {
+                    return appendUtf8(value, i);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 追加字符串的大写形式，仅转换ASCII字母（用于HTTP方法）
+         */
+        public Buffer appendUpperAscii(String value) {
+            int count = value.length();
+            ensureCapacity(length + count);
+            for (int i = 0; i < count; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    return append(value.substring(i).toUpperCase());
+                }
+                bytes[length++] = (byte) (c >= 'a' && c <= 'z' ? c - 32 : c);
+            }
+            return this;
+        }
+
+        public Buffer append(char c) {
+            if (c >= 0x80) {
+                return append(String.valueOf(c));
+            }
+            ensureCapacity(length + 1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        private void reset() {
+            if (bytes.length > MAX_RETAINED_CAPACITY) {
+                bytes = new byte[INITIAL_CAPACITY];
+            }
+            length = 0;
+        }
+
+        private Buffer appendUtf8(String value, int from) {
+            int count = value.length();
+            // UTF-8每个UTF-16单元最多3字节
+            ensureCapacity(length + (count - from) * 3);
+            for (int i = from; i < count; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xc0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xf0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    // 与String.getBytes(UTF_8)一致，孤立代理项替换为'?'
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xe0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                byte[] grown = new byte[Math.max(capacity, bytes.length * 2)];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+        }
+    }
+}
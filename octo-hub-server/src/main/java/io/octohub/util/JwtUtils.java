@@ -2,69 +2,165 @@ package io.octohub.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.octohub.enums.JwtFailureReason;
+import io.octohub.metrics.Stage;
+import io.octohub.metrics.StageMetrics;
+import io.octohub.service.UserDetailsServiceImpl.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
     
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+    
+    /**
+     * 用户邮箱声明
+     */
+    public static final String CLAIM_EMAIL = "email";
+    
+    /**
+     * 用户权限声明
+     */
+    public static final String CLAIM_AUTHORITIES = "auth";
+    
+    /**
+     * 用户版本戳声明
+     */
+    public static final String CLAIM_VERSION = "ver";
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    /**
+     * 签名密钥与解析器在启动时构建一次，二者均为线程安全
+     */
+    private SecretKey signingKey;
+    
+    private JwtParser jwtParser;
+    
+    @Autowired(required = false)
+    private StageMetrics stageMetrics = StageMetrics.NOOP;
+    
+    public void setJwtSecret(String jwtSecret) {
+        this.jwtSecret = jwtSecret;
     }
     
-    public String generateJwtToken(Long id) {
-        return generateTokenFromId(id);
+    public void setJwtExpirationMs(int jwtExpirationMs) {
+        this.jwtExpirationMs = jwtExpirationMs;
     }
     
-    public String generateTokenFromId(Long id) {
-        return Jwts.builder()
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+    
+    public String generateJwtToken(UserPrincipal principal) {
+        return generateTokenFromId(
+                principal.getId(),
+                principal.getUsername(),
+                AuthorityUtils.authorityListToSet(principal.getAuthorities()),
+                principal.getVersion());
+    }
+    
+    /**
+     * 生成携带用户信息的JWT，认证时可直接由声明构建用户主体
+     * 每个令牌带有唯一的jti，用于注销时吊销单个令牌
+     * @param id 用户ID
+     * @param email 用户邮箱
+     * @param authorities 权限列表
+     * @param version 用户版本戳
+     * @return JWT字符串
+     */
+    public String generateTokenFromId(Long id, String email, Collection<String> authorities, long version) {
+        long start = stageMetrics.start();
+        Date now = new Date();
+        String token = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(id.toString())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .claim(CLAIM_EMAIL, email)
+                .claim(CLAIM_AUTHORITIES, authorities)
+                .claim(CLAIM_VERSION, version)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
+        stageMetrics.stop(Stage.JWT_SIGN, start);
+        return token;
     }
     
-    public Long getIdFromJwtToken(String token) {
-        String subject = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-        return Long.parseLong(subject);
+    /**
+     * 单次解析并校验JWT
+     * 签名、过期时间与主题一次性校验完成，失败时返回具体原因而不是抛出异常
+     * @param token JWT字符串
+     * @return 校验结果
+     */
+    public JwtVerification verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            return JwtVerification.failure(JwtFailureReason.EMPTY);
+        }
+        long start = stageMetrics.start();
+        try {
+            return parse(token);
+        } finally {
+            stageMetrics.stop(Stage.JWT_PARSE, start);
+        }
     }
     
-    public boolean validateJwtToken(String authToken) {
+    private JwtVerification parse(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            return JwtVerification.success(
+                    Long.parseLong(claims.getSubject()),
+                    expiration != null ? expiration.getTime() : 0L,
+                    claims);
         } catch (io.jsonwebtoken.security.SignatureException e) {
-            System.err.println("JWT signature validation failed: " + e.getMessage());
-            System.err.println("JWT Secret length: " + jwtSecret.length());
-            System.err.println("Token preview: " + (authToken.length() > 50 ? authToken.substring(0, 50) + "..." : authToken));
-        } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
+            return JwtVerification.failure(JwtFailureReason.INVALID_SIGNATURE);
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
+            return JwtVerification.failure(JwtFailureReason.EXPIRED);
+        } catch (MalformedJwtException e) {
+            return JwtVerification.failure(JwtFailureReason.MALFORMED);
         } catch (UnsupportedJwtException e) {
-            System.err.println("JWT token is unsupported: " + e.getMessage());
+            return JwtVerification.failure(JwtFailureReason.UNSUPPORTED);
+        } catch (NumberFormatException e) {
+            return JwtVerification.failure(JwtFailureReason.INVALID_SUBJECT);
         } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Unexpected JWT validation error: " + e.getMessage());
-            e.printStackTrace();
+            return JwtVerification.failure(JwtFailureReason.EMPTY);
+        } catch (JwtException e) {
+            return JwtVerification.failure(JwtFailureReason.MALFORMED);
+        }
+    }
+    
+    public Long getIdFromJwtToken(String token) {
+        return Long.parseLong(getClaimsFromJwtToken(token).getSubject());
+    }
+    
+    public Claims getClaimsFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+    
+    public boolean validateJwtToken(String authToken) {
+        JwtVerification verification = verify(authToken);
+        if (!verification.isValid()) {
+            logger.debug("JWT validation failed: {}", verification.getFailureReason());
         }
-        
-        return false;
+        return verification.isValid();
     }
-} 
\ No newline at end of file
+} 
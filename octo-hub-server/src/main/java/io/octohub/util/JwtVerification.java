@@ -0,0 +1,66 @@
+package io.octohub.util;
+
+import io.jsonwebtoken.Claims;
+import io.octohub.enums.JwtFailureReason;
+
+/**
+ * JWT单次校验结果
+ * 成功时携带用户ID、过期时间与声明，失败时携带失败原因
+ */
+public final class JwtVerification {
+    
+    private final Long userId;
+    private final long expiresAtMillis;
+    private final Claims claims;
+    private final JwtFailureReason failureReason;
+    
+    private JwtVerification(Long userId, long expiresAtMillis, Claims claims, JwtFailureReason failureReason) {
+        this.userId = userId;
+        this.expiresAtMillis = expiresAtMillis;
+        this.claims = claims;
+        this.failureReason = failureReason;
+    }
+    
+    public static JwtVerification success(Long userId, long expiresAtMillis, Claims claims) {
+        return new JwtVerification(userId, expiresAtMillis, claims, null);
+    }
+    
+    public static JwtVerification failure(JwtFailureReason failureReason) {
+        return new JwtVerification(null, 0L, null, failureReason);
+    }
+    
+    public boolean isValid() {
+        return failureReason == null;
+    }
+    
+    /**
+     * 令牌主题，即用户ID
+     */
+    public Long getUserId() {
+        return userId;
+    }
+    
+    /**
+     * 过期时间（毫秒时间戳），令牌未设置exp时为0
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+    
+    public Claims getClaims() {
+        return claims;
+    }
+    
+    public JwtFailureReason getFailureReason() {
+        return failureReason;
+    }
+    
+    @Override
+    public String toString() {
+        return "JwtVerification{" +
+                "userId=" + userId +
+                ", expiresAtMillis=" + expiresAtMillis +
+                ", failureReason=" + failureReason +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package io.octohub.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * 节点ID校验
+ * 节点ID会直接拼接在连接地址、日志与任务日志中，心跳、连接地址生成与结果上报统一使用这里的规则。
+ */
+public final class NodeIds {
+
+    /**
+     * 只允许URL安全字符，最长128个字符
+     */
+    private static final Pattern PATTERN = Pattern.compile("[A-Za-z0-9_.:-]{1,128}");
+
+    private NodeIds() {}
+
+    public static boolean isValid(String pcId) {
+        return pcId != null && PATTERN.matcher(pcId).matches();
+    }
+}
@@ -1,28 +1,31 @@
 package io.octohub.util;
 
+import io.octohub.metrics.Stage;
+import io.octohub.metrics.StageMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.TreeMap;
 
 @Component
 public class SignatureUtils {
-    
-    private static final String HMAC_SHA256 = "HmacSHA256";
 
-    @Value("${signature.secret.key}")
-    private String secretKey; // 实际使用时应该从配置文件读取
+    /**
+     * 请求时间戳允许的偏差（秒）
+     */
+    public static final long TIMESTAMP_TOLERANCE_SECONDS = 300;
+
+    private HmacEngine hmacEngine;
 
+    @Autowired(required = false)
+    private StageMetrics stageMetrics = StageMetrics.NOOP;
+
+    @Value("${signature.secret.key}")
     public void setSecretKey(String secretKey) {
-        this.secretKey = secretKey;
+        this.hmacEngine = new HmacEngine(secretKey);
     }
     
     /**
@@ -36,19 +39,10 @@ public class SignatureUtils {
      */
     public String generateSignature(String method, String uri, Map<String, String> params, 
                                   String timestamp, String nonce) {
-        // 构建签名字符串
-        String signString = buildSignString(method, uri, params, timestamp, nonce);
-        
-        try {
-            Mac mac = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
-            mac.init(secretKeySpec);
-            
-            byte[] hash = mac.doFinal(signString.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new RuntimeException("签名生成失败", e);
-        }
+        long start = stageMetrics.start();
+        String signature = hmacEngine.signBase64(buildSignString(method, uri, params, timestamp, nonce));
+        stageMetrics.stop(Stage.SIGNATURE_SIGN, start);
+        return signature;
     }
     
     /**
@@ -70,46 +64,52 @@ public class SignatureUtils {
         // 检查时间戳，防止重放攻击（5分钟内有效）
         long currentTime = System.currentTimeMillis() / 1000;
         long requestTime = Long.parseLong(timestamp);
-        if (Math.abs(currentTime - requestTime) > 300) { // 5分钟
+        if (Math.abs(currentTime - requestTime) > TIMESTAMP_TOLERANCE_SECONDS) { // 5分钟
             return false;
         }
         
-        String expectedSignature = generateSignature(method, uri, params, timestamp, nonce);
-        return signature.equals(expectedSignature);
+        long start = stageMetrics.start();
+        boolean valid = hmacEngine.verifyBase64(buildSignString(method, uri, params, timestamp, nonce), signature);
+        stageMetrics.stop(Stage.SIGNATURE_VERIFY, start);
+        return valid;
     }
     
     /**
-     * 构建签名字符串
+     * 构建签名字符串，直接写入签名引擎的线程内缓冲区
      * 格式: METHOD&URI&PARAMS&TIMESTAMP&NONCE
      */
-    private String buildSignString(String method, String uri, Map<String, String> params, 
+    private HmacEngine.Buffer buildSignString(String method, String uri, Map<String, String> params, 
                                  String timestamp, String nonce) {
-        StringBuilder sb = new StringBuilder();
+        HmacEngine.Buffer buffer = hmacEngine.buffer();
         
         // HTTP方法
-        sb.append(method.toUpperCase()).append("&");
+        buffer.appendUpperAscii(method).append('&');
         
         // URI
-        sb.append(uri).append("&");
+        buffer.append(uri).append('&');
         
         // 参数按key排序后拼接
         if (params != null && !params.isEmpty()) {
-            TreeMap<String, String> sortedParams = new TreeMap<>(params);
-            for (Map.Entry<String, String> entry : sortedParams.entrySet()) {
-                sb.append(entry.getKey()).append("=").append(entry.getValue()).append("&");
+            String[] keys = params.keySet().toArray(new String[0]);
+            if (keys.length > 1) {
+                Arrays.sort(keys);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                if (i > 0) {
+                    buffer.append('&');
+                }
+                buffer.append(keys[i]).append('=').append(params.get(keys[i]));
             }
-            // 移除最后一个&
-            sb.deleteCharAt(sb.length() - 1);
         }
         
-        sb.append("&");
+        buffer.append('&');
         
         // 时间戳
-        sb.append(timestamp).append("&");
+        buffer.append(timestamp).append('&');
         
         // 随机数
-        sb.append(nonce);
+        buffer.append(nonce);
         
-        return sb.toString();
+        return buffer;
     }
 }
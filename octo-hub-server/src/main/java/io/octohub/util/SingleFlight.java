@@ -0,0 +1,87 @@
+package io.octohub.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 并发加载合并
+ * 同一个键同时只有一个加载在执行，其余调用方等待并共享该次加载的结果（包括异常）。
+ * 加载完成后立即移除，不缓存结果，需要缓存时与缓存组合使用。
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * 执行加载，同一个键已有加载在执行时等待其结果
+     * @param key 键
+     * @param loader 加载函数，在首个调用方的线程中执行
+     * @return 加载结果
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            deduplicated.increment();
+            return await(existing);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 实际执行的加载次数
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * 被合并、未实际执行的加载次数
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * 当前正在执行的加载数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // 与首个调用方抛出相同的异常
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,74 +1,79 @@
 package io.octohub.util;
 
+import io.octohub.metrics.Stage;
+import io.octohub.metrics.StageMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-
 @Component
 public class WebSocketSignatureUtils {
-    
-    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    /**
+     * 用户连接（/ws/user）的签名类型
+     */
+    public static final String CLIENT_USER = "user";
+
+    /**
+     * 节点连接（/ws/node）的签名类型
+     */
+    public static final String CLIENT_NODE = "node";
+
+    private HmacEngine hmacEngine;
+
+    @Autowired(required = false)
+    private StageMetrics stageMetrics = StageMetrics.NOOP;
 
     @Value("${websocket.signature.secret.key:your-secret-key-here}")
-    private String secretKey;
+    public void setSecretKey(String secretKey) {
+        this.hmacEngine = new HmacEngine(secretKey);
+    }
 
     /**
      * 生成WebSocket连接签名
+     * @param clientType 连接类型，CLIENT_USER或CLIENT_NODE
      * @param id 用户ID或PC ID
      * @param timestamp 时间戳
      * @return 签名字符串 (hex编码)
      */
-    public String generateSignature(String id, String timestamp) {
-        String message = id + timestamp;
-        
-        try {
-            Mac mac = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
-            mac.init(secretKeySpec);
-            
-            byte[] hash = mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(hash);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new RuntimeException("WebSocket签名生成失败", e);
-        }
+    public String generateSignature(String clientType, String id, String timestamp) {
+        long start = stageMetrics.start();
+        String signature = hmacEngine.signHex(buildMessage(clientType, id, timestamp));
+        stageMetrics.stop(Stage.WS_SIGNATURE_SIGN, start);
+        return signature;
     }
 
     /**
      * 验证WebSocket签名
+     * @param clientType 连接类型，CLIENT_USER或CLIENT_NODE
      * @param id 用户ID或PC ID
      * @param timestamp 时间戳
      * @param signature 签名
      * @return 验证结果
      */
-    public boolean validateSignature(String id, String timestamp, String signature) {
+    public boolean validateSignature(String clientType, String id, String timestamp, String signature) {
         try {
-            // 检查时间戳，防止重放攻击（5分钟内有效）
+            // 检查时间戳，防止重放攻击，允许的偏差与API签名一致
             long currentTime = System.currentTimeMillis() / 1000;
             long requestTime = Long.parseLong(timestamp);
-            if (Math.abs(currentTime - requestTime) > 300) { // 5分钟
+            if (Math.abs(currentTime - requestTime) > SignatureUtils.TIMESTAMP_TOLERANCE_SECONDS) {
                 return false;
             }
             
-            String expectedSignature = generateSignature(id, timestamp);
-            return signature.equals(expectedSignature);
+            long start = stageMetrics.start();
+            boolean valid = hmacEngine.verifyHex(buildMessage(clientType, id, timestamp), signature);
+            stageMetrics.stop(Stage.WS_SIGNATURE_VERIFY, start);
+            return valid;
         } catch (Exception e) {
             return false;
         }
     }
 
     /**
-     * 字节数组转十六进制字符串
+     * 构建签名内容: TYPE + ":" + ID + TIMESTAMP
+     * 签名绑定连接类型，用户连接地址不能用于以相同ID冒充节点，反之亦然
      */
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
-        }
-        return result.toString();
+    private HmacEngine.Buffer buildMessage(String clientType, String id, String timestamp) {
+        return hmacEngine.buffer().append(clientType).append(':').append(id).append(timestamp);
     }
 }
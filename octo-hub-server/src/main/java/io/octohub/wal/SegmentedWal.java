@@ -0,0 +1,587 @@
+package io.octohub.wal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 分段的内存映射预写日志
+ * 日志由多个固定大小的段文件组成，文件名为段内第一条记录的序号；段文件预先按固定大小创建并映射到内存，
+ * 追加记录只是在映射区域内复制字节，不经过系统调用。写满后切换到新段。
+ *
+ * 记录格式：[长度 int][CRC32C int][序号 long][类型 byte][内容]，长度与CRC覆盖序号、类型和内容，
+ * 长度为0表示段内已写区域结束。打开时按顺序回放所有段，遇到CRC不符、序号不连续等不完整的记录即视为日志末尾，
+ * 并清零该位置之后的内容，删除其后的段。
+ *
+ * 持久化采用组提交：需要确认落盘的调用方登记目标序号后等待，刷盘线程等待一个提交窗口收集更多请求，
+ * 再对所有未刷盘的区间执行一次msync，一次刷盘确认窗口内的全部记录。
+ * 关闭fsync时写入映射区域即返回，数据在进程崩溃后仍由操作系统写回，但不保证掉电安全。
+ * 刷盘失败后日志进入失败状态：刷盘线程退出，之后的append与awaitDurable都抛出异常，需要重启后从磁盘恢复。
+ *
+ * 线程安全：append、awaitDurable、deleteBefore可以并发调用。
+ */
+public class SegmentedWal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedWal.class);
+
+    /**
+     * 长度与CRC
+     */
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * 序号与类型
+     */
+    private static final int META_BYTES = 9;
+
+    private static final String SUFFIX = ".wal";
+
+    /**
+     * 创建中的段文件，预分配完成后原子重命名为正式段文件
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * 回放时逐条处理记录
+     */
+    public interface RecordHandler {
+
+        /**
+         * @param seq 记录序号
+         * @param type 记录类型
+         * @param payload 记录内容，只读，只在回调内有效
+         */
+        void handle(long seq, byte type, ByteBuffer payload);
+    }
+
+    private final Path dir;
+
+    private final int segmentBytes;
+
+    private final boolean fsync;
+
+    private final long groupCommitNanos;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final CRC32C crc = new CRC32C();
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private Segment head;
+
+    private long nextSeq = 1;
+
+    private final Object syncMonitor = new Object();
+
+    private volatile long durableSeq;
+
+    /**
+     * 调用方等待落盘的最大序号，由syncMonitor保护
+     */
+    private long requestedSeq;
+
+    private volatile IOException syncFailure;
+
+    private volatile boolean closed;
+
+    private Thread syncThread;
+
+    private long syncCount;
+
+    private SegmentedWal(Path dir, int segmentBytes, boolean fsync, long groupCommitNanos) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.groupCommitNanos = groupCommitNanos;
+    }
+
+    /**
+     * 打开日志目录，回放已有记录后即可追加
+     * @param dir 日志目录，不存在时创建
+     * @param segmentBytes 段文件大小
+     * @param fsync 是否在awaitDurable中等待msync
+     * @param groupCommitNanos 组提交窗口，刷盘线程收到第一个请求后等待该时间再刷盘
+     * @param handler 回放回调，按序号顺序调用
+     */
+    public static SegmentedWal open(Path dir, int segmentBytes, boolean fsync, long groupCommitNanos,
+                                    RecordHandler handler) throws IOException {
+        SegmentedWal wal = new SegmentedWal(dir, segmentBytes, fsync, groupCommitNanos);
+        wal.recover(handler);
+        if (fsync) {
+            wal.syncThread = new Thread(wal::syncLoop, "wal-sync-" + dir.getFileName());
+            wal.syncThread.setDaemon(true);
+            wal.syncThread.start();
+        }
+        return wal;
+    }
+
+    /**
+     * 追加一条记录，返回时记录已写入映射区域，但不一定已落盘
+     * @return 记录序号
+     * @throws UncheckedIOException 日志已因刷盘失败停止写入，或创建新段失败
+     */
+    public long append(byte type, byte[] payload) {
+        int size = META_BYTES + payload.length;
+        if (HEADER_BYTES + size > segmentBytes) {
+            throw new IllegalArgumentException("记录大小" + payload.length + "超过段文件大小");
+        }
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("日志已关闭");
+            }
+            IOException failure = syncFailure;
+            if (failure != null) {
+                throw new UncheckedIOException("日志刷盘失败，已停止写入", failure);
+            }
+            if (head.position + HEADER_BYTES + size > head.capacity) {
+                roll();
+            }
+            long seq = nextSeq++;
+            MappedByteBuffer buffer = head.buffer;
+            int position = head.position;
+            buffer.putLong(position + HEADER_BYTES, seq);
+            buffer.put(position + HEADER_BYTES + 8, type);
+            buffer.put(position + HEADER_BYTES + META_BYTES, payload);
+            crc.reset();
+            crc.update(buffer.slice(position + HEADER_BYTES, size));
+            buffer.putInt(position + 4, (int) crc.getValue());
+            // 长度最后写入，记录完整后才对回放可见
+            buffer.putInt(position, size);
+            head.position = position + HEADER_BYTES + size;
+            head.lastSeq = seq;
+            return seq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 等待序号不大于seq的记录全部落盘，关闭fsync时立即返回
+     * @throws IOException 刷盘失败，或日志已关闭
+     */
+    public void awaitDurable(long seq) throws IOException, InterruptedException {
+        if (!fsync || seq <= durableSeq) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            if (seq > requestedSeq) {
+                requestedSeq = seq;
+                syncMonitor.notifyAll();
+            }
+            while (durableSeq < seq) {
+                if (syncFailure != null) {
+                    throw syncFailure;
+                }
+                if (closed) {
+                    throw new IOException("日志已关闭");
+                }
+                syncMonitor.wait();
+            }
+        }
+    }
+
+    /**
+     * 删除所有记录序号都小于seq的已写满段
+     * @return 删除的段数
+     */
+    public int deleteBefore(long seq) throws IOException {
+        List<Segment> removed = new ArrayList<>();
+        appendLock.lock();
+        try {
+            while (segments.size() > 1) {
+                Segment first = segments.peekFirst();
+                if (first == head || first.lastSeq >= seq || (fsync && first.syncedPosition < first.position)) {
+                    break;
+                }
+                segments.pollFirst();
+                removed.add(first);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        for (Segment segment : removed) {
+            segment.release();
+            Files.deleteIfExists(segment.path);
+        }
+        return removed.size();
+    }
+
+    /**
+     * 下一条记录的序号
+     */
+    public long nextSeq() {
+        appendLock.lock();
+        try {
+            return nextSeq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 第一个段中最后一条记录的序号，段为空时为其起始序号减1
+     */
+    public long firstSegmentLastSeq() {
+        appendLock.lock();
+        try {
+            return segments.peekFirst().lastSeq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public int segmentCount() {
+        appendLock.lock();
+        try {
+            return segments.size();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 刷盘失败的原因，正常时为null
+     */
+    public IOException failure() {
+        return syncFailure;
+    }
+
+    /**
+     * 已确认落盘的最大序号
+     */
+    public long durableSeq() {
+        return durableSeq;
+    }
+
+    /**
+     * 累计刷盘次数
+     */
+    public long syncCount() {
+        synchronized (syncMonitor) {
+            return syncCount;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (syncThread != null) {
+            synchronized (syncMonitor) {
+                syncMonitor.notifyAll();
+            }
+            try {
+                syncThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        appendLock.lock();
+        try {
+            if (fsync) {
+                for (Segment segment : segments) {
+                    segment.forceRemaining();
+                }
+            }
+            for (Segment segment : segments) {
+                segment.release();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void recover(RecordHandler handler) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files = new ArrayList<>();
+        List<Path> temps = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(dir)) {
+            stream.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    files.add(path);
+                } else if (name.endsWith(SUFFIX + TEMP_SUFFIX)) {
+                    temps.add(path);
+                }
+            });
+        }
+        // 创建段时崩溃留下的临时文件不含记录
+        deleteAll(temps);
+        files.sort((a, b) -> Long.compare(baseSeqOf(a), baseSeqOf(b)));
+
+        long expected = -1;
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            long base = baseSeqOf(path);
+            if (expected >= 0 && base != expected) {
+                logger.warn("WAL segment {} does not continue from seq {}, discarding it and later segments", path, expected);
+                deleteAll(files.subList(i, files.size()));
+                break;
+            }
+            expected = base;
+            long fileBytes = Files.size(path);
+            if (fileBytes < HEADER_BYTES + META_BYTES) {
+                // 旧版本直接创建段文件，预分配前崩溃会留下放不下任何记录的段，之后切换到同名新段时会失败
+                logger.warn("WAL segment {} is only {} bytes, discarding it and later segments", path, fileBytes);
+                deleteAll(files.subList(i, files.size()));
+                break;
+            }
+            Segment segment = Segment.open(path, base, (int) fileBytes);
+            MappedByteBuffer buffer = segment.buffer;
+            int position = 0;
+            boolean clean = true;
+            while (position + HEADER_BYTES + META_BYTES <= segment.capacity) {
+                int size = buffer.getInt(position);
+                if (size == 0) {
+                    break;
+                }
+                if (size < META_BYTES || position + HEADER_BYTES + size > segment.capacity) {
+                    clean = false;
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position + HEADER_BYTES, size));
+                long seq = buffer.getLong(position + HEADER_BYTES);
+                if ((int) crc.getValue() != buffer.getInt(position + 4) || seq != expected) {
+                    clean = false;
+                    break;
+                }
+                byte type = buffer.get(position + HEADER_BYTES + 8);
+                handler.handle(seq, type,
+                        buffer.slice(position + HEADER_BYTES + META_BYTES, size - META_BYTES).asReadOnlyBuffer());
+                position += HEADER_BYTES + size;
+                expected++;
+            }
+            segment.position = position;
+            segment.syncedPosition = position;
+            segment.lastSeq = expected - 1;
+            segments.addLast(segment);
+            if (!clean) {
+                logger.warn("WAL segment {} has an incomplete record at offset {}, truncating log at seq {}",
+                        path, position, expected);
+                // 清零末尾残留的内容，避免之后写入的较短记录与旧记录拼接出看似合法的数据
+                for (int offset = position; offset < segment.capacity; offset++) {
+                    buffer.put(offset, (byte) 0);
+                }
+                segment.buffer.force();
+                deleteAll(files.subList(i + 1, files.size()));
+                break;
+            }
+        }
+
+        nextSeq = expected < 0 ? 1 : expected;
+        durableSeq = nextSeq - 1;
+        requestedSeq = durableSeq;
+        if (segments.isEmpty()) {
+            segments.addLast(Segment.create(pathOf(nextSeq), nextSeq, segmentBytes));
+        }
+        head = segments.peekLast();
+        // 已写满的段只在删除时需要，回放后释放映射
+        for (Segment segment : segments) {
+            if (segment != head) {
+                segment.release();
+            }
+        }
+    }
+
+    private void roll() {
+        Segment previous = head;
+        try {
+            head = Segment.create(pathOf(nextSeq), nextSeq, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建日志段失败", e);
+        }
+        segments.addLast(head);
+        previous.sealed = true;
+        if (!fsync) {
+            previous.release();
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            synchronized (syncMonitor) {
+                while (requestedSeq <= durableSeq && !closed) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            }
+            if (groupCommitNanos > 0) {
+                LockSupport.parkNanos(groupCommitNanos);
+            }
+
+            long upTo;
+            List<Segment> dirty = new ArrayList<>(2);
+            List<int[]> ranges = new ArrayList<>(2);
+            appendLock.lock();
+            try {
+                upTo = nextSeq - 1;
+                for (Segment segment : segments) {
+                    if (segment.syncedPosition < segment.position) {
+                        dirty.add(segment);
+                        ranges.add(new int[] {segment.syncedPosition, segment.position});
+                    }
+                }
+            } finally {
+                appendLock.unlock();
+            }
+
+            IOException failure = null;
+            try {
+                for (int i = 0; i < dirty.size(); i++) {
+                    Segment segment = dirty.get(i);
+                    int[] range = ranges.get(i);
+                    segment.buffer.force(range[0], range[1] - range[0]);
+                    segment.syncedPosition = range[1];
+                }
+            } catch (UncheckedIOException e) {
+                failure = e.getCause();
+            }
+
+            appendLock.lock();
+            try {
+                for (Segment segment : dirty) {
+                    if (segment.sealed && segment.syncedPosition == segment.position) {
+                        segment.release();
+                    }
+                }
+            } finally {
+                appendLock.unlock();
+            }
+
+            synchronized (syncMonitor) {
+                syncCount++;
+                if (failure != null) {
+                    logger.error("WAL sync failed", failure);
+                    syncFailure = failure;
+                } else {
+                    durableSeq = upTo;
+                }
+                syncMonitor.notifyAll();
+            }
+            if (failure != null) {
+                // 失败位置之后的数据是否写回未知，不再继续刷盘，append随之拒绝写入
+                return;
+            }
+        }
+    }
+
+    private Path pathOf(long baseSeq) {
+        return dir.resolve(String.format("%020d", baseSeq) + SUFFIX);
+    }
+
+    private static long baseSeqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static void deleteAll(List<Path> paths) throws IOException {
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * 日志段，除sealed与syncedPosition外的字段由appendLock保护
+     */
+    private static final class Segment {
+
+        private final Path path;
+
+        private final long baseSeq;
+
+        private final int capacity;
+
+        private FileChannel channel;
+
+        private MappedByteBuffer buffer;
+
+        private int position;
+
+        /**
+         * 已刷盘的位置，只由刷盘线程修改
+         */
+        private volatile int syncedPosition;
+
+        private long lastSeq;
+
+        private volatile boolean sealed;
+
+        private Segment(Path path, long baseSeq, int capacity, FileChannel channel) throws IOException {
+            this.path = path;
+            this.baseSeq = baseSeq;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            this.lastSeq = baseSeq - 1;
+        }
+
+        /**
+         * 先在临时文件中预分配，再原子重命名，崩溃时不会留下大小不完整的段文件
+         */
+        private static Segment create(Path path, long baseSeq, int capacity) throws IOException {
+            Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                // 稀疏文件，未写入的部分读出为0
+                channel.write(ByteBuffer.allocate(1), capacity - 1);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            return open(path, baseSeq, capacity);
+        }
+
+        private static Segment open(Path path, long baseSeq, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, baseSeq, capacity, channel);
+        }
+
+        private void forceRemaining() {
+            if (buffer != null && syncedPosition < position) {
+                buffer.force(syncedPosition, position - syncedPosition);
+                syncedPosition = position;
+            }
+        }
+
+        /**
+         * 关闭文件并放弃映射，映射区域在垃圾回收时解除
+         */
+        private void release() {
+            buffer = null;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.debug("Failed to close WAL segment {}", path, e);
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.octohub.websocket;
+
+import io.octohub.service.WebSocketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * 内嵌WebSocket网关的握手校验
+ * 校验WebSocketService生成的连接地址签名（type:id + timestamp），通过后把连接类型与ID放入会话属性。
+ */
+public class SignatureHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignatureHandshakeInterceptor.class);
+
+    private final WebSocketService webSocketService;
+
+    private final WebSocketGateway gateway;
+
+    private final WebSocketGateway.ClientType type;
+
+    public SignatureHandshakeInterceptor(WebSocketService webSocketService, WebSocketGateway gateway,
+                                         WebSocketGateway.ClientType type) {
+        this.webSocketService = webSocketService;
+        this.gateway = gateway;
+        this.type = type;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+        String id = servletRequest.getServletRequest().getParameter(type.getIdParameter());
+        String timestamp = servletRequest.getServletRequest().getParameter("timestamp");
+        String signature = servletRequest.getServletRequest().getParameter("signature");
+        if (id == null || id.isEmpty() || timestamp == null || signature == null) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+        if (!webSocketService.validateConnectionSignature(type.getSignatureType(), id, timestamp, signature)) {
+            logger.debug("Rejected {} websocket handshake for {}: invalid signature", type, id);
+            gateway.rejected();
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        if (!gateway.hasCapacity()) {
+            gateway.rejected();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return false;
+        }
+        attributes.put(WebSocketGateway.TYPE_ATTRIBUTE, type);
+        attributes.put(WebSocketGateway.ID_ATTRIBUTE, id);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
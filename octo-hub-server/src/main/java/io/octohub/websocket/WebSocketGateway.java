@@ -0,0 +1,392 @@
+package io.octohub.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.octohub.dto.TaskResultRequest;
+import io.octohub.dto.WebSocketMessage;
+import io.octohub.enums.ErrorCode;
+import io.octohub.service.DispatchTask;
+import io.octohub.service.TaskDispatcher;
+import io.octohub.service.TaskGateway;
+import io.octohub.service.TaskResultService;
+import io.octohub.util.WebSocketSignatureUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内嵌WebSocket网关
+ * 在本服务内提供/ws/user与/ws/node连接，消息格式与octo-hub-ws相同，连接签名由SignatureHandshakeInterceptor校验，
+ * 省去单独部署octo-hub-ws及其二次签名校验。连接由Tomcat NIO连接器管理，空闲连接不占用线程。
+ * 每个连接的发送经ConcurrentWebSocketSessionDecorator排队，并发发送时只有一个线程执行写出，其余放入有界缓冲：
+ * 缓冲超过send-buffer-bytes或单次写出超过send-time-limit-ms时，节点连接被关闭（任务推送不能静默丢弃），
+ * 用户连接丢弃最早的缓冲消息。
+ * 接收按帧缓冲（frame-buffer-bytes）分段交付，超过帧缓冲的消息才在连接上拼接，拼接上限为max-message-bytes，
+ * 避免每个连接按最大消息长度预分配缓冲。
+ * 同一ID只保留最新的连接，旧连接收到disconnected通知后关闭。
+ * 节点连接同时作为任务推送通道：任务以task消息推送，节点以task_result消息上报结果。
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.gateway.enabled", havingValue = "true")
+public class WebSocketGateway extends TextWebSocketHandler implements TaskGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketGateway.class);
+
+    static final String TYPE_ATTRIBUTE = "octohub.ws.type";
+
+    static final String ID_ATTRIBUTE = "octohub.ws.id";
+
+    private static final String SESSION_ATTRIBUTE = "octohub.ws.session";
+
+    private static final String PARTIAL_ATTRIBUTE = "octohub.ws.partial";
+
+    private static final int ERROR_INVALID_MESSAGE = 1001;
+
+    private static final int ERROR_UNKNOWN_ACTION = 1002;
+
+    private static final int ERROR_PERMISSION_DENIED = 1003;
+
+    private static final int ERROR_RATE_LIMITED = 1005;
+
+    public enum ClientType {
+        USER("user_id", WebSocketSignatureUtils.CLIENT_USER),
+        NODE("pc_id", WebSocketSignatureUtils.CLIENT_NODE);
+
+        private final String idParameter;
+
+        private final String signatureType;
+
+        ClientType(String idParameter, String signatureType) {
+            this.idParameter = idParameter;
+            this.signatureType = signatureType;
+        }
+
+        /**
+         * 连接地址中的ID参数名
+         */
+        public String getIdParameter() {
+            return idParameter;
+        }
+
+        /**
+         * 连接地址签名中的类型
+         */
+        public String getSignatureType() {
+            return signatureType;
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskResultService taskResultService;
+
+    /**
+     * 启动时把本网关注册为推送通道，分发器本身不注入网关
+     */
+    @Autowired
+    private TaskDispatcher taskDispatcher;
+
+    @Value("${websocket.gateway.max-connections:50000}")
+    private int maxConnections;
+
+    @Value("${websocket.gateway.send-buffer-bytes:524288}")
+    private int sendBufferBytes;
+
+    @Value("${websocket.gateway.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.gateway.max-message-bytes:131072}")
+    private int maxMessageBytes;
+
+    private final ConcurrentHashMap<String, WebSocketSession> users = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, WebSocketSession> nodes = new ConcurrentHashMap<>();
+
+    private Counter receivedCounter;
+
+    private Counter sentCounter;
+
+    private Counter terminatedCounter;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("websocket.gateway.connections", users, Map::size)
+                .description("内嵌网关的连接数")
+                .tag("type", "user")
+                .register(meterRegistry);
+        Gauge.builder("websocket.gateway.connections", nodes, Map::size)
+                .description("内嵌网关的连接数")
+                .tag("type", "node")
+                .register(meterRegistry);
+        receivedCounter = messages("received");
+        sentCounter = messages("sent");
+        terminatedCounter = Counter.builder("websocket.gateway.terminated")
+                .description("发送缓冲超限被关闭的节点连接数")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("websocket.gateway.rejected")
+                .description("签名错误或连接数已满被拒绝的握手数")
+                .register(meterRegistry);
+        taskDispatcher.registerGateway(this);
+        logger.info("Embedded websocket gateway enabled on /ws/user and /ws/node");
+    }
+
+    boolean hasCapacity() {
+        return users.size() + nodes.size() < maxConnections;
+    }
+
+    void rejected() {
+        rejectedCounter.increment();
+    }
+
+    /**
+     * 节点是否通过本网关在线
+     */
+    public boolean isConnected(String pcId) {
+        return nodes.containsKey(pcId);
+    }
+
+    @Override
+    public boolean send(String pcId, DispatchTask task) {
+        WebSocketSession session = nodes.get(pcId);
+        if (session == null) {
+            return false;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("task_id", task.getTaskId());
+        data.put("task_type", task.getTaskType());
+        data.put("data", task.getData());
+        return send(session, WebSocketMessage.system("task", data));
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        ClientType type = (ClientType) session.getAttributes().get(TYPE_ATTRIBUTE);
+        String id = (String) session.getAttributes().get(ID_ATTRIBUTE);
+        ConcurrentWebSocketSessionDecorator decorated = new ConcurrentWebSocketSessionDecorator(session,
+                sendTimeLimitMs, sendBufferBytes, type == ClientType.NODE
+                        ? ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE
+                        : ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        session.getAttributes().put(SESSION_ATTRIBUTE, decorated);
+
+        WebSocketSession previous = sessions(type).put(id, decorated);
+        if (previous != null) {
+            Map<String, Object> reason = new LinkedHashMap<>();
+            reason.put("reason", "新连接建立");
+            reason.put("code", CloseStatus.NORMAL.getCode());
+            send(previous, WebSocketMessage.system("disconnected", reason));
+            closeQuietly(previous, CloseStatus.NORMAL);
+        }
+
+        Map<String, Object> connected = new LinkedHashMap<>();
+        connected.put(type.getIdParameter(), id);
+        connected.put("session_id", session.getId());
+        connected.put("server_time", System.currentTimeMillis() / 1000);
+        send(decorated, WebSocketMessage.system("connected", connected));
+        logger.debug("{} {} connected", type, id);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ClientType type = (ClientType) session.getAttributes().get(TYPE_ATTRIBUTE);
+        String id = (String) session.getAttributes().get(ID_ATTRIBUTE);
+        WebSocketSession decorated = (WebSocketSession) session.getAttributes().get(SESSION_ATTRIBUTE);
+        if (type != null && decorated != null) {
+            sessions(type).remove(id, decorated);
+        }
+        logger.debug("{} {} disconnected: {}", type, id, status);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("Websocket transport error on {}: {}", session.getAttributes().get(ID_ATTRIBUTE),
+                exception.getMessage());
+        closeQuietly(session, CloseStatus.SERVER_ERROR);
+    }
+
+    @Override
+    public boolean supportsPartialMessages() {
+        return true;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        String payload = assemble(session, message);
+        if (payload == null) {
+            return;
+        }
+        receivedCounter.increment();
+        WebSocketSession decorated = (WebSocketSession) session.getAttributes().get(SESSION_ATTRIBUTE);
+        ClientType type = (ClientType) session.getAttributes().get(TYPE_ATTRIBUTE);
+        String id = (String) session.getAttributes().get(ID_ATTRIBUTE);
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            send(decorated, error(ERROR_INVALID_MESSAGE, "消息格式错误", e.getOriginalMessage(), null));
+            return;
+        }
+        // 节点客户端以type字段表示消息类型，与action等价
+        String action = root.path("action").asText(root.path("type").asText(""));
+        String requestId = root.hasNonNull("request_id") ? root.get("request_id").asText() : null;
+        switch (action) {
+            case "ping" -> {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("server_time", System.currentTimeMillis() / 1000);
+                data.put("sender_id", id);
+                send(decorated, new WebSocketMessage("pong", data, requestId));
+            }
+            case "echo" -> {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("original_message", root.get("data"));
+                data.put("echoed_by", "server");
+                data.put("sender_id", id);
+                send(decorated, new WebSocketMessage("echo", data, requestId));
+            }
+            case "status" -> {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("online", true);
+                data.put("last_active", System.currentTimeMillis() / 1000);
+                send(decorated, new WebSocketMessage("status", data, requestId));
+            }
+            case "task_result" -> handleTaskResult(decorated, type, id, root, requestId);
+            case "pong", "node_ready" -> {
+                // 节点客户端的心跳响应与就绪通知，无需回复
+            }
+            default -> send(decorated, error(ERROR_UNKNOWN_ACTION, "未知的消息动作", action, requestId));
+        }
+    }
+
+    /**
+     * 拼接分段交付的消息
+     * @return 完整消息，消息未接收完或超过max-message-bytes（连接已关闭）时返回null
+     */
+    private String assemble(WebSocketSession session, TextMessage message) {
+        StringBuilder partial = (StringBuilder) session.getAttributes().get(PARTIAL_ATTRIBUTE);
+        if (partial == null && message.isLast()) {
+            return message.getPayload();
+        }
+        if (partial == null) {
+            partial = new StringBuilder(message.getPayloadLength() * 2);
+            session.getAttributes().put(PARTIAL_ATTRIBUTE, partial);
+        }
+        partial.append(message.getPayload());
+        if (partial.length() > maxMessageBytes) {
+            session.getAttributes().remove(PARTIAL_ATTRIBUTE);
+            logger.info("Websocket {} sent a message over {} bytes, closing",
+                    session.getAttributes().get(ID_ATTRIBUTE), maxMessageBytes);
+            closeQuietly(session, CloseStatus.TOO_BIG_TO_PROCESS);
+            return null;
+        }
+        if (!message.isLast()) {
+            return null;
+        }
+        session.getAttributes().remove(PARTIAL_ATTRIBUTE);
+        return partial.toString();
+    }
+
+    /**
+     * 节点上报任务结果，内容在data字段中，或与节点客户端一样直接放在消息中
+     */
+    private void handleTaskResult(WebSocketSession session, ClientType type, String pcId, JsonNode root,
+                                  String requestId) {
+        if (type != ClientType.NODE) {
+            send(session, error(ERROR_PERMISSION_DENIED, "只有节点可以上报任务结果", null, requestId));
+            return;
+        }
+        JsonNode body = root.has("action") && root.path("data").isObject() ? root.get("data") : root;
+        TaskResultRequest request;
+        try {
+            request = objectMapper.treeToValue(body, TaskResultRequest.class);
+        } catch (JsonProcessingException e) {
+            send(session, error(ERROR_INVALID_MESSAGE, "任务结果格式错误", e.getOriginalMessage(), requestId));
+            return;
+        }
+        String invalid = taskResultService.validate(pcId, request);
+        if (invalid != null) {
+            send(session, error(ERROR_INVALID_MESSAGE, invalid, request.getTaskId(), requestId));
+            return;
+        }
+        ErrorCode accepted = taskResultService.accept(pcId, request);
+        if (accepted == ErrorCode.TASK_NOT_ASSIGNED) {
+            send(session, error(ERROR_PERMISSION_DENIED, accepted.getMessage(), request.getTaskId(), requestId));
+            return;
+        }
+        if (accepted != ErrorCode.SUCCESS) {
+            send(session, error(ERROR_RATE_LIMITED, "服务繁忙，请稍后重试", request.getTaskId(), requestId));
+            return;
+        }
+        send(session, new WebSocketMessage("task_result", Map.of("task_id", request.getTaskId()), requestId));
+    }
+
+    private boolean send(WebSocketSession session, WebSocketMessage message) {
+        try {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+            sentCounter.increment();
+            return true;
+        } catch (SessionLimitExceededException e) {
+            // TERMINATE策略下装饰器已关闭连接
+            terminatedCounter.increment();
+            logger.info("Websocket {} fell behind: {}", session.getAttributes().get(ID_ATTRIBUTE), e.getMessage());
+            return false;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Failed to send {} to websocket {}: {}", message.getAction(),
+                    session.getAttributes().get(ID_ATTRIBUTE), e.getMessage());
+            return false;
+        }
+    }
+
+    private static WebSocketMessage error(int code, String message, String details, String requestId) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("code", code);
+        data.put("message", message);
+        if (details != null) {
+            data.put("details", details);
+        }
+        return new WebSocketMessage("error", data, requestId);
+    }
+
+    private ConcurrentHashMap<String, WebSocketSession> sessions(ClientType type) {
+        return type == ClientType.NODE ? nodes : users;
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            logger.debug("Failed to close websocket session {}", session.getId(), e);
+        }
+    }
+
+    private Counter messages(String direction) {
+        return Counter.builder("websocket.gateway.messages")
+                .description("内嵌网关收发的消息数")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
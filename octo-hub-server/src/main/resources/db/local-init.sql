@@ -0,0 +1,49 @@
+-- 本地开发用的H2初始化脚本（local profile），主库与从库各自执行一次，可重复执行
+-- 两个库之间没有复制，启动后写入主库的数据不会出现在从库中，可用于观察读己之写与复制延迟的效果
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(16) NOT NULL DEFAULT 'USER',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users (created_at);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (jti)
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    name VARCHAR(64) NOT NULL,
+    next_val BIGINT NOT NULL,
+    PRIMARY KEY (name)
+);
+
+CREATE TABLE IF NOT EXISTS task_results (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    task_id VARCHAR(64) NOT NULL,
+    pc_id VARCHAR(128) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    result CLOB,
+    error VARCHAR(1024),
+    node_timestamp BIGINT,
+    received_at TIMESTAMP(3) NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_task_results_task_id ON task_results (task_id);
+CREATE INDEX IF NOT EXISTS idx_task_results_received_at ON task_results (received_at);
+
+-- 测试账号 demo@octohub.io / password
+MERGE INTO users (id, email, password, version) KEY (id)
+    VALUES (1, 'demo@octohub.io', '$2a$10$E4LLRhm/.OQoJdl3zZjSL.dDvjRPd2TiS0MhM560xoEHOoqeJtRUu', 0);
+MERGE INTO id_generators (name, next_val) KEY (name) VALUES ('users', 101);
@@ -0,0 +1,107 @@
+package io.octohub.entity;
+
+import io.octohub.service.EmailSearchIndex;
+import io.octohub.service.UserCache;
+import io.octohub.service.UserVersionRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserEntityListenerTest {
+
+    private UserEntityListener listener;
+
+    private UserVersionRegistry registry;
+
+    private UserCache userCache;
+
+    private EmailSearchIndex emailSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        registry = new UserVersionRegistry();
+        ReflectionTestUtils.setField(registry, "maxSize", 1000L);
+        ReflectionTestUtils.setField(registry, "ttlSeconds", 60L);
+        registry.init();
+        userCache = mock(UserCache.class);
+        emailSearchIndex = mock(EmailSearchIndex.class);
+
+        listener = new UserEntityListener();
+        ReflectionTestUtils.setField(listener, "userVersionRegistry", provider(registry));
+        ReflectionTestUtils.setField(listener, "userCache", provider(userCache));
+        ReflectionTestUtils.setField(listener, "emailSearchIndex", provider(emailSearchIndex));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void versionIsRecordedOnlyAfterCommit() {
+        registry.record(1L, 1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.afterWrite(user(1L, 2L));
+
+        assertThat(registry.isCurrent(1L, 1L)).isTrue();
+        verify(userCache).invalidate(1L);
+        verify(emailSearchIndex, never()).put(1L, "a@octohub.io");
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertThat(registry.isCurrent(1L, 1L)).isFalse();
+        assertThat(registry.isCurrent(1L, 2L)).isTrue();
+        verify(emailSearchIndex).put(1L, "a@octohub.io");
+    }
+
+    @Test
+    void rollbackLeavesVersionUntouched() {
+        registry.record(1L, 1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.afterWrite(user(1L, 2L));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertThat(registry.isCurrent(1L, 1L)).isTrue();
+        verify(emailSearchIndex, never()).put(1L, "a@octohub.io");
+    }
+
+    @Test
+    void writeOutsideTransactionIsRecordedImmediately() {
+        listener.afterWrite(user(1L, 2L));
+
+        assertThat(registry.isCurrent(1L, 2L)).isTrue();
+        verify(emailSearchIndex).put(1L, "a@octohub.io");
+    }
+
+    private static User user(Long id, Long version) {
+        User user = new User("a@octohub.io", "secret");
+        user.setId(id);
+        user.setVersion(version);
+        return user;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T bean) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(bean);
+        return provider;
+    }
+}
@@ -0,0 +1,121 @@
+package io.octohub.security;
+
+import io.octohub.enums.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BodySignatureVerifierTest {
+
+    private static final String KEY = "admin-key";
+
+    private NonceReplayStore nonceReplayStore;
+
+    private BodySignatureVerifier verifier;
+
+    private final String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+
+    @BeforeEach
+    void setUp() {
+        nonceReplayStore = mock(NonceReplayStore.class);
+        when(nonceReplayStore.register(anyLong(), anyString())).thenReturn(NonceReplayStore.Result.ACCEPTED);
+        verifier = new BodySignatureVerifier();
+        ReflectionTestUtils.setField(verifier, "nonceReplayStore", nonceReplayStore);
+        ReflectionTestUtils.setField(verifier, "secretKey", KEY);
+        ReflectionTestUtils.setField(verifier, "maxBytes", 1024L);
+    }
+
+    @Test
+    void signedBodyIsSpooledToFile() throws Exception {
+        String body = "{\"email\":\"a@example.com\",\"password\":\"secret\"}\n";
+        Path file = verifier.spool(request(body, sign(KEY, body)));
+        try {
+            assertThat(Files.readString(file)).isEqualTo(body);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void tamperedBodyIsRejectedBeforeReplayRegistration() {
+        String signature = sign(KEY, "{\"email\":\"a@example.com\"}\n");
+
+        assertThatThrownBy(() -> verifier.spool(request("{\"email\":\"evil@example.com\"}\n", signature)))
+                .isInstanceOfSatisfying(BodySignatureVerifier.RejectedException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.SIGNATURE_INVALID));
+        verify(nonceReplayStore, never()).register(anyLong(), anyString());
+    }
+
+    @Test
+    void nodeSecretCannotSignAdminBody() {
+        String body = "a@example.com,secret\n";
+
+        assertThatThrownBy(() -> verifier.spool(request(body, sign("mySignatureKey123456789012345", body))))
+                .isInstanceOf(BodySignatureVerifier.RejectedException.class);
+    }
+
+    @Test
+    void replayedSignatureIsRejected() {
+        when(nonceReplayStore.register(anyLong(), anyString())).thenReturn(NonceReplayStore.Result.REPLAYED);
+        String body = "a@example.com,secret\n";
+
+        assertThatThrownBy(() -> verifier.spool(request(body, sign(KEY, body))))
+                .isInstanceOfSatisfying(BodySignatureVerifier.RejectedException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.SIGNATURE_REPLAYED));
+    }
+
+    @Test
+    void oversizedBodyIsRejected() {
+        String body = "x".repeat(2048);
+
+        assertThatThrownBy(() -> verifier.spool(request(body, sign(KEY, body))))
+                .isInstanceOfSatisfying(BodySignatureVerifier.RejectedException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(413));
+    }
+
+    @Test
+    void missingKeyDisablesEndpoint() {
+        ReflectionTestUtils.setField(verifier, "secretKey", "");
+
+        assertThatThrownBy(() -> verifier.spool(request("", "")))
+                .isInstanceOfSatisfying(BodySignatureVerifier.RejectedException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(503));
+    }
+
+    private MockHttpServletRequest request(String body, String signature) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin/user/import");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.addHeader(BodySignatureVerifier.HEADER_SIGNATURE, signature);
+        request.addHeader(BodySignatureVerifier.HEADER_TIMESTAMP, timestamp);
+        request.addHeader(BodySignatureVerifier.HEADER_NONCE, "n-1");
+        return request;
+    }
+
+    private String sign(String key, String body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update((timestamp + "\n" + "n-1" + "\n").getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
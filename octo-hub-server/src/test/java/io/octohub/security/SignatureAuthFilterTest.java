@@ -0,0 +1,78 @@
+package io.octohub.security;
+
+import io.octohub.enums.ErrorCode;
+import io.octohub.metrics.StageMetrics;
+import io.octohub.util.SignatureUtils;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SignatureAuthFilterTest {
+
+    private NonceReplayStore nonceReplayStore;
+
+    private ErrorResponseWriter errorResponseWriter;
+
+    private SignatureAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SignatureUtils signatureUtils = mock(SignatureUtils.class);
+        when(signatureUtils.validateSignature(anyString(), anyString(), anyMap(), anyString(), anyString(), anyString()))
+                .thenReturn(true);
+        SignatureAuthRouteIndex routeIndex = mock(SignatureAuthRouteIndex.class);
+        when(routeIndex.requiresSignature(anyString(), anyString())).thenReturn(true);
+        nonceReplayStore = mock(NonceReplayStore.class);
+        errorResponseWriter = mock(ErrorResponseWriter.class);
+
+        filter = new SignatureAuthFilter();
+        ReflectionTestUtils.setField(filter, "signatureUtils", signatureUtils);
+        ReflectionTestUtils.setField(filter, "routeIndex", routeIndex);
+        ReflectionTestUtils.setField(filter, "nonceReplayStore", nonceReplayStore);
+        ReflectionTestUtils.setField(filter, "stageMetrics", StageMetrics.NOOP);
+        ReflectionTestUtils.setField(filter, "errorResponseWriter", errorResponseWriter);
+        ReflectionTestUtils.setField(filter, "nonceCheckEnabled", true);
+    }
+
+    @Test
+    void fullReplayStoreIsReportedAsBusyNotUnauthorized() throws Exception {
+        when(nonceReplayStore.register(anyLong(), anyString())).thenReturn(NonceReplayStore.Result.CAPACITY_EXCEEDED);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(signedRequest(), response, chain);
+
+        verify(errorResponseWriter).write(response, 429, ErrorCode.SERVICE_BUSY);
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void replayedSignatureIsUnauthorized() throws Exception {
+        when(nonceReplayStore.register(anyLong(), anyString())).thenReturn(NonceReplayStore.Result.REPLAYED);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(signedRequest(), response, mock(FilterChain.class));
+
+        verify(errorResponseWriter).write(response, 401, ErrorCode.SIGNATURE_REPLAYED);
+    }
+
+    private static MockHttpServletRequest signedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/node/ws");
+        request.addHeader("X-Signature", "sig");
+        request.addHeader("X-Timestamp", String.valueOf(System.currentTimeMillis() / 1000));
+        request.addHeader("X-Nonce", "n-1");
+        return request;
+    }
+}
@@ -0,0 +1,60 @@
+package io.octohub.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamTicketServiceTest {
+
+    private StreamTicketService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(30);
+    }
+
+    @Test
+    void ticketIsRedeemedOnlyOnce() {
+        String ticket = service.issue(42L);
+
+        assertThat(service.redeem(ticket)).isEqualTo(42L);
+        assertThat(service.redeem(ticket)).isNull();
+    }
+
+    @Test
+    void tamperedTicketIsRejected() {
+        String ticket = service.issue(42L);
+        String forged = "43" + ticket.substring(ticket.indexOf('.'));
+
+        assertThat(service.redeem(forged)).isNull();
+        assertThat(service.redeem("garbage")).isNull();
+        assertThat(service.redeem(null)).isNull();
+    }
+
+    @Test
+    void expiredTicketIsRejected() {
+        StreamTicketService expired = newService(-1);
+
+        assertThat(expired.redeem(expired.issue(42L))).isNull();
+    }
+
+    @Test
+    void ticketFromAnotherKeyIsRejected() {
+        StreamTicketService other = newService(30);
+        ReflectionTestUtils.setField(other, "secretKey", "another-secret");
+        other.init();
+
+        assertThat(service.redeem(other.issue(42L))).isNull();
+    }
+
+    private static StreamTicketService newService(long ttlSeconds) {
+        StreamTicketService service = new StreamTicketService();
+        ReflectionTestUtils.setField(service, "secretKey", "test-secret");
+        ReflectionTestUtils.setField(service, "ttlSeconds", ttlSeconds);
+        ReflectionTestUtils.setField(service, "maxRedeemed", 1000L);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,101 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.octohub.dto.UserSummary;
+import io.octohub.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailSearchIndexTest {
+
+    private UserRepository userRepository;
+
+    private EmailSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        index = new EmailSearchIndex();
+        ReflectionTestUtils.setField(index, "userRepository", userRepository);
+        ReflectionTestUtils.setField(index, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "rebuildThreshold", 2);
+        ReflectionTestUtils.setField(index, "maxBytes", 1L << 20);
+    }
+
+    @Test
+    void searchesPrefixAndInfixAcrossSnapshotAndOverlay() {
+        users(new UserSummary(1L, "Alice@example.com", null), new UserSummary(2L, "bob@example.com", null));
+        index.load();
+        index.put(3L, "alina@test.io");
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(emails(index.search("al", 10))).containsExactly("Alice@example.com", "alina@test.io");
+        assertThat(emails(index.search("example", 10))).containsExactly("Alice@example.com", "bob@example.com");
+    }
+
+    @Test
+    void overlayShadowsUpdatedAndRemovedUsers() {
+        users(new UserSummary(1L, "alice@example.com", null), new UserSummary(2L, "bob@example.com", null));
+        index.load();
+        index.put(1L, "carol@example.com");
+        index.remove(2L);
+
+        assertThat(emails(index.search("example", 10))).containsExactly("carol@example.com");
+
+        index.rebuildIfNeeded();
+
+        assertThat(index.estimatedBytes()).isPositive();
+        assertThat(emails(index.search("example", 10))).containsExactly("carol@example.com");
+    }
+
+    @Test
+    void failedLoadDisablesIndexAndStopsOverlayGrowth() {
+        when(userRepository.scanSummaries(any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        index.load();
+        index.put(1L, "alice@example.com");
+        index.remove(2L);
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.estimatedBytes()).isZero();
+    }
+
+    @Test
+    void loadOverBudgetDisablesIndex() {
+        ReflectionTestUtils.setField(index, "maxBytes", 10L);
+        users(new UserSummary(1L, "alice@example.com", null));
+
+        index.load();
+        index.put(2L, "bob@example.com");
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.estimatedBytes()).isZero();
+    }
+
+    private void users(UserSummary... users) {
+        doAnswer(invocation -> {
+            Consumer<UserSummary> consumer = invocation.getArgument(1);
+            for (UserSummary user : users) {
+                consumer.accept(user);
+            }
+            return (long) users.length;
+        }).when(userRepository).scanSummaries(any(), any());
+    }
+
+    private static List<String> emails(List<UserSummary> results) {
+        return results.stream().map(UserSummary::getEmail).toList();
+    }
+}
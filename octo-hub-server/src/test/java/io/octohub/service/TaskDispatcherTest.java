@@ -0,0 +1,167 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.octohub.dto.NodeStatus;
+import io.octohub.enums.ErrorCode;
+import io.octohub.event.NodeStatusEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskDispatcherTest {
+
+    private final List<String> sent = new ArrayList<>();
+
+    private NodeRegistry nodeRegistry;
+
+    private TaskJournal taskJournal;
+
+    private TaskDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        nodeRegistry = mock(NodeRegistry.class);
+        taskJournal = mock(TaskJournal.class);
+        when(taskJournal.pendingTasks()).thenReturn(List.of());
+        when(taskJournal.awaitDurable(anyLong())).thenReturn(true);
+
+        dispatcher = new TaskDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "nodeRegistry", nodeRegistry);
+        ReflectionTestUtils.setField(dispatcher, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "taskJournal", taskJournal);
+        ReflectionTestUtils.setField(dispatcher, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(dispatcher, "strategy", NodeLoadIndex.Strategy.LEAST_OUTSTANDING);
+        ReflectionTestUtils.setField(dispatcher, "maxTasks", 100);
+        dispatcher.init();
+        dispatcher.registerGateway((pcId, task) -> sent.add(pcId + ":" + task.getTaskId()));
+    }
+
+    @Test
+    void submitWithoutNodesIsRejected() {
+        assertThat(dispatcher.submit(task("t-1"), null)).isEqualTo(ErrorCode.NODE_OFFLINE);
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    void tasksGoToLeastLoadedNode() {
+        online("a", 2);
+        online("b", 2);
+
+        for (int i = 1; i <= 4; i++) {
+            assertThat(dispatcher.submit(task("t-" + i), null)).isEqualTo(ErrorCode.SUCCESS);
+        }
+
+        assertThat(sent).hasSize(4);
+        assertThat(sent.stream().filter(s -> s.startsWith("a:"))).hasSize(2);
+        assertThat(sent.stream().filter(s -> s.startsWith("b:"))).hasSize(2);
+    }
+
+    @Test
+    void queuedTaskIsPushedWhenCapacityFrees() {
+        online("a", 1);
+        dispatcher.submit(task("t-1"), "a");
+        dispatcher.submit(task("t-2"), "a");
+        assertThat(sent).containsExactly("a:t-1");
+
+        assertThat(dispatcher.complete("t-1", "a")).isTrue();
+
+        assertThat(sent).containsExactly("a:t-1", "a:t-2");
+        assertThat(dispatcher.complete("t-1", "a")).isFalse();
+    }
+
+    @Test
+    void onlyAssignedNodeCanCompleteTask() {
+        online("a", 1);
+        online("b", 1);
+        dispatcher.submit(task("t-1"), "a");
+
+        assertThat(dispatcher.isAssignedTo("t-1", "b")).isFalse();
+        assertThat(dispatcher.complete("t-1", "b")).isFalse();
+        assertThat(dispatcher.isAssignedTo("t-1", "a")).isTrue();
+        assertThat(dispatcher.complete("t-1", "a")).isTrue();
+    }
+
+    @Test
+    void taskIsNotPushedUntilDurable() {
+        online("a", 1);
+        when(taskJournal.submitted(any())).thenReturn(7L);
+        when(taskJournal.awaitDurable(7L)).thenReturn(false);
+
+        assertThat(dispatcher.submit(task("t-1"), null)).isEqualTo(ErrorCode.SYSTEM_ERROR);
+
+        assertThat(sent).isEmpty();
+        assertThat(dispatcher.getAssignment("t-1")).isNull();
+    }
+
+    @Test
+    void journalWriteFailureRejectsTask() {
+        online("a", 1);
+        when(taskJournal.submitted(any()))
+                .thenThrow(new TaskJournal.JournalException("boom", null));
+
+        assertThat(dispatcher.submit(task("t-1"), null)).isEqualTo(ErrorCode.SYSTEM_ERROR);
+
+        assertThat(sent).isEmpty();
+        assertThat(dispatcher.getAssignment("t-1")).isNull();
+    }
+
+    @Test
+    void offlineNodeTasksMoveToRemainingNode() {
+        online("a", 1);
+        online("b", 1);
+        dispatcher.submit(task("t-1"), "a");
+        dispatcher.submit(task("t-2"), "a");
+        sent.clear();
+
+        offline("a");
+
+        assertThat(sent).containsExactly("b:t-1");
+        assertThat(dispatcher.getAssignment("t-2")).isNotNull();
+    }
+
+    @Test
+    void lateOfflineEventDoesNotDropReconnectedNode() {
+        online("a", 1);
+        dispatcher.submit(task("t-1"), "a");
+        sent.clear();
+
+        // 节点已重新上线，迟到的OFFLINE不应移除它的槽位
+        dispatcher.onNodeStatus(new NodeStatusEvent("a", NodeStatusEvent.Status.OFFLINE, 0L));
+
+        assertThat(sent).isEmpty();
+        assertThat(dispatcher.isAssignedTo("t-1", "a")).isTrue();
+    }
+
+    @Test
+    void lateOnlineEventDoesNotRecreateExpiredNode() {
+        when(nodeRegistry.get("a")).thenReturn(null);
+        dispatcher.onNodeStatus(new NodeStatusEvent("a", NodeStatusEvent.Status.ONLINE, 0L));
+
+        assertThat(dispatcher.submit(task("t-1"), "a")).isEqualTo(ErrorCode.NODE_OFFLINE);
+    }
+
+    private void online(String pcId, int capacity) {
+        when(nodeRegistry.get(pcId)).thenReturn(new NodeStatus(pcId, capacity, 0, 0L, 0L));
+        dispatcher.onNodeStatus(new NodeStatusEvent(pcId, NodeStatusEvent.Status.ONLINE, 0L));
+    }
+
+    private void offline(String pcId) {
+        when(nodeRegistry.get(pcId)).thenReturn(null);
+        dispatcher.onNodeStatus(new NodeStatusEvent(pcId, NodeStatusEvent.Status.OFFLINE, 0L));
+    }
+
+    private static DispatchTask task(String taskId) {
+        return new DispatchTask(taskId, "echo", Map.of(), 0L);
+    }
+}
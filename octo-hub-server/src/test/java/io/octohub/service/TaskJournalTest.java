@@ -0,0 +1,102 @@
+package io.octohub.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private TaskJournal journal;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (journal != null) {
+            journal.shutdown();
+        }
+    }
+
+    @Test
+    void recoversUnfinishedTasksAndUnwrittenResults() throws IOException {
+        journal = open(true);
+        DispatchTask pending = new DispatchTask("t-1", "echo", Map.of("n", 1), 1000L);
+        DispatchTask acked = new DispatchTask("t-2", "echo", Map.of(), 2000L);
+        DispatchTask done = new DispatchTask("t-3", "echo", Map.of(), 3000L);
+        assertThat(journal.awaitDurable(journal.submitted(pending))).isTrue();
+        journal.dispatched("t-1", "node-a");
+        journal.submitted(acked);
+        journal.submitted(done);
+        long seq = journal.acked(new TaskJournal.AckedResult("t-2", "node-a", "completed", "{\"ok\":true}",
+                null, 42L, 5000L));
+        assertThat(journal.awaitDurable(seq)).isTrue();
+        journal.acked(new TaskJournal.AckedResult("t-3", "node-b", "failed", null, "boom", null, 6000L));
+        journal.completed(List.of("t-3"));
+        journal.shutdown();
+
+        journal = open(true);
+
+        List<DispatchTask> tasks = journal.pendingTasks();
+        assertThat(tasks).extracting(DispatchTask::getTaskId).containsExactly("t-1");
+        assertThat(tasks.get(0).getData()).containsEntry("n", 1);
+        assertThat(tasks.get(0).getAttempts()).isEqualTo(1);
+        List<TaskJournal.AckedResult> results = journal.pendingResults();
+        assertThat(results).extracting(TaskJournal.AckedResult::getTaskId).containsExactly("t-2");
+        assertThat(results.get(0).getResultJson()).isEqualTo("{\"ok\":true}");
+        assertThat(results.get(0).getNodeTimestamp()).isEqualTo(42L);
+    }
+
+    @Test
+    void missingSequenceIsNotDurable() throws IOException {
+        journal = open(true);
+
+        assertThat(journal.awaitDurable(0)).isFalse();
+    }
+
+    @Test
+    void disabledJournalAcceptsEverything() throws IOException {
+        journal = open(false);
+
+        long seq = journal.submitted(new DispatchTask("t-1", "echo", Map.of(), 1000L));
+
+        assertThat(seq).isZero();
+        assertThat(journal.awaitDurable(seq)).isTrue();
+        assertThat(journal.pendingTasks()).isEmpty();
+    }
+
+    @Test
+    void appendFailureIsReported() throws IOException {
+        journal = open(true);
+        journal.shutdown();
+
+        assertThatThrownBy(() -> journal.submitted(new DispatchTask("t-1", "echo", Map.of(), 1000L)))
+                .isInstanceOf(TaskJournal.JournalException.class);
+        journal = null;
+    }
+
+    private TaskJournal open(boolean enabled) throws IOException {
+        TaskJournal journal = new TaskJournal();
+        ReflectionTestUtils.setField(journal, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(journal, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(journal, "enabled", enabled);
+        ReflectionTestUtils.setField(journal, "dir", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentBytes", 1 << 20);
+        ReflectionTestUtils.setField(journal, "fsync", true);
+        ReflectionTestUtils.setField(journal, "groupCommitUs", 0L);
+        ReflectionTestUtils.setField(journal, "maxSegments", 8);
+        journal.init();
+        return journal;
+    }
+}
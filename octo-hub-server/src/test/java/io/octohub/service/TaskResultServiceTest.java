@@ -0,0 +1,77 @@
+package io.octohub.service;
+
+import io.octohub.dto.TaskResultRequest;
+import io.octohub.enums.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskResultServiceTest {
+
+    private TaskResultWriter taskResultWriter;
+
+    private TaskDispatcher taskDispatcher;
+
+    private TaskResultService service;
+
+    @BeforeEach
+    void setUp() {
+        taskResultWriter = mock(TaskResultWriter.class);
+        taskDispatcher = mock(TaskDispatcher.class);
+        service = new TaskResultService();
+        ReflectionTestUtils.setField(service, "taskResultWriter", taskResultWriter);
+        ReflectionTestUtils.setField(service, "taskDispatcher", taskDispatcher);
+        ReflectionTestUtils.setField(service, "maxResultLength", 65536);
+    }
+
+    @Test
+    void resultFromAssignedNodeIsPersistedAndCompletesTask() {
+        when(taskDispatcher.isAssignedTo("t-1", "node-a")).thenReturn(true);
+        when(taskResultWriter.submit(anyString(), anyString(), anyString(), any(), any(), any())).thenReturn(true);
+
+        assertThat(service.accept("node-a", request("t-1"))).isEqualTo(ErrorCode.SUCCESS);
+
+        verify(taskResultWriter).submit("t-1", "node-a", "completed", null, null, null);
+        verify(taskDispatcher).complete("t-1", "node-a");
+    }
+
+    @Test
+    void resultForAnotherNodesTaskIsRejected() {
+        when(taskDispatcher.isAssignedTo("t-1", "node-b")).thenReturn(false);
+
+        assertThat(service.accept("node-b", request("t-1"))).isEqualTo(ErrorCode.TASK_NOT_ASSIGNED);
+
+        verify(taskResultWriter, never()).submit(any(), any(), any(), any(), any(), any());
+        verify(taskDispatcher, never()).complete(any(), any());
+    }
+
+    @Test
+    void busyWriterLeavesTaskOpen() {
+        when(taskDispatcher.isAssignedTo("t-1", "node-a")).thenReturn(true);
+
+        assertThat(service.accept("node-a", request("t-1"))).isEqualTo(ErrorCode.SERVICE_BUSY);
+
+        verify(taskDispatcher, never()).complete(any(), any());
+    }
+
+    @Test
+    void invalidPcIdIsRejected() {
+        assertThat(service.validate("node a", request("t-1"))).isNotNull();
+        assertThat(service.validate("node-a", request("t-1"))).isNull();
+    }
+
+    private static TaskResultRequest request(String taskId) {
+        TaskResultRequest request = new TaskResultRequest();
+        request.setTaskId(taskId);
+        request.setStatus("completed");
+        return request;
+    }
+}
@@ -0,0 +1,108 @@
+package io.octohub.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskResultWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TaskJournal taskJournal;
+
+    private TaskResultWriter writer;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        taskJournal = mock(TaskJournal.class);
+        when(taskJournal.pendingResults()).thenReturn(List.of());
+        when(taskJournal.isEnabled()).thenReturn(true);
+        when(taskJournal.acked(any())).thenReturn(1L);
+        when(taskJournal.awaitDurable(anyLong())).thenReturn(true);
+
+        writer = new TaskResultWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writer, "taskJournal", taskJournal);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 2);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "maxDelayMs", 20L);
+        ReflectionTestUtils.setField(writer, "maxRetries", 0);
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acceptedResultsAreWrittenAndMarkedCompleted() throws InterruptedException {
+        writer.init();
+
+        assertThat(writer.submit("t-1", "node-a", "completed", "{}", null, 1L)).isTrue();
+        assertThat(writer.submit("t-2", "node-a", "failed", null, "boom", null)).isTrue();
+
+        verify(jdbcTemplate, timeout(5000).atLeastOnce()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(taskJournal, timeout(5000).atLeastOnce()).completed(any(Collection.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resultThatIsNotDurableIsRejected() throws InterruptedException {
+        when(taskJournal.awaitDurable(anyLong())).thenReturn(false);
+        writer.init();
+
+        assertThat(writer.submit("t-1", "node-a", "completed", "{}", null, 1L)).isFalse();
+
+        writer.shutdown();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void journalWriteFailureIsRejected() throws InterruptedException {
+        when(taskJournal.acked(any())).thenThrow(new TaskJournal.JournalException("boom", null));
+        writer.init();
+
+        assertThat(writer.submit("t-1", "node-a", "completed", "{}", null, 1L)).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedCompletionRecordDoesNotRewriteBatch() throws InterruptedException {
+        doThrow(new TaskJournal.JournalException("boom", null)).when(taskJournal).completed(any(Collection.class));
+        writer.init();
+
+        assertThat(writer.submit("t-1", "node-a", "completed", "{}", null, 1L)).isTrue();
+
+        verify(taskJournal, timeout(5000)).completed(eq(List.of("t-1")));
+        writer.shutdown();
+        verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
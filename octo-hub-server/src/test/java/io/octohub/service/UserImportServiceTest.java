@@ -0,0 +1,98 @@
+package io.octohub.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.octohub.dto.UserImportProgress;
+import io.octohub.entity.User;
+import io.octohub.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private UserRepository userRepository;
+
+    private EntityManager entityManager;
+
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        entityManager = mock(EntityManager.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(userRepository.findExistingEmails(any())).thenReturn(List.of());
+
+        service = new UserImportService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "hashThreads", 2);
+        ReflectionTestUtils.setField(service, "maxErrors", 100);
+        ReflectionTestUtils.setField(service, "jdbcBatchSize", 100);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void emailsDifferingOnlyInCaseAreSkipped() throws Exception {
+        when(userRepository.findExistingEmails(any())).thenReturn(List.of("c@example.com"));
+
+        UserImportProgress result = importCsv("email,password\nA@example.com,p\na@example.com,p\nC@Example.com,p\n");
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getSkipped()).isEqualTo(2);
+        assertThat(result.getFailed()).isZero();
+        verify(entityManager, times(1)).persist(any(User.class));
+    }
+
+    @Test
+    void importAfterShutdownFailsRowsInsteadOfHanging() {
+        service.shutdown();
+
+        UserImportProgress result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> importCsv("a@example.com,p\nb@example.com,p\nc@example.com,p\n"));
+
+        assertThat(result.isDone()).isTrue();
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getImported()).isZero();
+        verify(entityManager, never()).persist(any());
+    }
+
+    private UserImportProgress importCsv(String csv) throws Exception {
+        List<UserImportProgress> progress = new ArrayList<>();
+        service.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                UserImportService.Format.CSV, progress::add);
+        return progress.get(progress.size() - 1);
+    }
+}
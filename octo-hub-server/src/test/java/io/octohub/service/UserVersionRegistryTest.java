@@ -0,0 +1,85 @@
+package io.octohub.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserVersionRegistryTest {
+
+    private UserVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new UserVersionRegistry();
+        ReflectionTestUtils.setField(registry, "maxSize", 1000L);
+        ReflectionTestUtils.setField(registry, "ttlSeconds", 60L);
+        registry.init();
+    }
+
+    @Test
+    void unknownUserIsNeverCurrent() {
+        assertThat(registry.isCurrent(1L, 0L)).isFalse();
+    }
+
+    @Test
+    void newerVersionRevokesOlderTokens() {
+        registry.record(1L, 3L);
+        assertThat(registry.isCurrent(1L, 3L)).isTrue();
+
+        registry.record(1L, 4L);
+
+        assertThat(registry.isCurrent(1L, 3L)).isFalse();
+        assertThat(registry.isCurrent(1L, 4L)).isTrue();
+    }
+
+    @Test
+    void staleLoadDoesNotRollBackVersion() {
+        registry.record(1L, 5L);
+
+        registry.record(1L, 4L);
+
+        assertThat(registry.isCurrent(1L, 4L)).isFalse();
+        assertThat(registry.isCurrent(1L, 5L)).isTrue();
+    }
+
+    @Test
+    void unknownUserIsNotSupersededAndGetsRecorded() {
+        assertThat(registry.isSuperseded(1L, 2L)).isFalse();
+
+        assertThat(registry.isCurrent(1L, 2L)).isTrue();
+    }
+
+    @Test
+    void onlyKnownNewerVersionSupersedes() {
+        registry.record(1L, 3L);
+
+        assertThat(registry.isSuperseded(1L, 2L)).isTrue();
+        assertThat(registry.isSuperseded(1L, 3L)).isFalse();
+        assertThat(registry.isSuperseded(1L, 4L)).isFalse();
+        assertThat(registry.isCurrent(1L, 4L)).isTrue();
+    }
+
+    @Test
+    void removedUserIsNoLongerCurrent() {
+        registry.record(1L, 1L);
+
+        registry.remove(1L);
+
+        assertThat(registry.isCurrent(1L, 1L)).isFalse();
+    }
+
+    @Test
+    void sizeIsBounded() {
+        ReflectionTestUtils.setField(registry, "maxSize", 10L);
+        registry.init();
+
+        for (long id = 0; id < 1000; id++) {
+            registry.record(id, 1L);
+        }
+
+        // 淘汰在后台维护中完成，估算值只保证最终不超过上限太多
+        assertThat(registry.size()).isLessThan(1000L);
+    }
+}
@@ -0,0 +1,71 @@
+package io.octohub.service;
+
+import io.octohub.dto.NodeConnectionItem;
+import io.octohub.util.WebSocketSignatureUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebSocketServiceTest {
+
+    private WebSocketService service;
+
+    @BeforeEach
+    void setUp() {
+        WebSocketSignatureUtils signatureUtils = new WebSocketSignatureUtils();
+        signatureUtils.setSecretKey("test-secret");
+        service = new WebSocketService();
+        ReflectionTestUtils.setField(service, "signatureUtils", signatureUtils);
+        ReflectionTestUtils.setField(service, "wsHost", "localhost");
+        ReflectionTestUtils.setField(service, "wsPort", "8000");
+        ReflectionTestUtils.setField(service, "wsProtocol", "ws");
+        ReflectionTestUtils.setField(service, "batchChunkSize", 2);
+        ReflectionTestUtils.setField(service, "batchThreads", 1);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void singleNodeUrlRejectsInvalidId() {
+        assertThatThrownBy(() -> service.generateNodeConnectionUrl("bad id&x=1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(service.generateNodeConnectionUrl("node-1").getWsUrl()).contains("pc_id=node-1");
+    }
+
+    @Test
+    void batchMarksInvalidIdsAndKeepsOrder() throws Exception {
+        List<CompletableFuture<List<NodeConnectionItem>>> chunks =
+                service.generateNodeConnectionUrls(List.of("a", "bad id", "c"));
+
+        List<NodeConnectionItem> items = chunks.get(0).get(5, TimeUnit.SECONDS);
+        assertThat(items).extracting(NodeConnectionItem::getPcId).containsExactly("a", "bad id");
+        assertThat(items.get(1).getWsUrl()).isNull();
+        assertThat(chunks.get(1).get(5, TimeUnit.SECONDS)).extracting(NodeConnectionItem::getPcId).containsExactly("c");
+    }
+
+    @Test
+    void batchAfterShutdownCompletesExceptionally() {
+        service.shutdown();
+
+        List<CompletableFuture<List<NodeConnectionItem>>> chunks = service.generateNodeConnectionUrls(List.of("a", "b", "c"));
+
+        assertThat(chunks).hasSize(2).allSatisfy(chunk -> assertThat(chunk).isCompletedExceptionally());
+        assertThatThrownBy(() -> chunks.get(0).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+}
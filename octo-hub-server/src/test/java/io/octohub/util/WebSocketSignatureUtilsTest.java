@@ -0,0 +1,42 @@
+package io.octohub.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketSignatureUtilsTest {
+
+    private WebSocketSignatureUtils signatureUtils;
+
+    private final String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+
+    @BeforeEach
+    void setUp() {
+        signatureUtils = new WebSocketSignatureUtils();
+        signatureUtils.setSecretKey("test-secret");
+    }
+
+    @Test
+    void signatureIsValidForItsOwnClientType() {
+        String signature = signatureUtils.generateSignature(WebSocketSignatureUtils.CLIENT_NODE, "node-1", timestamp);
+
+        assertThat(signatureUtils.validateSignature(WebSocketSignatureUtils.CLIENT_NODE, "node-1", timestamp, signature)).isTrue();
+        assertThat(signatureUtils.validateSignature(WebSocketSignatureUtils.CLIENT_NODE, "node-2", timestamp, signature)).isFalse();
+    }
+
+    @Test
+    void userSignatureCannotConnectAsNode() {
+        String signature = signatureUtils.generateSignature(WebSocketSignatureUtils.CLIENT_USER, "42", timestamp);
+
+        assertThat(signatureUtils.validateSignature(WebSocketSignatureUtils.CLIENT_NODE, "42", timestamp, signature)).isFalse();
+    }
+
+    @Test
+    void expiredTimestampIsRejected() {
+        String old = String.valueOf(System.currentTimeMillis() / 1000 - 3600);
+        String signature = signatureUtils.generateSignature(WebSocketSignatureUtils.CLIENT_USER, "42", old);
+
+        assertThat(signatureUtils.validateSignature(WebSocketSignatureUtils.CLIENT_USER, "42", old, signature)).isFalse();
+    }
+}
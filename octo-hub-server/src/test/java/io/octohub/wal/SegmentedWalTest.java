@@ -0,0 +1,172 @@
+package io.octohub.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentedWalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversRecordsInOrderAcrossSegments() throws IOException {
+        try (SegmentedWal wal = open(new ArrayList<>())) {
+            for (int i = 1; i <= 200; i++) {
+                assertThat(wal.append((byte) 1, payload("record-" + i))).isEqualTo(i);
+            }
+            assertThat(wal.segmentCount()).isGreaterThan(1);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (SegmentedWal wal = open(replayed)) {
+            assertThat(wal.nextSeq()).isEqualTo(201);
+            assertThat(wal.append((byte) 1, payload("record-201"))).isEqualTo(201);
+        }
+        assertThat(replayed).hasSize(200);
+        assertThat(replayed.get(0)).isEqualTo("1:record-1");
+        assertThat(replayed.get(199)).isEqualTo("200:record-200");
+    }
+
+    @Test
+    void truncatesTornRecordAndContinuesFromIt() throws IOException {
+        try (SegmentedWal wal = open(new ArrayList<>())) {
+            wal.append((byte) 1, payload("first"));
+            wal.append((byte) 1, payload("second"));
+        }
+        // 破坏第二条记录的内容，模拟写到一半时崩溃
+        Path segment = onlySegment();
+        int secondOffset = 8 + 9 + payload("first").length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), secondOffset + 8 + 9);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (SegmentedWal wal = open(replayed)) {
+            assertThat(replayed).containsExactly("1:first");
+            assertThat(wal.append((byte) 1, payload("replacement"))).isEqualTo(2);
+        }
+
+        replayed.clear();
+        try (SegmentedWal wal = open(replayed)) {
+            assertThat(replayed).containsExactly("1:first", "2:replacement");
+        }
+    }
+
+    @Test
+    void discardsEmptyTrailingSegmentLeftByCrash() throws IOException {
+        try (SegmentedWal wal = open(new ArrayList<>())) {
+            wal.append((byte) 1, payload("first"));
+            wal.append((byte) 1, payload("second"));
+        }
+        // 模拟创建段文件后、预分配前崩溃，以及创建临时文件时崩溃
+        Files.createFile(dir.resolve(String.format("%020d", 3) + ".wal"));
+        Files.createFile(dir.resolve(String.format("%020d", 3) + ".wal.tmp"));
+
+        List<String> replayed = new ArrayList<>();
+        try (SegmentedWal wal = open(replayed)) {
+            assertThat(replayed).containsExactly("1:first", "2:second");
+            assertThat(wal.nextSeq()).isEqualTo(3);
+            for (int i = 3; i <= 200; i++) {
+                assertThat(wal.append((byte) 1, payload("record-" + i))).isEqualTo(i);
+            }
+            assertThat(wal.segmentCount()).isGreaterThan(1);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).noneMatch(path -> path.getFileName().toString().endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    void groupCommitAcknowledgesConcurrentWriters() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (SegmentedWal wal = SegmentedWal.open(dir, 1 << 20, true, TimeUnit.MILLISECONDS.toNanos(1),
+                (seq, type, payload) -> {
+                })) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        long seq = wal.append((byte) 1, payload("x"));
+                        wal.awaitDurable(seq);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(wal.durableSeq()).isEqualTo(800);
+            // 等待的写入方被合并刷盘，刷盘次数少于记录数
+            assertThat(wal.syncCount()).isLessThan(800);
+            assertThat(wal.failure()).isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void deleteBeforeKeepsSegmentsWithLiveRecords() throws Exception {
+        try (SegmentedWal wal = open(new ArrayList<>())) {
+            for (int i = 1; i <= 200; i++) {
+                wal.append((byte) 1, payload("record-" + i));
+            }
+            int before = wal.segmentCount();
+            wal.awaitDurable(200);
+
+            wal.deleteBefore(wal.firstSegmentLastSeq());
+            assertThat(wal.segmentCount()).isEqualTo(before);
+
+            wal.deleteBefore(wal.firstSegmentLastSeq() + 1);
+            assertThat(wal.segmentCount()).isEqualTo(before - 1);
+        }
+    }
+
+    @Test
+    void appendAfterCloseFails() throws IOException {
+        SegmentedWal wal = open(new ArrayList<>());
+        wal.close();
+
+        assertThatThrownBy(() -> wal.append((byte) 1, payload("late"))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> wal.awaitDurable(1)).isInstanceOf(IOException.class);
+    }
+
+    private SegmentedWal open(List<String> replayed) throws IOException {
+        return SegmentedWal.open(dir, SEGMENT_BYTES, true, 0, (seq, type, payload) -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            replayed.add(seq + ":" + new String(bytes, StandardCharsets.UTF_8));
+        });
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -8,6 +8,12 @@ import (
 	"time"
 )
 
+// 连接类型，参与签名，用户连接地址不能用于以相同ID冒充节点
+const (
+	ClientUser = "user"
+	ClientNode = "node"
+)
+
 // SignatureValidator 签名验证器
 type SignatureValidator struct {
 	secretKey string
@@ -21,9 +27,9 @@ func NewSignatureValidator(secretKey string) *SignatureValidator {
 }
 
 // ValidateSignature 验证签名
-func (sv *SignatureValidator) ValidateSignature(id, timestamp, signature string, timeoutSeconds int) bool {
+func (sv *SignatureValidator) ValidateSignature(clientType, id, timestamp, signature string, timeoutSeconds int) bool {
 	// 生成期望的签名
-	message := id + timestamp
+	message := clientType + ":" + id + timestamp
 	mac := hmac.New(sha256.New, []byte(sv.secretKey))
 	mac.Write([]byte(message))
 	expectedSignature := hex.EncodeToString(mac.Sum(nil))
@@ -48,9 +54,9 @@ func (sv *SignatureValidator) ValidateSignature(id, timestamp, signature string,
 }
 
 // GenerateSignature 生成签名（用于测试）
-func (sv *SignatureValidator) GenerateSignature(id string) (string, string) {
+func (sv *SignatureValidator) GenerateSignature(clientType, id string) (string, string) {
 	timestamp := strconv.FormatInt(time.Now().Unix(), 10)
-	message := id + timestamp
+	message := clientType + ":" + id + timestamp
 
 	mac := hmac.New(sha256.New, []byte(sv.secretKey))
 	mac.Write([]byte(message))
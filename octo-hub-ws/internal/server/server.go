@@ -57,7 +57,7 @@ func (s *WebSocketServer) HandleUserConnection(c *gin.Context) {
 	}
 
 	// 验证签名
-	if !s.authValidator.ValidateSignature(userID, timestamp, signature, s.config.Signature.Timeout) {
+	if !s.authValidator.ValidateSignature(auth.ClientUser, userID, timestamp, signature, s.config.Signature.Timeout) {
 		c.JSON(401, gin.H{"error": "签名验证失败"})
 		return
 	}
@@ -94,7 +94,7 @@ func (s *WebSocketServer) HandleNodeConnection(c *gin.Context) {
 	}
 
 	// 验证签名
-	if !s.authValidator.ValidateSignature(pcID, timestamp, signature, s.config.Signature.Timeout) {
+	if !s.authValidator.ValidateSignature(auth.ClientNode, pcID, timestamp, signature, s.config.Signature.Timeout) {
 		c.JSON(401, gin.H{"error": "签名验证失败"})
 		return
 	}